@@ -0,0 +1,79 @@
+import bench.SearchBridge;
+
+import java.util.Scanner;
+
+/**
+ * This class implements the bridge of the benchmarks to the solver classes (see bench.SearchBridge).
+ * It is in the default package, like the solver, so it can reach the package private parts of State.
+ */
+public class BenchBridge implements SearchBridge {
+
+    /**
+     * The first lines of the instances: the algorithm is given apart, no time and no open list.
+     */
+    private static final String HEADER = "no time\nno open\n";
+
+    @Override
+    public Object initialState(String instance) {
+        Problem problem = Problem.read(new Scanner("A*\n" + HEADER + instance));
+        int[] emptyPanel = Ex1.emptyPanel(problem.getStartBoard());
+        ProblemContext context = new ProblemContext(problem.getGoalBoard());
+        return new State(problem.getStartBoard(), 0, null, context, emptyPanel[0], emptyPanel[1], emptyPanel[2], emptyPanel[3]);
+    }
+
+    @Override
+    public Object operators(Object state) {
+        State s = (State) state;
+        return s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2());
+    }
+
+    @Override
+    public int manhattanDistance(Object state) {
+        return ((State) state).manhattanDistance();
+    }
+
+    @Override
+    public int linearConflict(Object state) {
+        return ((State) state).linearConflict();
+    }
+
+    @Override
+    public int hash(Object state) {
+        return state.hashCode();
+    }
+
+    @Override
+    public boolean equal(Object state, Object other) {
+        return state.equals(other);
+    }
+
+    @Override
+    public String text(Object state) {
+        return state.toString();
+    }
+
+    @Override
+    public Object prepare(String algorithm, String instance) {
+        Problem problem = Problem.read(new Scanner(algorithm + "\n" + HEADER + instance));
+        return new Prepared(problem, new ProblemContext(problem.getGoalBoard()));
+    }
+
+    @Override
+    public String solve(Object prepared) {
+        Prepared p = (Prepared) prepared;
+        return Ex1.solve(p.problem, p.context, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * This class holds an instance that is ready to be solved.
+     */
+    private static final class Prepared {
+        private final Problem problem;
+        private final ProblemContext context;
+
+        Prepared(Problem problem, ProblemContext context) {
+            this.problem = problem;
+            this.context = context;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package bench;
+
+/**
+ * This class holds the fixed instances of the benchmarks: 3x3, 3x4 and 4x4 boards with one and two empty panels.
+ * Every instance is a random walk of 10-12 moves from its goal (in the input file format, without the first three lines),
+ * small enough for all the algorithms to solve it in well under a second.
+ */
+public final class Corpus {
+
+    /**
+     * The names of the instances, rows x cols - number of empty panels.
+     */
+    public static final String[] NAMES = {"3x3-1", "3x3-2", "3x4-1", "3x4-2", "4x4-1", "4x4-2"};
+
+    private Corpus() {
+    }
+
+    /**
+     * This method return the board lines of an instance.
+     *
+     * @param name - the name of the instance.
+     * @return - the size line, the start board, "Goal state:" and the goal board.
+     */
+    public static String get(String name) {
+        switch (name) {
+            case "3x3-1":
+                return "3x3\n"
+                        + "1,2,_\n"
+                        + "4,5,8\n"
+                        + "7,6,3\n"
+                        + "Goal state:\n"
+                        + "1,2,3\n"
+                        + "4,5,6\n"
+                        + "7,8,_\n";
+            case "3x3-2":
+                return "3x3\n"
+                        + "2,3,6\n"
+                        + "_,1,5\n"
+                        + "4,7,_\n"
+                        + "Goal state:\n"
+                        + "1,2,3\n"
+                        + "4,5,6\n"
+                        + "7,_,_\n";
+            case "3x4-1":
+                return "3x4\n"
+                        + "2,6,3,4\n"
+                        + "_,9,7,8\n"
+                        + "1,5,10,11\n"
+                        + "Goal state:\n"
+                        + "1,2,3,4\n"
+                        + "5,6,7,8\n"
+                        + "9,10,11,_\n";
+            case "3x4-2":
+                return "3x4\n"
+                        + "1,2,_,4\n"
+                        + "_,6,3,7\n"
+                        + "5,9,10,8\n"
+                        + "Goal state:\n"
+                        + "1,2,3,4\n"
+                        + "5,6,7,8\n"
+                        + "9,10,_,_\n";
+            case "4x4-1":
+                return "4x4\n"
+                        + "_,1,3,4\n"
+                        + "5,2,11,7\n"
+                        + "9,6,15,8\n"
+                        + "13,10,14,12\n"
+                        + "Goal state:\n"
+                        + "1,2,3,4\n"
+                        + "5,6,7,8\n"
+                        + "9,10,11,12\n"
+                        + "13,14,15,_\n";
+            case "4x4-2":
+                return "4x4\n"
+                        + "1,2,6,3\n"
+                        + "_,5,4,_\n"
+                        + "9,10,7,8\n"
+                        + "13,14,11,12\n"
+                        + "Goal state:\n"
+                        + "1,2,3,4\n"
+                        + "5,6,7,8\n"
+                        + "9,10,11,12\n"
+                        + "13,14,_,_\n";
+            default:
+                throw new IllegalArgumentException("unknown instance: " + name);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end DFBnB solves of the corpus instances it finishes in about a second (see SolveBenchmark).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class DFBnBBenchmark {
+
+    private static final SearchBridge BRIDGE = SearchBridge.load();
+
+    @Param({"3x3-1", "3x3-2", "3x4-2"})
+    public String instance;
+
+    private Object prepared;
+
+    @Setup
+    public void setup() {
+        this.prepared = BRIDGE.prepare("DFBnB", Corpus.get(this.instance));
+    }
+
+    @Benchmark
+    public String solve() {
+        return BRIDGE.solve(this.prepared);
+    }
+}
@@ -0,0 +1,79 @@
+package bench;
+
+/**
+ * This interface is the way from the benchmarks to the solver classes.
+ * JMH does not accept benchmarks in the default package and a named package can not import the default package,
+ * so BenchBridge (in the default package) implements this interface and the benchmarks load it by name once.
+ * The calls are plain interface calls of one class, so the JIT inlines them as if the benchmarks called the solver directly.
+ * The states and instances are passed as Object.
+ */
+public interface SearchBridge {
+
+    /**
+     * This method load the implementation from the default package.
+     *
+     * @return - the bridge.
+     */
+    static SearchBridge load() {
+        try {
+            return (SearchBridge) Class.forName("BenchBridge").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("BenchBridge is not on the class path", e);
+        }
+    }
+
+    /**
+     * This method return the initial state of an instance of the corpus.
+     *
+     * @param instance - the board lines of the instance (see Corpus).
+     * @return - the State.
+     */
+    Object initialState(String instance);
+
+    /**
+     * This method return all the states that can be reached from the state with one move (State.performingOperators).
+     */
+    Object operators(Object state);
+
+    /**
+     * This method return the heuristic of the state computed from scratch (State.manhattanDistance).
+     */
+    int manhattanDistance(Object state);
+
+    /**
+     * This method return the number of linear conflicts of the state, computed from scratch.
+     */
+    int linearConflict(Object state);
+
+    /**
+     * This method return the hash code of the state (State.hashCode).
+     */
+    int hash(Object state);
+
+    /**
+     * This method compare two states (State.equals).
+     */
+    boolean equal(Object state, Object other);
+
+    /**
+     * This method return the text of the state (State.toString).
+     */
+    String text(Object state);
+
+    /**
+     * This method read an instance and build its goal tables, everything a solve needs before the search.
+     *
+     * @param algorithm - the name of the algorithm (BFS, A*, ...).
+     * @param instance - the board lines of the instance (see Corpus).
+     * @return - the prepared instance.
+     */
+    Object prepare(String algorithm, String instance);
+
+    /**
+     * This method solve a prepared instance.
+     *
+     * @param prepared - the instance returned by prepare.
+     * @return - the answer: the path, the number of states and the cost.
+     */
+    String solve(Object prepared);
+}
@@ -0,0 +1,48 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end solves of the corpus instances, from the initial state to the answer (the goal tables are built in setup).
+ * DFBnB has its own benchmark, it is far slower on the 3x4 and 4x4 boards with one empty panel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SolveBenchmark {
+
+    private static final SearchBridge BRIDGE = SearchBridge.load();
+
+    @Param({"BFS", "DFID", "A*", "IDA*"})
+    public String algorithm;
+
+    @Param({"3x3-1", "3x3-2", "3x4-1", "3x4-2", "4x4-1", "4x4-2"})
+    public String instance;
+
+    private Object prepared;
+
+    @Setup
+    public void setup() {
+        this.prepared = BRIDGE.prepare(this.algorithm, Corpus.get(this.instance));
+    }
+
+    @Benchmark
+    public String solve() {
+        return BRIDGE.solve(this.prepared);
+    }
+}
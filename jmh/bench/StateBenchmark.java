@@ -0,0 +1,77 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The hot paths of State: generating the children, the heuristic from scratch, and hashing/comparing/printing.
+ * Run with -prof gc for the allocation rate of every operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class StateBenchmark {
+
+    private static final SearchBridge BRIDGE = SearchBridge.load();
+
+    @Param({"3x3-1", "3x3-2", "3x4-1", "3x4-2", "4x4-1", "4x4-2"})
+    public String instance;
+
+    private Object state;
+    private Object twin;    // an equal state that is a different object.
+
+    @Setup
+    public void setup() {
+        this.state = BRIDGE.initialState(Corpus.get(this.instance));
+        this.twin = BRIDGE.initialState(Corpus.get(this.instance));
+    }
+
+    @Benchmark
+    public Object performingOperators() {
+        return BRIDGE.operators(this.state);
+    }
+
+    @Benchmark
+    public int manhattanDistance() {
+        return BRIDGE.manhattanDistance(this.state);
+    }
+
+    @Benchmark
+    public int linearConflict() {
+        return BRIDGE.linearConflict(this.state);
+    }
+
+    @Benchmark
+    public int hash() {
+        return BRIDGE.hash(this.state);
+    }
+
+    @Benchmark
+    public boolean equal() {
+        return BRIDGE.equal(this.state, this.twin);
+    }
+
+    @Benchmark
+    public String text() {
+        return BRIDGE.text(this.state);
+    }
+
+    @Benchmark
+    public int textHash() {
+        return BRIDGE.text(this.state).hashCode();
+    }
+}
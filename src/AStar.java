@@ -1,6 +1,5 @@
 import java.util.ArrayList;
-import java.util.Hashtable;
-import java.util.PriorityQueue;
+import java.util.Arrays;
 import java.util.Vector;
 
 /**
@@ -12,9 +11,32 @@ import java.util.Vector;
  * A* selects the path that minimizes, do that by: f(n)=g(n)+h(n)
  * where n is the next node on the path, g(n) is the cost of the path from the start node to n, and h(n) is a heuristic function that estimates
  * the cost of the cheapest path from n to the goal.
+ * The open list is an IndexedHeap of node indexes (f and g cached, ties broken on larger g), a better path to a state
+ * that is already in the open list lowers its key in place.
+ * With a memory budget (setMemoryBudget), when the search holds that many states it stops growing and goes on as IDA*
+ * seeded by its open list: every iteration searches depth-first under the open states whose f is at most the threshold,
+ * starting at the smallest f of the open list, so the memory stays bounded and the answer stays optimal with an admissible
+ * heuristic (the pattern database).
  */
 public class AStar extends Algo{
 
+    /**
+     * The estimated memory of one state of the search: the State and its PackedBoard, its slots in the open and
+     * closed lists and in the heap.
+     */
+    public static final int BYTES_PER_NODE = 200;
+
+    /**
+     * This class has three fields:
+     *
+     * @param maxNodes - the number of states the search may hold before it goes on as IDA* (no limit by default).
+     * @param moves - the moves of every depth of the IDA* part, Move.MAX_MOVES for each depth.
+     * @param minF - the minimum f of all the states that exceeded the threshold in this iteration of the IDA* part.
+     */
+    private long maxNodes = Long.MAX_VALUE;
+    private int[] moves;
+    private int minF;
+
     /**
      * constructor.
      *
@@ -26,37 +48,170 @@ public class AStar extends Algo{
         super(initialState, g, withOpen);
     }
 
+    /**
+     * This method set the memory budget of the search: the number of states it holds before it goes on as IDA*.
+     *
+     * @param nodes - the number of states, Long.MAX_VALUE for no limit.
+     */
+    public void setMemoryBudget(long nodes) {
+        if (nodes < 1) {
+            throw new IllegalArgumentException("the memory budget needs at least one state: " + nodes);
+        }
+        this.maxNodes = nodes;
+    }
+
+    /**
+     * This method return the number of states that fit in a memory budget.
+     *
+     * @param megabytes - the budget in megabytes.
+     * @return - the number of states (BYTES_PER_NODE each).
+     */
+    public static long nodesOfMegabytes(long megabytes) {
+        return Math.max(1, (megabytes << 20) / BYTES_PER_NODE);
+    }
+
     @Override
     public String Algo() {
-        PriorityQueue<State> pq = new PriorityQueue<>();
-        Hashtable<String, State> closedList = new Hashtable<>();
-        Hashtable<String, State> openList = new Hashtable<>();
-        pq.add(initialState);
-        numOfState++;
-        openList.put(initialState.toString(), initialState);
+        IndexedHeap pq = new IndexedHeap();
+        ArrayList<State> nodes = new ArrayList<>();
+        StateTable closedList = new StateTable();
+        StateTable openList = new StateTable();
+        nodes.add(initialState);
+        pq.add(0, initialState.getCost() + initialState.getHeuristic(), initialState.getCost());
+        stats.generate();
+        stats.evaluate();
+        openList.put(initialState.getBoard(), 0);
         while (!pq.isEmpty()) {
-            openListPrint(openList, this.withOpen); // if withOpen == true it will print the open list in this level.
-            State s = pq.remove();
-            openList.remove(s.toString());
-            if (goals.contains(s)) {
+            if (isCancelled()) {
+                return cancelled();
+            }
+            if (nodes.size() >= this.maxNodes) {     // the memory budget is used, the open list seeds IDA*.
+                closedList = null;
+                openList = null;
+                return frontierSearch(pq, nodes);
+            }
+            openListPrint(openList, nodes, this.withOpen); // if withOpen == true it will print the open list in this level.
+            int index = pq.poll();
+            State s = nodes.get(index);
+            openList.remove(s.getBoard());
+            if (isGoal(s)) {
                 return print(s);
             }
-            closedList.put(s.toString(), s);
+            closedList.put(s.getBoard(), index);
+            stats.expand();
+            stats.closed(closedList.size());
             ArrayList<State> arrState = s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2());
-            while (!arrState.isEmpty()) {
-                State operator = arrState.remove(0);
-                numOfState++;
-                if (!closedList.containsKey(operator.toString()) && !openList.containsKey(operator)) {
-                    pq.add(operator);
-                    openList.put(operator.toString(), operator);
-                } else if (openList.containsKey(operator) && openList.get(operator.toString()).compareTo(operator) == -1) {
-                    State del = openList.remove(operator.toString());
-                    pq.remove(del);
-                    pq.add(operator);
-                    openList.put(operator.toString(), operator);
+            for (State operator : arrState) {
+                stats.generate();
+                if (closedList.containsKey(operator.getBoard())) {
+                    stats.duplicate();
+                    continue;
+                }
+                int funcOperator = operator.getCost() + operator.getHeuristic(); // f(operator) = g(operator) + h(operator)
+                stats.evaluate();
+                int old = openList.get(operator.getBoard());
+                if (old == -1) {
+                    nodes.add(operator);
+                    pq.add(nodes.size() - 1, funcOperator, operator.getCost());
+                    openList.put(operator.getBoard(), nodes.size() - 1);
+                    stats.open(openList.size());
+                } else if (operator.getCost() < nodes.get(old).getCost()) {  // better path, same board so same h.
+                    nodes.set(old, operator);
+                    pq.decreaseKey(old, funcOperator, operator.getCost());
+                } else {
+                    stats.duplicate();
+                }
+            }
+        }
+        return noPath();
+    }
+
+    /**
+     * This method go on with IDA* from the open list of the search, when its memory budget is used.
+     * The open states are the seeds: every path from the initial state to a goal passes through one of them, so an
+     * iteration searches depth-first under every seed whose f is at most the threshold (the path of the seed is replayed
+     * on one MutableBoard), and the first threshold is the smallest f of the open list.
+     *
+     * @param pq    - the open list.
+     * @param nodes - all the states of the search (cleared, the seeds keep only their paths).
+     * @return - the ans of the algorithm.
+     */
+    private String frontierSearch(IndexedHeap pq, ArrayList<State> nodes) {
+        stats.phase("frontier");
+        State[] seeds = new State[pq.size()];
+        int[] seedF = new int[pq.size()];
+        for (int k = 0; k < seeds.length; k++) {    // by f, the order of the heap.
+            seedF[k] = pq.peekF();
+            seeds[k] = nodes.get(pq.poll());
+        }
+        nodes.clear();
+        MutableBoard board = new MutableBoard(initialState, goals);
+        this.moves = new int[64 * Move.MAX_MOVES];
+        int t = seeds.length == 0 ? Integer.MAX_VALUE : seedF[0];
+        while (t != Integer.MAX_VALUE) {
+            threshold(t);
+            stats.phase("frontier " + t);
+            this.minF = Integer.MAX_VALUE;
+            for (int k = 0; k < seeds.length; k++) {
+                if (seedF[k] > t) {
+                    this.minF = Math.min(this.minF, seedF[k]);
+                    break;
+                }
+                int[] path = pathMoves(seeds[k], 0);
+                for (int move : path) {
+                    board.apply(move);
+                }
+                if (boundedDFS(board, t)) {
+                    return print(board);
+                }
+                if (isCancelled()) {
+                    return cancelled();
                 }
+                for (int d = 0; d < path.length; d++) {
+                    board.undo();
+                }
+            }
+            t = this.minF;
+        }
+        return noPath();
+    }
+
+    /**
+     * Private method to search depth-first under the board, cutting off a branch when its f(n) exceeds the threshold.
+     *
+     * @param board - the board we start from him (the path of the search is the path of the board).
+     * @param t     - the threshold of this iteration.
+     * @return - true if it reached a goal (the board is left on the goal), false o.t. (or if the search was cancelled).
+     */
+    private boolean boundedDFS(MutableBoard board, int t) {
+        if (board.isGoal()) {
+            return true;
+        }
+        if (isCancelled()) {
+            return false;
+        }
+        openListPrint(board, this.withOpen); // if withOpen == true it will print the open list in this level.
+        stats.expand();
+        stats.open(board.getDepth() + 1);
+        int offset = board.getDepth() * Move.MAX_MOVES;
+        if (offset + Move.MAX_MOVES > this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, Math.max(this.moves.length * 2, offset + Move.MAX_MOVES));
+        }
+        int count = board.moves(this.moves, offset);
+        for (int k = offset + count - 1; k >= offset; k--) {     // the last generated first, like IDAStar.
+            stats.generate();
+            board.apply(this.moves[k]);
+            int funcOperator = board.getCost() + board.getHeuristic(); // f(operator) = g(operator) + h(operator)
+            stats.evaluate();
+            if (funcOperator > t) {
+                this.minF = Math.min(this.minF, funcOperator);
+            } else if (board.onPath()) {
+                stats.duplicate();
+            } else if (boundedDFS(board, t)) {
+                return true;
             }
+            board.undo();
         }
-        return "no path\n" + "Num: " + numOfState;
+        return false;
     }
 }
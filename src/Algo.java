@@ -1,6 +1,6 @@
-import java.util.Hashtable;
-import java.util.LinkedList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Vector;
 
 /**
@@ -10,17 +10,23 @@ import java.util.Vector;
  */
 public abstract class Algo {
     /**
-     * This class has four fields:
+     * This class has seven fields:
      *
      * @param initialState - The initial state of the game.
      * @param goals - A vector containing all the target states that need to be reached (at least one of them).
+     * @param goalBoards - the boards of the goals, for a goal test in O(1) (it is only read, so threads can share it).
      * @param withOpen - flag if print the open list or not.
-     * @param numOfState - counter states.
+     * @param trace - where the open list is printed (sampled), when withOpen is true.
+     * @param stats - the statistics of this search (its generated states are the "Num" of the answer).
+     * @param cancelled - true after cancel() (from another thread): the search stops at its next check.
      */
     protected State initialState;
     protected Vector<State> goals;
+    protected final Set<PackedBoard> goalBoards = new HashSet<>();
     protected boolean withOpen;
-    public static int numOfState = 0;
+    protected Trace trace;
+    protected final SearchStats stats;
+    private volatile boolean cancelled;
 
     /**
      * constructor.
@@ -28,7 +34,89 @@ public abstract class Algo {
     protected Algo(State initialState, Vector<State> g, boolean withOpen) {
         this.initialState = initialState;
         this.goals = g;
+        for (State goal : g) {
+            this.goalBoards.add(goal.getBoard());
+        }
         this.withOpen = withOpen;
+        if (withOpen) {     // every open list to the standard output, until setTrace.
+            PackedBoard board = initialState.getBoard();
+            this.trace = Trace.text(System.out, board.getRows(), board.getCols(), 1);
+        }
+        this.stats = new SearchStats(getClass().getSimpleName());
+    }
+
+    /**
+     * This method run the search (Algo()) and measure it, the statistics are in getStats() after it.
+     *
+     * @return - the ans of the algorithm.
+     */
+    public String solve() {
+        this.stats.phase("search");
+        String ans = Algo();
+        this.stats.finish();
+        if (this.withOpen) {
+            this.trace.flush();
+        }
+        return ans;
+    }
+
+    /**
+     * This method set the trace of the open list (and turn the print of the open list on).
+     *
+     * @param trace - the trace.
+     */
+    public void setTrace(Trace trace) {
+        this.trace = trace;
+        this.withOpen = true;
+    }
+
+    /**
+     * This method ask the search to stop (it may be called from any thread): the search checks it on every expansion and
+     * answers cancelled().
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * This method returns the ans of a search that was cancelled.
+     *
+     * @return - "cancelled" and the number of states.
+     */
+    protected String cancelled() {
+        return "cancelled\n" + "Num: " + this.stats.getGenerated();
+    }
+
+    /**
+     * This method return the statistics of the search.
+     *
+     * @return - the statistics.
+     */
+    public SearchStats getStats() {
+        return this.stats;
+    }
+
+    /**
+     * This method check if a state is one of the goals, by its board (in O(1), not by a scan of the goals).
+     *
+     * @param s - the state.
+     * @return - true if the board of the state is a goal board.
+     */
+    protected boolean isGoal(State s) {
+        return this.goalBoards.contains(s.getBoard());
+    }
+
+    /**
+     * This method returns the ans of a search that did not find a path.
+     *
+     * @return - "no path" and the number of states.
+     */
+    protected String noPath() {
+        return "no path\n" + "Num: " + this.stats.getGenerated();
     }
 
     /**
@@ -38,51 +126,140 @@ public abstract class Algo {
      * @return - path of the states until the goal state.
      */
     protected String print(State g) {
-        List<State> tempList = goalList(g);
-        if (tempList.isEmpty()) {
-            System.out.println("");
+        String phase = this.stats.phase("path");
+        int[] moves = pathMoves(g, 0);
+        String ans = Move.join(moves, moves.length) + "\n";
+        ans += "Num: " + this.stats.getGenerated() + "\n";
+        ans += "Cost: " + g.getCost() + "\n";
+        this.stats.solution(g.getCost());
+        this.stats.phase(phase);
+        return ans;
+    }
+
+    /**
+     * This method returns the path from the initial state to the board of a depth-first search, which is the goal board.
+     *
+     * @param board - the board of the search, at the end of the path.
+     * @return - path of the states until the goal state.
+     */
+    protected String print(MutableBoard board) {
+        String phase = this.stats.phase("path");
+        String ans = board.path() + "\n";
+        ans += "Num: " + this.stats.getGenerated() + "\n";
+        ans += "Cost: " + board.getCost() + "\n";
+        this.stats.solution(board.getCost());
+        this.stats.phase(phase);
+        return ans;
+    }
+
+    /**
+     * This method returns the path of a bidirectional search: from the initial state to the meeting state (forward),
+     * then from the meeting state to a goal, which is the path of the backward search read backward (backward).
+     *
+     * @param forward  - the meeting state, reached from the initial state.
+     * @param backward - the meeting state, reached from a goal state.
+     * @return - path of the states until the goal state.
+     */
+    protected String print(State forward, State backward) {
+        String phase = this.stats.phase("path");
+        int length = 0;
+        for (State b = backward; b.getPre() != null; b = b.getPre()) {
+            length++;
         }
-        String ans = tempList.remove(0).getStrPath();
-        while (!tempList.isEmpty()) {
-            State s = tempList.remove(0);
-            if (s.getStrPath() != null) {
-                ans = s.getStrPath() + "-" + ans;
-            }
+        int[] moves = pathMoves(forward, length);
+        int k = moves.length - length;
+        for (State b = backward; b.getPre() != null; b = b.getPre()) {
+            moves[k++] = Move.inverse(b.getMove());
         }
-        ans += "\n";
-        ans += "Num: " + numOfState + "\n";
-        ans += "Cost: " + g.getCost() + "\n";
+        String ans = Move.join(moves, moves.length) + "\n";
+        ans += "Num: " + this.stats.getGenerated() + "\n";
+        ans += "Cost: " + (forward.getCost() + backward.getCost()) + "\n";
+        this.stats.solution(forward.getCost() + backward.getCost());
+        this.stats.phase(phase);
         return ans;
     }
 
     /**
-     * This method returns a list of states up to the target state.
+     * This method returns the moves from the initial state to the state, in one pass over the pre links
+     * (the states on the path are counted first, so the array is filled from its end).
+     *
+     * @param g     - The last state on the path.
+     * @param extra - room to leave after the moves (for the moves of a backward search).
+     * @return - the Move codes of the path, the first move first.
+     */
+    protected static int[] pathMoves(State g, int extra) {
+        int length = 0;
+        for (State s = g; s.getPre() != null; s = s.getPre()) {
+            length++;
+        }
+        int[] moves = new int[length + extra];
+        for (State s = g; s.getPre() != null; s = s.getPre()) {
+            moves[--length] = s.getMove();
+        }
+        return moves;
+    }
+
+    /**
+     * This method print the open list, sampled by the trace of the search.
+     *
+     * @param openList - the open list, board to the index of the state in nodes.
+     * @param nodes    - all the states of the search.
+     * @param withOpen - flag: if true it will print, if false it will not.
+     */
+    protected void openListPrint(StateTable openList, List<State> nodes, boolean withOpen) {
+        if (withOpen == true && this.trace.sample()) {
+            int[] open = openList.nodes();
+            this.trace.begin(open.length);
+            for (int node : open) {
+                this.trace.board(nodes.get(node).getBoard());
+            }
+            this.trace.end();
+        }
+    }
+
+    /**
+     * This method print the open list, sampled by the trace of the search.
      *
-     * @param g - The last state on the list.
-     * @return - list of the states until the goal state.
-     */
-    private List<State> goalList(State g) {
-        List<State> finalList = new LinkedList<>();
-        while (g != null) {
-            finalList.add(g);
-            g = g.getPre();
+     * @param openList - the states of the open list.
+     * @param withOpen - flag: if true it will print, if false it will not.
+     */
+    protected void openListPrint(List<State> openList, boolean withOpen) {
+        if (withOpen == true && this.trace.sample()) {
+            this.trace.begin(openList.size());
+            for (State s : openList) {
+                this.trace.board(s.getBoard());
+            }
+            this.trace.end();
         }
-        return finalList;
     }
 
     /**
-     * This method print the open list.
+     * This method print the open list of a depth-first search: the boards on the path to the board,
+     * sampled by the trace of the search.
      *
-     * @param openList - the open list with the states.
+     * @param board    - the board of the search.
      * @param withOpen - flag: if true it will print, if false it will not.
      */
-    protected void openListPrint(Hashtable<String, State> openList, boolean withOpen) {
-        if (withOpen == true) {
-            System.out.println("start");
-            for (String key : openList.keySet()) {
-                System.out.println(key);
+    protected void openListPrint(MutableBoard board, boolean withOpen) {
+        if (withOpen == true && this.trace.sample()) {
+            int[][] path = board.pathBoards();
+            this.trace.begin(path.length);
+            for (int[] panels : path) {
+                this.trace.board(panels);
             }
-            System.out.println("end");
+            this.trace.end();
+        }
+    }
+
+    /**
+     * This method record the threshold of a new iteration (IDA*, DFID), in the statistics and in the trace.
+     *
+     * @param t - the threshold.
+     */
+    protected void threshold(int t) {
+        this.stats.threshold(t);
+        if (this.withOpen) {
+            this.trace.threshold(t);
         }
     }
 
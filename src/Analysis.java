@@ -0,0 +1,222 @@
+import java.util.Arrays;
+
+/**
+ * This class represents the analysis of an instance before the search: it finds instances that have no path without
+ * searching, and picks an algorithm for the "auto" algorithm line.
+ * <p>
+ * An instance has no path when:
+ * the start and the goal do not have the same panels (the same numbers, the same number of empty panels);
+ * the board is one row or one col, and the numbers are not in the same order (a panel cannot pass another one);
+ * the board has one empty panel and the parity of the permutation of the panels (the empty panel included) is not the
+ * parity of the distance of the empty panel from its goal place (every move is a swap with the empty panel and moves it
+ * one step), when all the numbers are different.
+ * With two empty panels on a board of at least 2x2 every arrangement can be reached.
+ * <p>
+ * The lower bound is the sum of the Manhattan distances of the numbers times the cheapest price of one step of one number
+ * (5 with one empty panel, 3 with two: a move of two numbers costs at least 6).
+ *
+ * @Author Liav Weiss.
+ */
+public final class Analysis {
+
+    /**
+     * "auto" picks A* when the board has at most this many arrangements, or when the lower bound is at most
+     * AUTO_STEPS steps of one number, and IDA* (that does not keep the states) o.t.
+     */
+    public static final long AUTO_STATES = 1 << 21;
+    public static final int AUTO_STEPS = 24;
+
+    /**
+     * This class has five fields:
+     *
+     * @param reason - why the instance has no path, null if it may have one.
+     * @param lowerBound - a lower bound of the cost of the path.
+     * @param steps - the sum of the Manhattan distances of the numbers.
+     * @param states - the number of arrangements of the panels on the board (Long.MAX_VALUE if it is bigger).
+     * @param empty - the number of empty panels.
+     */
+    private final String reason;
+    private final int lowerBound;
+    private final int steps;
+    private final long states;
+    private final int empty;
+
+    private Analysis(String reason, int lowerBound, int steps, long states, int empty) {
+        this.reason = reason;
+        this.lowerBound = lowerBound;
+        this.steps = steps;
+        this.states = states;
+        this.empty = empty;
+    }
+
+    /**
+     * This method analyze an instance.
+     *
+     * @param start - the start board (0 is an empty panel).
+     * @param goal  - the goal board, of the same size.
+     * @return - the analysis.
+     */
+    public static Analysis of(int[][] start, int[][] goal) {
+        int rows = start.length;
+        int cols = start[0].length;
+        int[] from = flat(start);
+        int[] to = flat(goal);
+        int[] sortedFrom = from.clone();
+        int[] sortedTo = to.clone();
+        Arrays.sort(sortedFrom);
+        Arrays.sort(sortedTo);
+        int empty = 0;
+        while (empty < sortedFrom.length && sortedFrom[empty] == 0) {
+            empty++;
+        }
+        if (!Arrays.equals(sortedFrom, sortedTo)) {
+            return new Analysis("the start and the goal do not have the same panels", 0, 0, 0, empty);
+        }
+        if (empty > 2) {
+            throw new IllegalArgumentException("the game has one or two empty panels, not " + empty);
+        }
+        long states = arrangements(sortedFrom);
+        if (empty == 0) {
+            String reason = Arrays.equals(from, to) ? null : "the board has no empty panel";
+            return new Analysis(reason, 0, 0, states, empty);
+        }
+        int steps = 0;
+        for (int k = 0; k < from.length; k++) {
+            if (from[k] != 0) {
+                steps += distance(from[k], k, to, cols);
+            }
+        }
+        int lowerBound = steps * (empty == 2 ? 3 : 5);
+        String reason = null;
+        if (rows == 1 || cols == 1) {
+            if (!Arrays.equals(numbers(from), numbers(to))) {
+                reason = "the numbers are not in the goal order on a board of one line";
+            }
+        } else if (empty == 1 && distinct(sortedFrom)) {
+            int blankSteps = distance(0, indexOf(from, 0), to, cols);
+            if (parity(from, to) != (blankSteps & 1)) {
+                reason = "the parity of the permutation is not the parity of the distance of the empty panel";
+            }
+        }
+        return new Analysis(reason, lowerBound, steps, states, empty);
+    }
+
+    /**
+     * This method check if the instance may have a path.
+     *
+     * @return - false if it was proven that there is no path.
+     */
+    public boolean isSolvable() {
+        return this.reason == null;
+    }
+
+    /**
+     * This method pick the algorithm for the "auto" algorithm line.
+     *
+     * @return - "A*" for a small board or a close goal, "IDA*" o.t.
+     */
+    public String chooseAlgorithm() {
+        return this.states <= AUTO_STATES || this.steps <= AUTO_STEPS ? "A*" : "IDA*";
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public int getLowerBound() {
+        return lowerBound;
+    }
+
+    public int getEmpty() {
+        return empty;
+    }
+
+    /**
+     * This method return the panels of a board, row after row.
+     */
+    private static int[] flat(int[][] board) {
+        int cols = board[0].length;
+        int[] ans = new int[board.length * cols];
+        for (int i = 0; i < board.length; i++) {
+            System.arraycopy(board[i], 0, ans, i * cols, cols);
+        }
+        return ans;
+    }
+
+    /**
+     * This method return the numbers of a board without its empty panels, in their order.
+     */
+    private static int[] numbers(int[] panels) {
+        return Arrays.stream(panels).filter(num -> num != 0).toArray();
+    }
+
+    /**
+     * This method return the distance of a number from the nearest place of the number on the goal board.
+     */
+    private static int distance(int num, int cell, int[] goal, int cols) {
+        int ans = Integer.MAX_VALUE;
+        for (int k = 0; k < goal.length; k++) {
+            if (goal[k] == num) {
+                ans = Math.min(ans, Math.abs(k / cols - cell / cols) + Math.abs(k % cols - cell % cols));
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * This method return the parity of the permutation that takes the start to the goal (all the panels different),
+     * by counting its cycles.
+     */
+    private static int parity(int[] from, int[] to) {
+        int[] place = new int[256];
+        for (int k = 0; k < to.length; k++) {
+            place[to[k]] = k;
+        }
+        boolean[] seen = new boolean[from.length];
+        int swaps = 0;
+        for (int k = 0; k < from.length; k++) {
+            for (int c = k; !seen[c]; c = place[from[c]]) {
+                seen[c] = true;
+                if (place[from[c]] != k) {
+                    swaps++;
+                }
+            }
+        }
+        return swaps & 1;
+    }
+
+    private static int indexOf(int[] panels, int num) {
+        for (int k = 0; k < panels.length; k++) {
+            if (panels[k] == num) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean distinct(int[] sorted) {
+        for (int k = 1; k < sorted.length; k++) {
+            if (sorted[k] == sorted[k - 1]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method return the number of arrangements of the panels: n! divided by k! for every number that appears k times.
+     */
+    private static long arrangements(int[] sorted) {
+        double ans = 1;
+        int same = 1;
+        for (int k = 1; k <= sorted.length; k++) {
+            ans *= k;
+            if (k < sorted.length && sorted[k] == sorted[k - 1]) {
+                ans /= ++same;
+            } else {
+                same = 1;
+            }
+        }
+        return ans >= Long.MAX_VALUE ? Long.MAX_VALUE : Math.round(ans);
+    }
+}
@@ -0,0 +1,259 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Vector;
+import java.util.function.Consumer;
+
+/**
+ * ARA* (anytime repairing A*) is a weighted A* that improves its answer: it orders the open list by
+ * f(n) = g(n) + w * h(n), starting with a big weight w that finds a first path quickly, and then lowers w step by step
+ * down to 1 while it keeps everything it already searched.
+ * A state whose g got better after it was closed by the search with the current weight is kept aside (INCONS) and opened
+ * again with the next weight (a state closed with an earlier weight is opened at once), and every
+ * search with weight w stops when no open state is ordered before the best goal, so the cost of its path is at most w times
+ * the optimal cost (with an admissible heuristic, like the pattern database).
+ * After every weight the best path is reported with its proven bound: min(w, cost / the smallest g(n) + h(n) of the open
+ * and INCONS states), and the search stops at weight 1, at bound 1 or when its deadline passes, with the best path found.
+ * The bound is proven only with an admissible heuristic (ProblemContext.isAdmissible), otherwise the path is reported
+ * with no bound ("bound unproven") and the search stops only at weight 1 or at its deadline.
+ *
+ * @Author Liav Weiss.
+ */
+public class AnytimeAStar extends Algo {
+
+    /**
+     * The default weights: the first weight and how much it is lowered after every search.
+     */
+    public static final double DEFAULT_WEIGHT = 3.0;
+    public static final double DEFAULT_STEP = 0.5;
+
+    /**
+     * This class has thirteen fields:
+     *
+     * @param weight - the first weight.
+     * @param step - how much the weight is lowered after every search.
+     * @param deadline - the time (System.nanoTime) the search stops at with the best path found, 0 for none.
+     * @param listener - gets the text of every improved answer, null for none.
+     * @param nodes - all the states of the search.
+     * @param table - board to the index of its state in nodes.
+     * @param open - the open list, ordered by g + w * h.
+     * @param openList - board to the index of the state for the open states (for the print of the open list).
+     * @param closed - the states closed by the search with the current weight.
+     * @param closedSize - the number of closed states of the search with the current weight.
+     * @param incons - the closed states whose g got better (INCONS), opened with the next weight.
+     * @param inIncons - the states that are in incons.
+     * @param best - the best goal state found, null until the first path.
+     */
+    private double weight = DEFAULT_WEIGHT;
+    private double step = DEFAULT_STEP;
+    private long deadline;
+    private Consumer<String> listener;
+    private final ArrayList<State> nodes = new ArrayList<>();
+    private final StateTable table = new StateTable();
+    private final IndexedHeap open = new IndexedHeap();
+    private final StateTable openList = new StateTable();
+    private final BitSet closed = new BitSet();
+    private int closedSize;
+    private int[] incons = new int[64];
+    private int inconsSize;
+    private final BitSet inIncons = new BitSet();
+    private State best;
+
+    /**
+     * constructor.
+     *
+     * @param initialState - The initial state of the game.
+     * @param g - A vector containing all the target states that need to be reached (at least one of them).
+     * @param withOpen - flag if print the open list or not.
+     */
+    protected AnytimeAStar(State initialState, Vector<State> g, boolean withOpen) {
+        super(initialState, g, withOpen);
+    }
+
+    /**
+     * This method set the weights of the search.
+     *
+     * @param weight - the first weight (at least 1).
+     * @param step   - how much the weight is lowered after every search (more than 0).
+     */
+    public void setWeights(double weight, double step) {
+        if (weight < 1 || step <= 0) {
+            throw new IllegalArgumentException("bad weights: " + weight + ", step " + step);
+        }
+        this.weight = weight;
+        this.step = step;
+    }
+
+    /**
+     * This method set the time budget of the search: when it is used, the search stops with the best path found.
+     *
+     * @param millis - the budget in milliseconds, 0 for none.
+     */
+    public void setDeadline(long millis) {
+        this.deadline = millis == 0 ? 0 : System.nanoTime() + millis * 1000000;
+    }
+
+    /**
+     * This method set who gets every improved answer, as a line like "weight 2.5: cost 120, bound 1.80, Num 1234"
+     * ("bound unproven" without an admissible heuristic).
+     *
+     * @param listener - the listener, null for none.
+     */
+    public void setListener(Consumer<String> listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public String Algo() {
+        if (isGoal(initialState)) {
+            return print(initialState);
+        }
+        this.nodes.add(initialState);
+        this.table.put(initialState.getBoard(), 0);
+        this.openList.put(initialState.getBoard(), 0);
+        stats.generate();
+        stats.evaluate();
+        double w = this.weight;
+        double completed = Double.POSITIVE_INFINITY;    // the weight of the last search that was not stopped.
+        this.open.add(0, key(initialState, w), initialState.getCost());
+        while (true) {
+            stats.phase("weight " + w);
+            boolean done = improvePath(w);
+            if (isCancelled()) {
+                return cancelled();
+            }
+            if (done) {
+                completed = w;
+            }
+            double bound = bound(completed);
+            if (this.best != null && this.listener != null) {
+                String proven = bound == Double.POSITIVE_INFINITY ? "bound unproven" : String.format("bound %.2f", bound);
+                this.listener.accept(String.format("weight %.2f: cost %d, %s, Num %d",
+                        w, this.best.getCost(), proven, stats.getGenerated()));
+            }
+            if (!done || w <= 1 || bound <= 1 || (this.open.isEmpty() && this.inconsSize == 0)) {
+                break;
+            }
+            w = Math.max(1, w - this.step);
+            reopen(w);
+        }
+        return this.best == null ? noPath() : print(this.best);
+    }
+
+    /**
+     * This method expand the states by g + w * h until no open state is ordered before the best goal.
+     *
+     * @param w - the weight.
+     * @return - false if the deadline passed (or the search was cancelled).
+     */
+    private boolean improvePath(double w) {
+        while (!this.open.isEmpty() && (this.best == null || this.open.peekF() < this.best.getCost())) {
+            if (isCancelled() || (this.deadline != 0 && (stats.getExpanded() & 1023) == 0 && System.nanoTime() > this.deadline)) {
+                return false;
+            }
+            openListPrint(this.openList, this.nodes, this.withOpen); // if withOpen == true it will print the open list in this level.
+            int index = this.open.poll();
+            State s = this.nodes.get(index);
+            this.openList.remove(s.getBoard());
+            this.closed.set(index);
+            stats.expand();
+            stats.closed(++this.closedSize);
+            for (State operator : s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2())) {
+                stats.generate();
+                if (isGoal(operator)) {
+                    if (this.best == null || operator.getCost() < this.best.getCost()) {
+                        this.best = operator;
+                    }
+                    continue;
+                }
+                int old = this.table.get(operator.getBoard());
+                if (old == -1) {
+                    stats.evaluate();
+                    this.nodes.add(operator);
+                    int node = this.nodes.size() - 1;
+                    this.table.put(operator.getBoard(), node);
+                    this.open.add(node, key(operator, w), operator.getCost());
+                    this.openList.put(operator.getBoard(), node);
+                    stats.open(this.open.size());
+                } else if (operator.getCost() < this.nodes.get(old).getCost()) {  // better path, same board so same h.
+                    this.nodes.set(old, operator);
+                    if (this.open.contains(old)) {
+                        this.open.decreaseKey(old, key(operator, w), operator.getCost());
+                    } else if (!this.closed.get(old)) {    // closed with an earlier weight, it is searched again now.
+                        stats.reopen();
+                        this.open.add(old, key(operator, w), operator.getCost());
+                        this.openList.put(operator.getBoard(), old);
+                        stats.open(this.open.size());
+                    } else if (!this.inIncons.get(old)) {
+                        stats.reopen();
+                        this.inIncons.set(old);
+                        if (this.inconsSize == this.incons.length) {
+                            this.incons = Arrays.copyOf(this.incons, this.inconsSize * 2);
+                        }
+                        this.incons[this.inconsSize++] = old;
+                    }
+                } else {
+                    stats.duplicate();
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method return the proven bound of the best path: min(w, cost / the smallest g + h of the open and INCONS states).
+     *
+     * @param w - the weight of the last search that was not stopped by the deadline.
+     * @return - the bound, Double.POSITIVE_INFINITY before the first path or without an admissible heuristic (no bound
+     * is proven), 1 if the best path is optimal.
+     */
+    private double bound(double w) {
+        if (this.best == null || !initialState.getContext().isAdmissible()) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int min = Integer.MAX_VALUE;
+        for (int node : this.open.nodes()) {
+            State s = this.nodes.get(node);
+            min = Math.min(min, s.getCost() + s.getHeuristic());
+        }
+        for (int k = 0; k < this.inconsSize; k++) {
+            State s = this.nodes.get(this.incons[k]);
+            min = Math.min(min, s.getCost() + s.getHeuristic());
+        }
+        if (min >= this.best.getCost()) {
+            return 1;
+        }
+        return Math.min(w, (double) this.best.getCost() / Math.max(min, 1));
+    }
+
+    /**
+     * This method prepare the search with the next weight: the INCONS states are opened, the open list is ordered by the
+     * new weight and no state is closed.
+     *
+     * @param w - the new weight.
+     */
+    private void reopen(double w) {
+        int[] open = this.open.nodes();
+        this.open.clear();
+        for (int node : open) {
+            State s = this.nodes.get(node);
+            this.open.add(node, key(s, w), s.getCost());
+        }
+        for (int k = 0; k < this.inconsSize; k++) {
+            State s = this.nodes.get(this.incons[k]);
+            this.open.add(this.incons[k], key(s, w), s.getCost());
+            this.openList.put(s.getBoard(), this.incons[k]);
+        }
+        this.inconsSize = 0;
+        this.inIncons.clear();
+        this.closed.clear();
+        this.closedSize = 0;
+    }
+
+    /**
+     * This method return the order of a state in the open list: g + w * h.
+     */
+    private static int key(State s, double w) {
+        return s.getCost() + (int) (w * s.getHeuristic());
+    }
+}
@@ -4,6 +4,7 @@ import java.util.*;
  * In this algorithm we will first initialize a queue and hash table.
  * open list - for check if its contain a certain state in O(1).
  * close list - for all the state we have finished developing.
+ * (both are StateTable - board to the index of the state in the nodes list).
  * We will insert the starting vertex into them,as long as the queue is not empty we will continue
  * to develop the sons of the state coming out of the queue, and we will put them in the queue.
  * Each time we remove a state from the queue we will check if it is the target vertex.
@@ -26,36 +27,42 @@ public class BFS extends Algo {
 
     @Override
     public String Algo() {
-        if (goals.contains(initialState)) {
+        if (isGoal(initialState)) {
             return print(initialState);
         }
         Queue<State> q = new LinkedList<>();
-        Hashtable<String, State> openList = new Hashtable<>();
-        Hashtable<String, State> closedList = new Hashtable<>();
+        ArrayList<State> nodes = new ArrayList<>();
+        StateTable openList = new StateTable();
+        StateTable closedList = new StateTable();
         q.add(initialState);
-        openList.put(initialState.toString(), initialState);
-        numOfState++;
+        nodes.add(initialState);
+        openList.put(initialState.getBoard(), 0);
+        stats.generate();
         while (!q.isEmpty()) {
-            openListPrint(openList, super.withOpen); // if withOpen == true it will print the open list in this level.
+            if (isCancelled()) {
+                return cancelled();
+            }
+            openListPrint(openList, nodes, super.withOpen); // if withOpen == true it will print the open list in this level.
             State s = q.poll();
-            closedList.put(s.toString(), s);
-            openList.remove(s.toString());
+            closedList.put(s.getBoard(), openList.remove(s.getBoard()));
+            stats.expand();
+            stats.closed(closedList.size());
             ArrayList<State> arrState = s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2());
             while (!arrState.isEmpty()) {
                 State operator = arrState.remove(0);
-                numOfState++;
-                if (!closedList.containsKey(operator.toString())) {
-                    if (!openList.containsKey(operator.toString())) {
-                        if (goals.contains(operator)) {
-                            return super.print(operator);
-                        } else {
-                            q.add(operator);
-                            openList.put(operator.toString(), operator);
-                        }
-                    }
+                stats.generate();
+                if (closedList.containsKey(operator.getBoard()) || openList.containsKey(operator.getBoard())) {
+                    stats.duplicate();
+                } else if (isGoal(operator)) {
+                    return super.print(operator);
+                } else {
+                    q.add(operator);
+                    nodes.add(operator);
+                    openList.put(operator.getBoard(), nodes.size() - 1);
+                    stats.open(openList.size());
                 }
             }
         }
-        return "no path\n" + "Num: " + numOfState;
+        return noPath();
     }
 }
@@ -0,0 +1,288 @@
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class solves many instances of the game in one run, on a fixed pool of worker threads.
+ * The instances are in the format of the input file (see Problem), separated by empty lines, and are read one by one
+ * while at most 4 * workers of them are waiting or running, so an endless stream can be solved in bounded memory.
+ * The results are written as soon as they can be: in the input order, or in the order they were solved.
+ * The goal tables (and the pattern database) are built once for every goal and shared between the instances (with
+ * setNormalize, once for every canonical goal, see Relabeling).
+ * The statistics of every search can be written too, one JSON object per line with the index of its instance.
+ * <p>
+ * Every result is a record:
+ * <pre>
+ * #index algorithm
+ * the open list, if the instance prints it ("with open")
+ * the answer (path, Num and Cost, or the error)
+ * the time in seconds
+ * </pre>
+ */
+public class Batch {
+
+    /**
+     * The order of the results in the output.
+     */
+    public enum Order {
+        INPUT, COMPLETION
+    }
+
+    /**
+     * This class has nine fields:
+     *
+     * @param workers - the number of instances solved at the same time.
+     * @param order - the order of the results.
+     * @param pdbPartition - the partition of the pattern database, null if not used.
+     * @param pdbDir - the directory of the pattern database files.
+     * @param threads - the number of threads of the parallel algorithms.
+     * @param contexts - the goal tables of every goal seen so far (by the goal board).
+     * @param options - the options of every search (the memory budget of A*, the transposition table of IDA* ...).
+     * @param cache - the solved instances, shared by the workers (null for none).
+     * @param normalize - true if every instance is relabeled to the canonical goal (see Relabeling).
+     */
+    private final int workers;
+    private final Order order;
+    private final String pdbPartition;
+    private final File pdbDir;
+    private final int threads;
+    private final Map<String, ProblemContext> contexts = new ConcurrentHashMap<>();
+    private SearchOptions options = new SearchOptions();
+    private SolutionCache cache;
+    private boolean normalize;
+
+    /**
+     * constructor.
+     */
+    public Batch(int workers, Order order, String pdbPartition, File pdbDir, int threads) {
+        this.workers = Math.max(1, workers);
+        this.order = order;
+        this.pdbPartition = pdbPartition;
+        this.pdbDir = pdbDir;
+        this.threads = threads;
+    }
+
+    /**
+     * This method set the options of every search of the batch, the same options as a single instance (see SearchOptions).
+     *
+     * @param options - the options.
+     */
+    public void setOptions(SearchOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * This method set the cache of the batch: the instances on its paths are answered from it, and the paths of the
+     * optimal searches are added to it.
+     *
+     * @param cache - the cache, null for none.
+     */
+    public void setCache(SolutionCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * This method set if every instance is relabeled to the canonical goal (see Relabeling), so the instances with
+     * different goals and the same empty panels share the goal tables and the pattern database.
+     *
+     * @param normalize - true to relabel the instances (the open list of an instance that prints it is not relabeled).
+     */
+    public void setNormalize(boolean normalize) {
+        this.normalize = normalize;
+    }
+
+    /**
+     * This method solve all the instances of the input and write their results to the output.
+     *
+     * @param in - the instances.
+     * @param out - the results.
+     * @param stats - the statistics of every search, one JSON object per line (null for none).
+     */
+    public void run(Reader in, Writer out, Writer stats) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        ExecutorService pool = Executors.newFixedThreadPool(this.workers);
+        CompletionService<Result> completion = new ExecutorCompletionService<>(pool);
+        ArrayDeque<Future<Result>> pending = new ArrayDeque<>();   // in the input order.
+        int maxInFlight = 4 * this.workers;
+        int inFlight = 0;
+        int index = 0;
+        try {
+            String block;
+            while ((block = nextBlock(reader)) != null) {
+                if (inFlight == maxInFlight) {
+                    write(next(completion, pending), out, stats);
+                    inFlight--;
+                }
+                final int id = ++index;
+                final String text = block;
+                if (this.order == Order.INPUT) {
+                    pending.add(pool.submit(() -> solve(id, text)));
+                } else {
+                    completion.submit(() -> solve(id, text));
+                }
+                inFlight++;
+            }
+            for (; inFlight > 0; inFlight--) {
+                write(next(completion, pending), out, stats);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * This method write a result to the output, and its statistics.
+     */
+    private static void write(Result result, Writer out, Writer stats) throws IOException {
+        out.write(result.record);
+        out.flush();
+        if (stats != null && result.stats != null) {
+            stats.write(result.stats + "\n");
+            stats.flush();
+        }
+    }
+
+    /**
+     * This method wait for the next result in the order of the output.
+     */
+    private Result next(CompletionService<Result> completion, ArrayDeque<Future<Result>> pending) throws IOException {
+        try {
+            return this.order == Order.INPUT ? pending.poll().get() : completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("batch interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * This method read the next instance: the lines up to an empty line or the end of the input.
+     *
+     * @return - the lines of the instance, null at the end of the input.
+     */
+    private static String nextBlock(BufferedReader reader) throws IOException {
+        StringBuilder block = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                if (block.length() > 0) {
+                    break;
+                }
+                continue;
+            }
+            block.append(line).append('\n');
+        }
+        return block.length() == 0 ? null : block.toString();
+    }
+
+    /**
+     * This method solve one instance, an instance that can not be read or solved gets an error record.
+     *
+     * @param id - the index of the instance in the input (from 1).
+     * @param text - the instance.
+     * @return - the record of the result and the statistics of the search.
+     */
+    private Result solve(int id, String text) {
+        long startTime = System.nanoTime();
+        String algorithm = "?";
+        String ans;
+        String json = null;
+        ByteArrayOutputStream open = new ByteArrayOutputStream();   // the open list of the instance, if it prints it.
+        try {
+            Problem problem = Problem.read(new Scanner(text));
+            algorithm = problem.getAlgorithm();
+            Relabeling relabeling = null;
+            String partition = this.pdbPartition;
+            if (this.normalize && !problem.isWithOpen()) {
+                relabeling = Relabeling.of(problem);
+                problem = relabeling.apply(problem);
+                partition = relabeling.partition(partition);
+            }
+            List<ProblemContext> goals = new ArrayList<>();
+            for (int[][] goal : problem.getGoalBoards()) {
+                goals.add(context(goal, partition));
+            }
+            ProblemContext context = ProblemContext.of(goals);
+            Algo search = Ex1.algorithm(problem, context, this.threads, this.cache);
+            Trace trace = null;
+            if (problem.isWithOpen()) {     // to the record of the instance, not to the standard output of all the workers.
+                int[][] startBoard = problem.getStartBoard();
+                trace = Trace.text(open, startBoard.length, startBoard[0].length, 1);
+                search.setTrace(trace);
+            }
+            this.options.apply(search);
+            try {
+                ans = search.solve();
+            } finally {
+                if (trace != null) {
+                    trace.close();
+                }
+            }
+            if (this.cache != null && !(search instanceof CachedPath)) {
+                this.cache.store(problem, context, ans);
+            }
+            if (relabeling != null) {
+                ans = relabeling.restore(ans);
+            }
+            json = "{\"instance\":" + id + "," + search.getStats().toJson().substring(1);
+        } catch (RuntimeException | IOException e) {
+            ans = "error: " + e + "\n";
+        }
+        long stopTime = System.nanoTime();
+        if (!ans.endsWith("\n")) {
+            ans += "\n";
+        }
+        return new Result("#" + id + " " + algorithm + "\n" + open + ans + ((stopTime - startTime) / 1000000000.0) + " second\n\n", json);
+    }
+
+    /**
+     * This class holds the result of one instance: its record and the JSON of its statistics (null if it failed).
+     */
+    private static final class Result {
+        private final String record;
+        private final String stats;
+
+        Result(String record, String stats) {
+            this.record = record;
+            this.stats = stats;
+        }
+    }
+
+    /**
+     * This method return the goal tables of the goal board, they are built by the first instance with this goal (and this
+     * partition of the pattern database).
+     */
+    private ProblemContext context(int[][] goalBoard, String partition) throws IOException {
+        String key = Arrays.deepToString(goalBoard) + " " + partition;
+        ProblemContext context = this.contexts.get(key);
+        if (context == null) {
+            synchronized (this.contexts) {
+                context = this.contexts.get(key);
+                if (context == null) {
+                    PatternDatabase patterns = partition == null ? null : PatternDatabase.load(goalBoard, partition, this.pdbDir);
+                    context = new ProblemContext(goalBoard, patterns);
+                    this.contexts.put(key, context);
+                }
+            }
+        }
+        return context;
+    }
+}
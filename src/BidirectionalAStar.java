@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+
+/**
+ * Bidirectional heuristic search that "meets in the middle" (MM): a forward A*-like search from the initial state with
+ * the heuristic to the goal, and a backward one from all the goal states with the heuristic to the initial state
+ * (every move can be undone by the same panels in the opposite direction, for the same cost).
+ * Every state n is ordered by pr(n) = max(f(n), 2g(n)), so neither search goes past the middle of the optimal path,
+ * and the side with the smaller pr is expanded.
+ * When a generated state was seen by the other side we have a path, and U is the cost of the best one.
+ * The search ends when U <= C, where C is the smallest pr of both open lists: with admissible heuristics C never exceeds
+ * the cost of a path that was not found yet, so U is optimal (this holds for any positive move costs, like 5/6/7).
+ * The backward heuristic is of the same kind as the forward one (ProblemContext.toGoal): with a pattern database, the same
+ * patterns are loaded (built the first time) for the start board, and with the admissible Manhattan distance of many
+ * goals, it is the admissible Manhattan distance to the start. With the weighted distance and conflicts (not admissible)
+ * the path is not always the cheapest one.
+ */
+public class BidirectionalAStar extends Algo {
+
+    /**
+     * constructor.
+     *
+     * @param initialState - The initial state of the game.
+     * @param g - A vector containing all the target states that need to be reached (at least one of them).
+     * @param withOpen - flag if print the open list or not.
+     */
+    protected BidirectionalAStar(State initialState, Vector<State> g, boolean withOpen) {
+        super(initialState, g, withOpen);
+    }
+
+    @Override
+    public String Algo() {
+        if (isGoal(initialState)) {
+            return print(initialState);
+        }
+        Side forward = new Side();
+        Side backward = new Side();
+        forward.offer(initialState);
+        stats.generate();
+        // the backward states measure their heuristic to the initial state.
+        ProblemContext toStart;
+        try {
+            toStart = initialState.getContext().toGoal(initialState.getBoard().toArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        for (State goal : goals) {
+            backward.offer(new State(goal.getBoard(), 0, null, toStart, goal.getI1(), goal.getJ1(), goal.getI2(), goal.getJ2()));
+            stats.generate();
+        }
+        int best = Integer.MAX_VALUE;   // U
+        State meetForward = null;
+        State meetBackward = null;
+        while (!forward.open.isEmpty() && !backward.open.isEmpty()) {
+            if (isCancelled()) {
+                return cancelled();
+            }
+            int c = Math.min(forward.open.peekF(), backward.open.peekF());
+            if (best <= c) {
+                break;
+            }
+            boolean forwardTurn = forward.open.peekF() <= backward.open.peekF();
+            Side side = forwardTurn ? forward : backward;
+            Side other = forwardTurn ? backward : forward;
+            if (this.withOpen) {    // the list of the open states is only made when it is printed.
+                openListPrint(side.openStates(), true);
+            }
+            State s = side.nodes.get(side.open.poll());
+            stats.expand();
+            ArrayList<State> arrState = s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2());
+            for (State operator : arrState) {
+                stats.generate();
+                stats.evaluate();
+                if (!side.offer(operator)) {
+                    stats.duplicate();
+                    continue;
+                }
+                stats.open(forward.open.size() + backward.open.size());
+                stats.closed(forward.seen.size() + backward.seen.size() - forward.open.size() - backward.open.size());
+                int node = other.seen.get(operator.getBoard());
+                if (node != -1 && operator.getCost() + other.nodes.get(node).getCost() < best) {
+                    best = operator.getCost() + other.nodes.get(node).getCost();
+                    meetForward = forwardTurn ? operator : other.nodes.get(node);
+                    meetBackward = forwardTurn ? other.nodes.get(node) : operator;
+                }
+            }
+        }
+        if (meetForward == null) {
+            return noPath();
+        }
+        return print(meetForward, meetBackward);
+    }
+
+    /**
+     * This class represents one direction of the search: all the seen states and the open list ordered by pr.
+     */
+    private final class Side {
+        private final ArrayList<State> nodes = new ArrayList<>();
+        private final StateTable seen = new StateTable();
+        private final IndexedHeap open = new IndexedHeap();
+
+        /**
+         * This method return the states of the open list.
+         */
+        List<State> openStates() {
+            List<State> ans = new ArrayList<>(this.open.size());
+            for (int node : this.open.nodes()) {
+                ans.add(this.nodes.get(node));
+            }
+            return ans;
+        }
+
+        /**
+         * This method add the state, or replace the seen state with the same board if s is cheaper (a closed state is
+         * opened again).
+         *
+         * @return - true if s was added or replaced a state, false if the seen state is as cheap.
+         */
+        boolean offer(State s) {
+            int g = s.getCost();
+            int pr = Math.max(g + s.getHeuristic(), 2 * g);   // pr(s) = max(f(s), 2g(s))
+            int node = this.seen.get(s.getBoard());
+            if (node == -1) {
+                this.nodes.add(s);
+                node = this.nodes.size() - 1;
+                this.seen.put(s.getBoard(), node);
+                this.open.add(node, pr, g);
+                return true;
+            }
+            if (g >= this.nodes.get(node).getCost()) {
+                return false;
+            }
+            this.nodes.set(node, s);
+            if (this.open.contains(node)) {
+                this.open.decreaseKey(node, pr, g);
+            } else {
+                this.open.add(node, pr, g);
+                stats.reopen();
+            }
+            return true;
+        }
+    }
+}
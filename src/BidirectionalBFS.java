@@ -0,0 +1,115 @@
+import java.util.ArrayList;
+import java.util.Vector;
+
+/**
+ * In this algorithm we run two BFS searches at once: forward from the initial state and backward from all the goal
+ * states (every move can be undone by the same panels in the opposite direction, for the same cost).
+ * Each step expands one whole layer of the side with the smaller frontier, and the search ends when a generated state
+ * was already seen by the other side: the path is the forward path to it followed by the backward path read backward.
+ * Among the meetings of the layer we keep the one with the fewest moves (then the lower cost).
+ * Time complexity: O(b^(d/2)).
+ * Space complexity: O(b^(d/2)).
+ * (Where b is branching factor and d is the solution depth).
+ */
+public class BidirectionalBFS extends Algo {
+
+    /**
+     * constructor.
+     *
+     * @param initialState - The initial state of the game.
+     * @param g - A vector containing all the target states that need to be reached (at least one of them).
+     * @param withOpen - flag if print the open list or not.
+     */
+    public BidirectionalBFS(State initialState, Vector<State> g, boolean withOpen) {
+        super(initialState, g, withOpen);
+    }
+
+    @Override
+    public String Algo() {
+        if (isGoal(initialState)) {
+            return print(initialState);
+        }
+        Side forward = new Side();
+        Side backward = new Side();
+        forward.add(initialState);
+        stats.generate();
+        for (State goal : goals) {
+            if (!backward.seen.containsKey(goal.getBoard())) {
+                backward.add(goal);
+                stats.generate();
+            }
+        }
+        while (!forward.frontier.isEmpty() && !backward.frontier.isEmpty()) {
+            boolean forwardTurn = forward.frontier.size() <= backward.frontier.size();
+            Side side = forwardTurn ? forward : backward;
+            Side other = forwardTurn ? backward : forward;
+            openListPrint(side.frontier, this.withOpen); // if withOpen == true it will print the open list in this level.
+            ArrayList<State> layer = side.frontier;
+            side.frontier = new ArrayList<>();
+            State bestMine = null;
+            State bestOther = null;
+            int bestMoves = Integer.MAX_VALUE;
+            for (State s : layer) {
+                if (isCancelled()) {
+                    return cancelled();
+                }
+                stats.expand();
+                ArrayList<State> arrState = s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2());
+                for (State operator : arrState) {
+                    stats.generate();
+                    if (side.seen.containsKey(operator.getBoard())) {
+                        stats.duplicate();
+                        continue;
+                    }
+                    int node = other.seen.get(operator.getBoard());
+                    if (node != -1) {
+                        State meet = other.nodes.get(node);
+                        int moves = moves(operator) + moves(meet);
+                        if (moves < bestMoves || (moves == bestMoves && operator.getCost() + meet.getCost() < bestMine.getCost() + bestOther.getCost())) {
+                            bestMoves = moves;
+                            bestMine = operator;
+                            bestOther = meet;
+                        }
+                        continue;
+                    }
+                    side.add(operator);
+                }
+            }
+            stats.open(forward.frontier.size() + backward.frontier.size());
+            stats.closed(forward.seen.size() + backward.seen.size());
+            if (bestMine != null) {
+                return forwardTurn ? print(bestMine, bestOther) : print(bestOther, bestMine);
+            }
+        }
+        return noPath();
+    }
+
+    /**
+     * This method return the number of moves from the root of the search to the state.
+     *
+     * @param s - the state.
+     * @return - the depth of the state.
+     */
+    private static int moves(State s) {
+        int ans = 0;
+        for (State p = s.getPre(); p != null; p = p.getPre()) {
+            ans++;
+        }
+        return ans;
+    }
+
+    /**
+     * This class represents one direction of the search: the seen states and the last layer.
+     */
+    private static final class Side {
+        private final ArrayList<State> nodes = new ArrayList<>();
+        private final StateTable seen = new StateTable();
+        private ArrayList<State> frontier = new ArrayList<>();
+
+        void add(State s) {
+            this.nodes.add(s);
+            this.seen.put(s.getBoard(), this.nodes.size() - 1);
+            this.frontier.add(s);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+import java.util.Vector;
+
+/**
+ * This class represents the answer of an instance that is on a cached path (see SolutionCache):
+ * it answers the rest of the path without searching.
+ */
+public class CachedPath extends Algo {
+
+    /**
+     * This class has one field:
+     *
+     * @param ans - the answer from the cache: the path, "Num: 0" and the cost.
+     */
+    private final String ans;
+
+    /**
+     * constructor.
+     *
+     * @param ans - the answer from the cache.
+     */
+    protected CachedPath(String ans) {
+        super(null, new Vector<>(), false);
+        this.ans = ans;
+    }
+
+    @Override
+    public String Algo() {
+        String cost = this.ans.substring(this.ans.indexOf("Cost: ") + "Cost: ".length()).trim();
+        stats.solution(Integer.parseInt(cost));
+        return this.ans;
+    }
+}
@@ -1,4 +1,7 @@
-import java.util.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Vector;
 
 /**
  * This algorithm works like a simple limited DFS but when finding the first solution the cost of that solution is
@@ -10,6 +13,45 @@ import java.util.*;
  */
 public class DFBnB extends Algo{
 
+    /**
+     * The kinds of a move in the frame of its depth.
+     */
+    private static final int OPEN = 0;
+    private static final int DUPLICATE = 1;
+    private static final int GOAL = 2;
+    private static final int PATH = 3;
+    private static final int CYCLE = 4;
+
+    /**
+     * Before there is a solution, a board is at most this many times on the path.
+     */
+    private static final int MAX_TIMES = 3;
+
+    /**
+     * This class has nine fields (the stack of the depth-first search, one frame for every depth of the board):
+     *
+     * @param moves - the moves of every depth, Move.MAX_MOVES for each depth.
+     * @param func - func[k] is f(n) = g(n) + h(n) of the board after moves[k].
+     * @param kind - kind[k] is OPEN, DUPLICATE (a cheaper move of the same board was kept after it), GOAL, PATH (the
+     *             board is already on the path) or CYCLE (the board is already MAX_TIMES times on the path).
+     * @param keys - keys[k] is the key of the board after moves[k].
+     * @param open - the keys of the boards on the path and of the moves that are kept in the frames and not searched
+     *             yet (the open list of the first version), with the index in moves of the move of each key (-1 for the start).
+     * @param next - next[d] is the index in moves of the next move to search at depth d.
+     * @param end - end[d] is the index in moves after the last move of depth d.
+     * @param t - the cost of the best solution until now.
+     * @param ans - the path of the best solution until now.
+     */
+    private int[] moves = new int[64 * Move.MAX_MOVES];
+    private int[] func = new int[64 * Move.MAX_MOVES];
+    private int[] kind = new int[64 * Move.MAX_MOVES];
+    private long[] keys = new long[64 * Move.MAX_MOVES];
+    private int[] next = new int[64];
+    private int[] end = new int[64];
+    private int t;
+    private String ans;
+    private final Map<Long, Integer> open = new HashMap<>();
+
     /**
      * constructor.
      *
@@ -23,55 +65,145 @@ public class DFBnB extends Algo{
 
     @Override
     public String Algo() {
-        Stack<State> st = new Stack<>();
-        Hashtable<String, State> openList = new Hashtable<>();
-        st.push(initialState);
-        String ans = "no path";
-        openList.put(initialState.toString(), initialState);
-        int infinity = Integer.MAX_VALUE;
-        int t = infinity;
-        while (!st.isEmpty()) {
-            openListPrint(openList, this.withOpen); // if withOpen == true it will print the open list in this level.
-            State s = st.pop();
-            if (s.getTag().equals("out")) {
-                openList.remove(s.toString());
-            } else {
-                s.setTag("out");
-                st.push(s);
-                ArrayList<State> arrState = s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2());
-                arrState.sort(State::compareTo);
-                for (int i = 0; i < arrState.size(); i++) {
-                    State operator = arrState.get(i);
-                    numOfState++;
-                    int funcOperator = operator.getCost() + operator.manhattanDistance(operator.getGoal());  // f(operator) = g(operator) + h(operator)
-                    if (funcOperator >= t) {
-                        arrState.subList(i, arrState.size()).clear();
-                    } else if (openList.containsKey(operator.toString()) && openList.get(operator.toString()).equals("out")) {
-                        arrState.remove(operator);
-                    } else if (openList.containsKey(operator.toString()) && !openList.get(operator.toString()).equals("out")) {
-                        int funcOperatorTag = openList.get(operator.toString()).manhattanDistance(openList.get(operator.toString()).getGoal());  // f(funcOperatorTag) = g(funcOperatorTag) + h(funcOperatorTag)
-                        if (funcOperator >= funcOperatorTag) {
-                            arrState.remove(operator);
-                        } else {
-                            st.remove(openList.get(operator.toString()));
-                            openList.remove(operator.toString());
-                        }
-                    } else if (goals.contains(operator)) {
-                        t = funcOperator;
-                        ans = print(operator);
-                        arrState.clear();
-                    }
+        MutableBoard board = new MutableBoard(initialState, goals);
+        if (board.isGoal()) {
+            return print(board);
+        }
+        this.ans = "no path";
+        this.t = Integer.MAX_VALUE;
+        this.open.clear();
+        this.open.put(board.getKey(), -1);
+        expand(board);
+        while (true) {
+            if (isCancelled()) {
+                return cancelled();
+            }
+            int d = board.getDepth();
+            if (this.next[d] == this.end[d]) {   // all the moves of the board were searched, it is out.
+                this.open.remove(board.getKey());
+                if (d == 0) {
+                    break;
                 }
-                Collections.reverse(arrState);
-                for (State temp : arrState) {
-                    st.push(temp);
-                    openList.put(temp.toString(), temp);
+                board.undo();
+                continue;
+            }
+            int k = this.next[d]++;
+            if (this.kind[k] != DUPLICATE) {
+                board.apply(this.moves[k]);
+                expand(board);
+            }
+        }
+        if (this.ans.equals("no path")) {
+            return noPath();
+        }
+        return this.ans;
+    }
+
+    /**
+     * This method perform the operators of the board and sort its moves by f(n) (moves with the same f stay in the
+     * order they were generated), then keeps the moves before the first one with f(n) >= t, without the moves whose
+     * board is on the path or is the board of a kept move that is not searched yet with f(n) no bigger.
+     * A kept move that is cheaper than the open move of its board replaces it.
+     * Like the first version (that removed the pruned move from the list it was going over), the move after a pruned
+     * move is kept without being checked. Before there is a solution, a move whose board is already MAX_TIMES times on
+     * the path is not kept (the first version could go around a cycle forever, after the first solution t ends every
+     * cycle).
+     * A move that reaches a goal updates t and the best solution, and then none of the moves of the board is searched.
+     * The moves that were kept are searched even if t becomes smaller later, only the moves they generate are cut by t.
+     *
+     * @param board - the board to expand, its moves are kept in the frame of its depth.
+     */
+    private void expand(MutableBoard board) {
+        openListPrint(board, this.withOpen); // if withOpen == true it will print the open list in this level.
+        stats.expand();
+        stats.open(this.open.size());
+        int d = board.getDepth();
+        if ((d + 1) * Move.MAX_MOVES > this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+            this.func = Arrays.copyOf(this.func, this.func.length * 2);
+            this.kind = Arrays.copyOf(this.kind, this.kind.length * 2);
+            this.keys = Arrays.copyOf(this.keys, this.keys.length * 2);
+            this.next = Arrays.copyOf(this.next, this.next.length * 2);
+            this.end = Arrays.copyOf(this.end, this.end.length * 2);
+        }
+        int offset = d * Move.MAX_MOVES;
+        int count = board.moves(this.moves, offset);
+        for (int k = offset; k < offset + count; k++) {
+            board.apply(this.moves[k]);
+            this.func[k] = board.getCost() + board.getHeuristic();  // f(operator) = g(operator) + h(operator)
+            this.keys[k] = board.getKey();
+            int times = board.timesOnPath();
+            this.kind[k] = times >= MAX_TIMES ? CYCLE : times > 0 ? PATH : board.isGoal() ? GOAL : OPEN;
+            board.undo();
+            for (int i = k; i > offset && this.func[i - 1] > this.func[i]; i--) {    // insertion sort, stable.
+                swap(i - 1, i);
+            }
+        }
+        int n = offset;
+        boolean skip = false;
+        for (int k = offset; k < offset + count; k++) {
+            if (skip) {     // the move after a pruned move.
+                skip = false;
+                if (this.kind[k] != CYCLE || this.t != Integer.MAX_VALUE) {
+                    keep(n++, k);
                 }
+                continue;
+            }
+            stats.generate();
+            stats.evaluate();
+            Integer other = this.open.get(this.keys[k]);    // the same board on the path or in a frame.
+            if (this.func[k] >= this.t) {
+                break;
+            } else if (other != null && (other == -1 || this.func[other] <= this.func[k])
+                    || this.kind[k] == CYCLE && this.t == Integer.MAX_VALUE) {
+                stats.duplicate();
+                skip = true;
+            } else if (other != null) {     // cheaper than the open move of its board, only with two empty panels.
+                this.kind[other] = DUPLICATE;
+                keep(n++, k);
+            } else if (this.kind[k] == GOAL) {
+                this.t = this.func[k];
+                board.apply(this.moves[k]);
+                this.ans = print(board);
+                board.undo();
+                n = offset;
+                break;
+            } else {
+                keep(n++, k);
             }
         }
-        if(ans.equals("no path")){
-            return ans += "\n" + "Num: " + numOfState;
+        for (int k = offset; k < n; k++) {
+            this.open.put(this.keys[k], k);
         }
-        return ans;
+        this.next[d] = offset;
+        this.end[d] = n;
+    }
+
+    /**
+     * This method keep the move k of a frame at the index n of the frame (n <= k).
+     */
+    private void keep(int n, int k) {
+        this.moves[n] = this.moves[k];
+        this.func[n] = this.func[k];
+        this.keys[n] = this.keys[k];
+        this.kind[n] = OPEN;
+    }
+
+    /**
+     * This method swap two moves of a frame.
+     */
+    private void swap(int i, int j) {
+        int move = this.moves[i];
+        this.moves[i] = this.moves[j];
+        this.moves[j] = move;
+        int f = this.func[i];
+        this.func[i] = this.func[j];
+        this.func[j] = f;
+        int k = this.kind[i];
+        this.kind[i] = this.kind[j];
+        this.kind[j] = k;
+        long key = this.keys[i];
+        this.keys[i] = this.keys[j];
+        this.keys[j] = key;
     }
 }
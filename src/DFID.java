@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-import java.util.Hashtable;
 import java.util.Vector;
 
 /**
@@ -26,48 +24,58 @@ public class DFID extends Algo{
     @Override
     public String Algo() {
         String cutoff = "cutOff";
+        MutableBoard board = new MutableBoard(initialState, goals);
         for (int depth = 1; depth < Integer.MAX_VALUE; depth++) {
-            Hashtable<String, State> openList = new Hashtable<>();
-            String result = limitedDFS(initialState, goals, depth, openList);
+            threshold(depth);
+            stats.phase("iteration " + depth);
+            int[] moves = new int[(depth + 1) * Move.MAX_MOVES];
+            String result = limitedDFS(board, depth, moves);
+            if (isCancelled()) return cancelled();
             if (!result.equals(cutoff)) return result;
         }
-        return "no path\n" + "Num: " + numOfState;
+        return noPath();
     }
 
     /**
      * Private method to find the state goal each time with different limit.
+     * The board is moved in place: every move is undone when its branch returns, and a board that is already on the
+     * path from the initial state is not searched again.
      *
-     * @param start    - the state we start from him.
-     * @param Goals    - vector(list) of the goals state.
-     * @param limit    - the limit at which the algorithm will stop searching
-     * @param openList - for check if its contain a certain state in O(1).
+     * @param board - the board we start from him (the path of the search is the path of the board).
+     * @param limit - the limit at which the algorithm will stop searching
+     * @param moves - the moves of every depth, Move.MAX_MOVES for each depth from the initial state.
      * @return - string, "fail" if its fail or "cutOff" if its need to continue to the next limit.
      * if its find the goal state it will print it.
      */
-    private String limitedDFS(State start, Vector<State> Goals, int limit, Hashtable<String, State> openList) {
+    private String limitedDFS(MutableBoard board, int limit, int[] moves) {
         String cutOff = "cutOff";
-        if (Goals.contains(start)) {
-            return print(start);
-        } else if (limit == 0) {
+        if (board.isGoal()) {
+            return print(board);
+        } else if (limit == 0 || isCancelled()) {
             return "cutOff";
         } else {
             String isCutOff = "false";
-            openListPrint(openList, this.withOpen); // if withOpen == true it will print the open list in this level.
-            openList.put(start.toString(), start);
-            ArrayList<State> arrState = start.performingOperators(start.getBoard(), start.getI1(), start.getJ1(), start.getI2(), start.getJ2());
-            for (State s : arrState) {
-                numOfState++;
-                if (openList.containsKey(s.toString())) {
+            openListPrint(board, this.withOpen); // if withOpen == true it will print the open list in this level.
+            stats.expand();
+            stats.open(board.getDepth() + 1);
+            int offset = board.getDepth() * Move.MAX_MOVES;
+            int count = board.moves(moves, offset);
+            for (int k = offset; k < offset + count; k++) {
+                stats.generate();
+                board.apply(moves[k]);
+                if (board.onPath()) {
+                    stats.duplicate();
+                    board.undo();
                     continue;
                 }
-                String result = limitedDFS(s, Goals, limit - 1, openList);
+                String result = limitedDFS(board, limit - 1, moves);
                 if (result.equals(cutOff)) {
                     isCutOff = "true";
                 } else if (!result.equals("fail")) {
                     return result;
                 }
+                board.undo();
             }
-            openList.remove(start.toString());
             if (isCutOff.equals("true")) {
                 return cutOff;
             } else {
@@ -1,4 +1,6 @@
 import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Scanner;
 import java.util.Vector;
 
@@ -48,119 +50,319 @@ public class Ex1 {
     }
 
 
-    public static void main(String[] args) throws IOException {
-
-        boolean withOpen = false;
-        boolean withTime = false;
-        String algorithm = "";
-        int row;
-        int col;
-        String[] rowAndColStr;
-
-
-        File file = new File("input3.txt");
-        Scanner scanner = new Scanner(file);
+    /**
+     * This method solve one instance of the game with the algorithm of the instance.
+     *
+     * @param problem - the instance.
+     * @param context - the goal tables of the instance.
+     * @param threads - the number of threads of the parallel algorithms.
+     * @return - the answer: the path, the number of states and the cost (without the time).
+     */
+    public static String solve(Problem problem, ProblemContext context, int threads) {
+        return algorithm(problem, context, threads).solve();
+    }
 
-        //check which algorithms to use.
-        algorithm = scanner.nextLine();
+    /**
+     * This method create the search of one instance of the game with the algorithm of the instance
+     * ("auto" for the algorithm picked by Analysis, "portfolio[:A*,IDA*,...]" for a Portfolio), after the analysis of the instance: an instance that has no path is
+     * answered without a search.
+     *
+     * @param problem - the instance.
+     * @param context - the goal tables of the instance.
+     * @param threads - the number of threads of the parallel algorithms.
+     * @return - the search, ready to solve.
+     */
+    public static Algo algorithm(Problem problem, ProblemContext context, int threads) {
+        return algorithm(problem, context, threads, null);
+    }
 
-        //check if it is with time or not.
-        if (scanner.nextLine().charAt(0) == 'w') {
-            withTime = true;
+    /**
+     * This method create the search of one instance of the game, like algorithm(problem, context, threads), but an
+     * instance that is on a path of the cache is answered from the cache without a search.
+     *
+     * @param problem - the instance.
+     * @param context - the goal tables of the instance.
+     * @param threads - the number of threads of the parallel algorithms.
+     * @param cache   - the solved instances, null for none.
+     * @return - the search, ready to solve.
+     */
+    public static Algo algorithm(Problem problem, ProblemContext context, int threads, SolutionCache cache) {
+        int[][] startBoard = problem.getStartBoard();
+        boolean withOpen = problem.isWithOpen();
+        Analysis analysis = null;
+        Vector<State> v = new Vector<>();
+        for (int[][] goalBoard : problem.getGoalBoards()) {     // the goals that were proven to have no path are left out.
+            Analysis goalAnalysis = Analysis.of(startBoard, goalBoard);
+            if (goalAnalysis.isSolvable()) {
+                int[] emptyPanelGoal = emptyPanel(goalBoard);
+                v.add(new State(goalBoard, 0, null, context, emptyPanelGoal[0], emptyPanelGoal[1], emptyPanelGoal[2], emptyPanelGoal[3]));
+            }
+            if (analysis == null || (goalAnalysis.isSolvable() && !analysis.isSolvable())) {
+                analysis = goalAnalysis;
+            }
         }
-
-        //check if it is with print of the open list or not.
-        if (scanner.nextLine().charAt(0) == 'w') {
-            withOpen = true;
+        if (!analysis.isSolvable()) {   // no search, the instance was proven to have no path.
+            return new NoPath(analysis.getReason());
         }
+        if (cache != null && SolutionCache.isOptimal(problem.getAlgorithm(), context) && problem.getGoalBoards().size() == 1) {
+            String cached = cache.lookup(startBoard, problem.getGoalBoard());
+            if (cached != null) {
+                return new CachedPath(cached);
+            }
+        }
+        int[] emptyPanelStart = emptyPanel(startBoard);
+        State start = new State(startBoard, 0, null, context, emptyPanelStart[0], emptyPanelStart[1], emptyPanelStart[2], emptyPanelStart[3]);
 
-        //get the size of the array that will be the start and the gaol state board.
-        rowAndColStr = scanner.nextLine().split("x");
-        row = Integer.parseInt(rowAndColStr[0]);
-        col = Integer.parseInt(rowAndColStr[1]);
-        int[][] startBoard = new int[row][col];
-        int i = 0;
-        int j = 0;
-        String line = scanner.nextLine();
+        String algorithm = problem.getAlgorithm();
+        if (algorithm.equals("auto")) {
+            algorithm = analysis.chooseAlgorithm();
+        }
+        if (algorithm.equals("portfolio") || algorithm.startsWith("portfolio:")) {
+            if (!context.isAdmissible()) {      // the first answer would not be the cheapest one.
+                throw new IllegalArgumentException("a portfolio needs an admissible heuristic (--pdb)");
+            }
+            String names = algorithm.equals("portfolio") ? Portfolio.DEFAULT_MEMBERS : algorithm.substring("portfolio:".length());
+            List<Algo> members = new ArrayList<>();
+            for (String name : names.split(",")) {
+                ProblemContext memberContext = context;
+                name = name.trim();
+                if (name.endsWith("/md")) {    // the member runs with the Manhattan distance, not the pattern database.
+                    name = name.substring(0, name.length() - "/md".length());
+                    memberContext = context.manhattan();
+                }
+                if (!Portfolio.isMember(name)) {
+                    throw new IllegalArgumentException("a member of a portfolio must end with an optimal path: " + name);
+                }
+                members.add(algorithm(new Problem(name, false, false, startBoard, problem.getGoalBoards()), memberContext, threads));
+            }
+            return new Portfolio(start, v, withOpen, members);
+        }
+        switch (algorithm) {
+            case "BFS":
+                return new BFS(start, v, withOpen);
+            case "EBFS":
+                return new ExternalBFS(start, v, withOpen);
+            case "BiBFS":
+                return new BidirectionalBFS(start, v, withOpen);
+            case "DFID":
+                return new DFID(start, v, withOpen);
+            case "A*":
+                return new AStar(start, v, withOpen);
+            case "BiA*":
+                return new BidirectionalAStar(start, v, withOpen);
+            case "HDA*":
+                return new ParallelAStar(start, v, withOpen, threads);
+            case "ARA*":
+                return new AnytimeAStar(start, v, withOpen);
+            case "IDA*":
+                return new IDAStar(start, v, withOpen);
+            case "PIDA*":
+                return new ParallelIDAStar(start, v, withOpen, threads);
+            case "DFBnB":
+                return new DFBnB(start, v, withOpen);
+            default:
+                throw new IllegalArgumentException("unknown algorithm: " + problem.getAlgorithm());
+        }
+    }
 
+    /**
+     * The main of the game, the input is read from input3.txt and the answer is written to output.txt
+     * (or many instances in batch mode).
+     * Options:
+     * --pdb[=partition] - use the additive pattern database heuristic ("auto", sizes like 5-5-5, or numbers like 1,2,3/4,5,6).
+     * --pdb-dir=dir     - the directory of the pattern database files (default: pdb).
+     * --threads=n       - the number of threads of the parallel algorithms (default: all the cores).
+     * --batch=file      - solve all the instances of the file ("-" for the standard input), separated by empty lines.
+     * --workers=n       - the number of instances solved at the same time in batch mode (default: all the cores).
+     * --order=o         - the order of the batch results: input (default) or completion.
+     * --out=file        - the output file ("-" for the standard output, default: output.txt).
+     * --stats=file      - write the statistics of every search to the file, one JSON object per line.
+     * --astar-nodes=n   - the memory budget of A* in states: when it holds n states it goes on as IDA* from its open list.
+     * --astar-mb=mb     - the memory budget of A* in megabytes (AStar.BYTES_PER_NODE per state).
+     * --ara-weight=w    - the first weight of ARA* (default: 3).
+     * --ara-step=s      - how much ARA* lowers the weight after every path (default: 0.5).
+     * --ara-ms=ms       - the time budget of ARA*: it answers with the best path found when it is used (default: none).
+     * --ebfs-dir=dir    - the directory of the layer files of the external BFS (default: the temporary directory).
+     * --ebfs-mb=mb      - the sort buffer of the external BFS in megabytes (default: 64).
+     * --cache=file      - keep the paths of the optimal searches in the file and answer the instances on them from it.
+     * --cache-size=n    - the number of boards of the cache kept in memory (default: 100000).
+     * --no-normalize    - search the instance with its own numbers, not relabeled to the canonical goal (see Relabeling).
+     * --tt=mb           - the size of the IDA* transposition table in megabytes (0 for none, default: 16).
+     * --tt-replace=p    - the replacement policy of the transposition table: depth (default) or always.
+     * --trace=file      - write the open list to a binary trace file (even with "no open"), decoded with --read-trace.
+     * --trace-every=n   - print (or trace) the open list every n expansions, and after every new threshold (default: 1).
+     * --read-trace=file - print a binary trace file as text and exit.
+     *
+     * @param args - the options.
+     */
+    public static void main(String[] args) throws IOException {
 
-        //init the start state board.
-        while (!line.contains("G")) {
-            String[] arrStr = line.split(",");
-            for (int k = 0; k < arrStr.length; k++) {
-                if (arrStr[k].equals("_")) {
-                    arrStr[k] = "0";
+        String pdbPartition = null;
+        File pdbDir = new File("pdb");
+        int threads = Runtime.getRuntime().availableProcessors();
+        String batch = null;
+        int workers = Runtime.getRuntime().availableProcessors();
+        Batch.Order order = Batch.Order.INPUT;
+        String output = "output.txt";
+        String statsFile = null;
+        SearchOptions options = new SearchOptions();   // set on every search, of one instance or of a batch.
+        double araWeight = AnytimeAStar.DEFAULT_WEIGHT;
+        double araStep = AnytimeAStar.DEFAULT_STEP;
+        long araMillis = 0;
+        File ebfsDir = null;
+        long ebfsBuffer = ExternalBFS.DEFAULT_BUFFER;
+        boolean normalize = true;
+        String cacheFile = null;
+        int cacheSize = SolutionCache.DEFAULT_CAPACITY;
+        int tableMegabytes = SearchOptions.DEFAULT_TABLE_MEGABYTES;
+        TranspositionTable.Replacement replacement = TranspositionTable.Replacement.DEPTH;
+        String traceFile = null;
+        int traceEvery = 1;
+        for (String arg : args) {
+            if (arg.equals("--pdb")) {
+                pdbPartition = "auto";
+            } else if (arg.startsWith("--pdb=")) {
+                pdbPartition = arg.substring("--pdb=".length());
+            } else if (arg.startsWith("--pdb-dir=")) {
+                pdbDir = new File(arg.substring("--pdb-dir=".length()));
+            } else if (arg.startsWith("--threads=")) {
+                threads = Integer.parseInt(arg.substring("--threads=".length()));
+            } else if (arg.startsWith("--batch=")) {
+                batch = arg.substring("--batch=".length());
+            } else if (arg.startsWith("--workers=")) {
+                workers = Integer.parseInt(arg.substring("--workers=".length()));
+            } else if (arg.startsWith("--order=")) {
+                order = Batch.Order.valueOf(arg.substring("--order=".length()).toUpperCase());
+            } else if (arg.startsWith("--out=")) {
+                output = arg.substring("--out=".length());
+            } else if (arg.startsWith("--stats=")) {
+                statsFile = arg.substring("--stats=".length());
+            } else if (arg.startsWith("--astar-nodes=")) {
+                options.setMemoryBudget(Long.parseLong(arg.substring("--astar-nodes=".length())));
+            } else if (arg.startsWith("--astar-mb=")) {
+                options.setMemoryBudget(AStar.nodesOfMegabytes(Long.parseLong(arg.substring("--astar-mb=".length()))));
+            } else if (arg.startsWith("--ara-weight=")) {
+                araWeight = Double.parseDouble(arg.substring("--ara-weight=".length()));
+            } else if (arg.startsWith("--ara-step=")) {
+                araStep = Double.parseDouble(arg.substring("--ara-step=".length()));
+            } else if (arg.startsWith("--ara-ms=")) {
+                araMillis = Long.parseLong(arg.substring("--ara-ms=".length()));
+            } else if (arg.startsWith("--ebfs-dir=")) {
+                ebfsDir = new File(arg.substring("--ebfs-dir=".length()));
+            } else if (arg.startsWith("--ebfs-mb=")) {
+                ebfsBuffer = Long.parseLong(arg.substring("--ebfs-mb=".length())) << 20;
+            } else if (arg.startsWith("--cache=")) {
+                cacheFile = arg.substring("--cache=".length());
+            } else if (arg.startsWith("--cache-size=")) {
+                cacheSize = Integer.parseInt(arg.substring("--cache-size=".length()));
+            } else if (arg.equals("--no-normalize")) {
+                normalize = false;
+            } else if (arg.startsWith("--tt=")) {
+                tableMegabytes = Integer.parseInt(arg.substring("--tt=".length()));
+            } else if (arg.startsWith("--tt-replace=")) {
+                replacement = TranspositionTable.Replacement.valueOf(arg.substring("--tt-replace=".length()).toUpperCase());
+            } else if (arg.startsWith("--trace=")) {
+                traceFile = arg.substring("--trace=".length());
+            } else if (arg.startsWith("--trace-every=")) {
+                traceEvery = Integer.parseInt(arg.substring("--trace-every=".length()));
+            } else if (arg.startsWith("--read-trace=")) {
+                try (InputStream in = new BufferedInputStream(new FileInputStream(arg.substring("--read-trace=".length())))) {
+                    Trace.read(in, System.out);
                 }
-                startBoard[i][j++] = Integer.parseInt(arrStr[k]);
+                return;
             }
-            j = 0;
-            i++;
-            line = scanner.nextLine();
-        }
-
-        //init the goal state board.
-        int[][] goalBoard = new int[row][col];
-        i = 0;
-        j = 0;
-        line = scanner.nextLine();
-        while (i < goalBoard.length) {
-            String[] arrStr = line.split(",");
-            for (int k = 0; k < arrStr.length; k++) {
-                if (arrStr[k].equals("_")) {
-                    arrStr[k] = "0";
+        }
+        options.setTranspositions(tableMegabytes, replacement);
+        options.setAnytime(araWeight, araStep, araMillis);
+        options.setStorage(ebfsDir, ebfsBuffer);
+        SolutionCache cache = cacheFile == null ? null : new SolutionCache(new File(cacheFile), cacheSize);
+
+        if (batch != null) {
+            Batch solver = new Batch(workers, order, pdbPartition, pdbDir, threads);
+            solver.setOptions(options);
+            solver.setCache(cache);
+            solver.setNormalize(normalize);
+            Reader in = batch.equals("-") ? new InputStreamReader(System.in) : new FileReader(batch);
+            Writer out = output.equals("-") ? new OutputStreamWriter(System.out) : new FileWriter(output);
+            Writer statsOut = statsFile == null ? null : new FileWriter(statsFile);
+            try {
+                solver.run(in, out, statsOut);
+            } finally {
+                in.close();
+                out.close();
+                if (statsOut != null) {
+                    statsOut.close();
                 }
-                goalBoard[i][j++] = Integer.parseInt(arrStr[k]);
-            }
-            j = 0;
-            i++;
-            if (scanner.hasNext()) {
-                line = scanner.nextLine();
             }
+            return;
         }
+
+        options.setAnytimeListener(System.out::println);   // every better path of ARA* is printed when it is found.
+        File file = new File("input3.txt");
+        Scanner scanner = new Scanner(file);
+        Problem problem = Problem.read(scanner);
         scanner.close();
 
+        // the numbers are relabeled to the canonical goal, but not when the open list is printed (it shows the boards of the instance).
+        Relabeling relabeling = null;
+        if (normalize && !problem.isWithOpen() && traceFile == null) {
+            relabeling = Relabeling.of(problem);
+            problem = relabeling.apply(problem);
+            pdbPartition = relabeling.partition(pdbPartition);
+        }
 
         // init all the puzzle game and run the program.
-        int[] emptyPanelStart = emptyPanel(startBoard);
-        State start = new State(startBoard, 0, null, goalBoard, emptyPanelStart[0], emptyPanelStart[1], emptyPanelStart[2], emptyPanelStart[3]);
-        int[] emptyPanelGoal = emptyPanel(goalBoard);
-        State goal = new State(goalBoard, 0, null, goalBoard, emptyPanelGoal[0], emptyPanelGoal[1], emptyPanelGoal[2], emptyPanelGoal[3]);
-
-        Vector<State> v = new Vector<>();
-        v.add(goal);
+        List<ProblemContext> goals = new ArrayList<>();
+        for (int[][] goal : problem.getGoalBoards()) {
+            PatternDatabase patterns = pdbPartition == null ? null : PatternDatabase.load(goal, pdbPartition, pdbDir);
+            goals.add(new ProblemContext(goal, patterns));
+        }
+        ProblemContext context = ProblemContext.of(goals);  // shared by all the states of the game.
 
         //create output file.
         //initialize the ans for the output file
-        String ans = "";
         double startTime = System.nanoTime();
-        switch (algorithm) {
-            case "BFS":
-                Algo bfs = new BFS(start, v, withOpen);
-                ans = bfs.Algo();
-                break;
-            case "DFID":
-                Algo dfid = new DFID(start, v, withOpen);
-                ans = dfid.Algo();
-                break;
-            case "A*":
-                Algo astar = new AStar(start, v, withOpen);
-                ans = astar.Algo();
-                break;
-            case "IDA*":
-                Algo idastar = new IDAStar(start, v, withOpen);
-                ans = idastar.Algo();
-                break;
-            case "DFBnB":
-                Algo dfbnb = new DFBnB(start, v, withOpen);
-                ans = dfbnb.Algo();
-                break;
+        Algo search = algorithm(problem, context, threads, cache);
+        int[][] startBoard = problem.getStartBoard();
+        Trace trace = null;
+        if (traceFile != null) {
+            trace = Trace.binary(new File(traceFile), startBoard.length, startBoard[0].length, traceEvery);
+        } else if (problem.isWithOpen()) {
+            trace = Trace.text(System.out, startBoard.length, startBoard[0].length, traceEvery);
+        }
+        if (trace != null) {
+            search.setTrace(trace);
+        }
+        options.apply(search);
+        String ans;
+        try {
+            ans = search.solve();
+        } finally {
+            if (trace != null) {
+                trace.close();
+            }
+        }
+        if (cache != null && !(search instanceof CachedPath)) {
+            cache.store(problem, context, ans);
+        }
+        if (relabeling != null) {
+            ans = relabeling.restore(ans);
         }
         double stopTime = System.nanoTime();
-        if (withTime == true) {
+        if (problem.isWithTime() == true) {
             ans += ((stopTime - startTime) / 1000000000) + " second";
         }
+        if (statsFile != null) {
+            try (FileWriter statsWriter = new FileWriter(statsFile)) {
+                statsWriter.write(search.getStats().toJson() + "\n");
+            }
+        }
+        if (output.equals("-")) {
+            System.out.print(ans);
+            return;
+        }
         try {
-            FileWriter myWriter = new FileWriter("output.txt");
+            FileWriter myWriter = new FileWriter(output);
             myWriter.write(ans);
             myWriter.close();
         } catch (IOException e) {
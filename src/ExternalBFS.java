@@ -0,0 +1,582 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.stream.Stream;
+
+/**
+ * This algorithm is a breadth-first search whose layers are kept on disk instead of in the open and closed lists,
+ * so it can search boards whose state space does not fit in memory.
+ * Every layer is a file of packed boards, sorted and without duplicates. The boards generated from a layer are sorted in
+ * a buffer of fixed size and written as sorted runs, and the next layer is the merge of the runs without the boards of
+ * the layer and of the layer before it (delayed duplicate detection: a move can be undone, so a board generated from
+ * layer d is in layer d - 1, d or d + 1).
+ * When a goal is generated the path is rebuilt backward: for every layer, a board of the layer before it that is one
+ * move away is found by binary search in its file.
+ * The files are read and written through NIO channels, in a work directory that is deleted at the end of the search.
+ * The open list is on disk, so it is not printed.
+ * Time complexity: O(b^d * log(b^d)).
+ * Space complexity: O(buffer) in memory, O(b^d) on disk.
+ *
+ * @Author Liav Weiss.
+ */
+public class ExternalBFS extends Algo {
+
+    /**
+     * The default size of the sort buffer, in bytes.
+     */
+    public static final long DEFAULT_BUFFER = 64L << 20;
+
+    private static final int IO_BUFFER = 1 << 16;
+    private static final int FAN_IN = 64;
+
+    /**
+     * This class has six fields:
+     *
+     * @param dir - the directory of the work directory, null for the temporary directory of the system.
+     * @param bufferBytes - the size of the sort buffer in bytes.
+     * @param cells - the number of panels on the board.
+     * @param bits - the bits of one panel in a record (4 for a nibble-packed board, 8 for a byte-packed one).
+     * @param words - the number of longs of one record.
+     * @param context - the goal tables of the game, for the states made from the records.
+     */
+    private File dir;
+    private long bufferBytes = DEFAULT_BUFFER;
+    private int cells;
+    private int bits;
+    private int words;
+    private ProblemContext context;
+
+    /**
+     * constructor.
+     *
+     * @param initialState - The initial state of the game.
+     * @param g - A vector containing all the target states that need to be reached (at least one of them).
+     * @param withOpen - flag if print the open list or not.
+     */
+    public ExternalBFS(State initialState, Vector<State> g, boolean withOpen) {
+        super(initialState, g, withOpen);
+    }
+
+    /**
+     * This method set where the layers are written and how much memory sorts them.
+     *
+     * @param dir         - the directory of the work directory, null for the temporary directory of the system.
+     * @param bufferBytes - the size of the sort buffer in bytes.
+     */
+    public void setStorage(File dir, long bufferBytes) {
+        if (bufferBytes < 1) {
+            throw new IllegalArgumentException("the sort buffer needs at least one byte: " + bufferBytes);
+        }
+        this.dir = dir;
+        this.bufferBytes = bufferBytes;
+    }
+
+    @Override
+    public String Algo() {
+        if (isGoal(initialState)) {
+            return print(initialState);
+        }
+        PackedBoard start = initialState.getBoard();
+        this.cells = start.size();
+        this.bits = start.isNibblePacked() ? 4 : 8;     // like PackedBoard, a number above 15 needs 8 bits.
+        this.words = (this.cells * this.bits + 63) / 64;
+        this.context = initialState.getContext();
+        Path work;
+        try {
+            if (this.dir == null) {
+                work = Files.createTempDirectory("ebfs");
+            } else {
+                Files.createDirectories(this.dir.toPath());     // like the directory of the pattern database files.
+                work = Files.createTempDirectory(this.dir.toPath(), "ebfs");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            return search(work);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            delete(work);
+        }
+    }
+
+    /**
+     * This method search layer after layer, until a goal is generated or a layer is empty.
+     *
+     * @param work - the work directory.
+     * @return - the ans of the algorithm.
+     * @throws IOException - if a layer cannot be read or written.
+     */
+    private String search(Path work) throws IOException {
+        long[] goalRecords = new long[goals.size() * this.words];
+        for (int k = 0; k < goals.size(); k++) {
+            encode(goals.get(k).getBoard(), goalRecords, k * this.words);
+        }
+        List<Path> layers = new ArrayList<>();
+        layers.add(work.resolve("layer-0"));
+        try (Writer out = new Writer(layers.get(0))) {
+            long[] record = new long[this.words];
+            encode(initialState.getBoard(), record, 0);
+            out.write(record, 0);
+        }
+        stats.generate();
+        int chunkRecords = (int) Math.max(Move.MAX_MOVES, Math.min(this.bufferBytes / 8 / this.words, Integer.MAX_VALUE / this.words));
+        long[] chunk = new long[chunkRecords * this.words];
+        long[] record = new long[this.words];
+        long[] goal = new long[this.words];
+        for (int depth = 0; ; depth++) {
+            stats.phase("layer " + depth);
+            List<Path> runs = new ArrayList<>();
+            int n = 0;
+            try (Reader in = new Reader(layers.get(depth))) {
+                while (in.next(record)) {
+                    if (isCancelled()) {
+                        return cancelled();
+                    }
+                    stats.expand();
+                    State s = decode(record);
+                    for (State operator : s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2())) {
+                        stats.generate();
+                        encode(operator.getBoard(), chunk, n * this.words);
+                        if (indexOf(goalRecords, chunk, n * this.words) != -1) {
+                            System.arraycopy(chunk, n * this.words, goal, 0, this.words);
+                            return path(layers, depth, record, goal);
+                        }
+                        if (++n == chunkRecords) {
+                            runs.add(writeRun(work, runs.size(), chunk, n));
+                            n = 0;
+                        }
+                    }
+                }
+            }
+            if (n > 0) {
+                runs.add(writeRun(work, runs.size(), chunk, n));
+            }
+            for (int pass = 0; runs.size() > FAN_IN; pass++) {   // at most FAN_IN files are merged at once.
+                List<Path> merged = new ArrayList<>();
+                for (int k = 0; k < runs.size(); k += FAN_IN) {
+                    List<Path> group = runs.subList(k, Math.min(k + FAN_IN, runs.size()));
+                    Path run = work.resolve("run-" + pass + "-" + merged.size());
+                    merge(group, null, null, run);
+                    delete(group);
+                    merged.add(run);
+                }
+                runs = merged;
+            }
+            Path next = work.resolve("layer-" + (depth + 1));
+            long size = merge(runs, depth == 0 ? null : layers.get(depth - 1), layers.get(depth), next);
+            delete(runs);
+            if (size == 0) {
+                return noPath();
+            }
+            stats.open(size);
+            layers.add(next);
+        }
+    }
+
+    /**
+     * This method sort the records of the buffer, remove their duplicates and write them as a run.
+     *
+     * @param work  - the work directory.
+     * @param index - the index of the run in the layer.
+     * @param chunk - the records.
+     * @param n     - the number of records.
+     * @return - the file of the run.
+     * @throws IOException - if the run cannot be written.
+     */
+    private Path writeRun(Path work, int index, long[] chunk, int n) throws IOException {
+        if (this.words == 1) {
+            Arrays.sort(chunk, 0, n);
+        } else {
+            sort(chunk, 0, n - 1, new long[this.words]);
+        }
+        Path run = work.resolve("run-" + index);
+        try (Writer out = new Writer(run)) {
+            for (int k = 0; k < n; k++) {
+                if (k > 0 && compare(chunk, k * this.words, chunk, (k - 1) * this.words) == 0) {
+                    stats.duplicate();
+                } else {
+                    out.write(chunk, k * this.words);
+                }
+            }
+        }
+        return run;
+    }
+
+    /**
+     * This method merge the runs of a layer into the next layer, without the boards of the two layers before it
+     * (or into one bigger run, without layers).
+     *
+     * @param runs     - the sorted runs.
+     * @param previous - the layer before the expanded layer, null for none.
+     * @param current  - the expanded layer, null for none.
+     * @param next     - the file of the next layer.
+     * @return - the number of boards of the next layer.
+     * @throws IOException - if a file cannot be read or written.
+     */
+    private long merge(List<Path> runs, Path previous, Path current, Path next) throws IOException {
+        Reader[] in = new Reader[runs.size()];
+        long[][] heads = new long[runs.size()][];
+        long[] last = null;
+        long size = 0;
+        try (Reader old = previous == null ? null : new Reader(previous);
+             Reader now = current == null ? null : new Reader(current);
+             Writer out = new Writer(next)) {
+            for (int k = 0; k < in.length; k++) {
+                in[k] = new Reader(runs.get(k));
+                heads[k] = new long[this.words];
+                if (!in[k].next(heads[k])) {
+                    heads[k] = null;
+                }
+            }
+            Cursor oldCursor = old == null ? null : new Cursor(old);
+            Cursor nowCursor = now == null ? null : new Cursor(now);
+            while (true) {
+                int min = -1;
+                for (int k = 0; k < heads.length; k++) {
+                    if (heads[k] != null && (min == -1 || compare(heads[k], 0, heads[min], 0) < 0)) {
+                        min = k;
+                    }
+                }
+                if (min == -1) {
+                    break;
+                }
+                long[] candidate = heads[min];
+                if ((last != null && compare(candidate, 0, last, 0) == 0)
+                        || (nowCursor != null && nowCursor.contains(candidate))
+                        || (oldCursor != null && oldCursor.contains(candidate))) {
+                    stats.duplicate();
+                } else {
+                    out.write(candidate, 0);
+                    size++;
+                }
+                last = last == null ? new long[this.words] : last;
+                System.arraycopy(candidate, 0, last, 0, this.words);
+                if (!in[min].next(heads[min])) {
+                    heads[min] = null;
+                }
+            }
+        } finally {
+            for (Reader r : in) {
+                if (r != null) {
+                    r.close();
+                }
+            }
+        }
+        return size;
+    }
+
+    /**
+     * This method rebuild the path: from the expanded board back to the initial state, a board of every layer that is
+     * one move away from the board after it, and then the states forward from the initial state.
+     *
+     * @param layers - the files of the layers.
+     * @param depth  - the layer of the expanded board.
+     * @param parent - the expanded board that generated the goal.
+     * @param goal   - the goal board.
+     * @return - the ans of the algorithm.
+     * @throws IOException - if a layer cannot be read.
+     */
+    private String path(List<Path> layers, int depth, long[] parent, long[] goal) throws IOException {
+        String phase = stats.phase("path");
+        long[][] boards = new long[depth + 2][];
+        boards[depth + 1] = goal;
+        boards[depth] = parent.clone();
+        long[] record = new long[this.words];
+        for (int d = depth; d > 0; d--) {
+            State s = decode(boards[d]);
+            try (FileChannel layer = FileChannel.open(layers.get(d - 1), StandardOpenOption.READ)) {
+                for (State operator : s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2())) {
+                    encode(operator.getBoard(), record, 0);
+                    if (find(layer, record)) {
+                        boards[d - 1] = record.clone();
+                        break;
+                    }
+                }
+            }
+        }
+        State s = initialState;
+        for (int d = 1; d < boards.length; d++) {
+            for (State operator : s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2())) {
+                encode(operator.getBoard(), record, 0);
+                if (compare(record, 0, boards[d], 0) == 0) {
+                    s = operator;
+                    break;
+                }
+            }
+        }
+        stats.phase(phase);
+        return print(s);
+    }
+
+    /**
+     * This method search a record in a sorted layer file, by binary search.
+     *
+     * @param layer  - the layer file.
+     * @param record - the record.
+     * @return - true if the layer contain the record.
+     * @throws IOException - if the layer cannot be read.
+     */
+    private boolean find(FileChannel layer, long[] record) throws IOException {
+        int bytes = this.words * 8;
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        long[] mid = new long[this.words];
+        long lo = 0;
+        long hi = layer.size() / bytes - 1;
+        while (lo <= hi) {
+            long m = (lo + hi) >>> 1;
+            buffer.clear();
+            int read = 0;
+            while (buffer.hasRemaining() && read != -1) {
+                read = layer.read(buffer, m * bytes + buffer.position());
+            }
+            buffer.flip();
+            for (int w = 0; w < this.words; w++) {
+                mid[w] = buffer.getLong();
+            }
+            int c = compare(mid, 0, record, 0);
+            if (c == 0) {
+                return true;
+            } else if (c < 0) {
+                lo = m + 1;
+            } else {
+                hi = m - 1;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method write the panels of a board into a record, this.bits per panel.
+     */
+    private void encode(PackedBoard board, long[] dest, int offset) {
+        int perWord = 64 / this.bits;
+        Arrays.fill(dest, offset, offset + this.words, 0);
+        for (int k = 0; k < this.cells; k++) {
+            dest[offset + k / perWord] |= ((long) board.get(k)) << ((k % perWord) * this.bits);
+        }
+    }
+
+    /**
+     * This method make the state of a record (its empty panels found on the board).
+     */
+    private State decode(long[] record) {
+        int perWord = 64 / this.bits;
+        long mask = (1L << this.bits) - 1;
+        int cols = this.context.getCols();
+        int[][] board = new int[this.context.getRows()][cols];
+        for (int k = 0; k < this.cells; k++) {
+            board[k / cols][k % cols] = (int) ((record[k / perWord] >>> ((k % perWord) * this.bits)) & mask);
+        }
+        int[] empty = Ex1.emptyPanel(board);
+        return new State(board, 0, null, this.context, empty[0], empty[1], empty[2], empty[3]);
+    }
+
+    /**
+     * This method return the index of the record in the records, -1 if it is not there.
+     */
+    private int indexOf(long[] records, long[] record, int offset) {
+        for (int k = 0; k < records.length; k += this.words) {
+            if (compare(records, k, record, offset) == 0) {
+                return k / this.words;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * This method compare two records, word by word.
+     */
+    private int compare(long[] a, int aOffset, long[] b, int bOffset) {
+        for (int w = 0; w < this.words; w++) {
+            int c = Long.compare(a[aOffset + w], b[bOffset + w]);
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * This method sort the records lo..hi (inclusive) of a buffer of records of more than one word (quicksort).
+     */
+    private void sort(long[] a, int lo, int hi, long[] pivot) {
+        while (lo < hi) {
+            System.arraycopy(a, ((lo + hi) >>> 1) * this.words, pivot, 0, this.words);
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (compare(a, i * this.words, pivot, 0) < 0) {
+                    i++;
+                }
+                while (compare(a, j * this.words, pivot, 0) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(a, i++, j--);
+                }
+            }
+            if (j - lo < hi - i) {   // the smaller part first, so the stack stays O(log n).
+                sort(a, lo, j, pivot);
+                lo = i;
+            } else {
+                sort(a, i, hi, pivot);
+                hi = j;
+            }
+        }
+    }
+
+    private void swap(long[] a, int i, int j) {
+        for (int w = 0; w < this.words; w++) {
+            long t = a[i * this.words + w];
+            a[i * this.words + w] = a[j * this.words + w];
+            a[j * this.words + w] = t;
+        }
+    }
+
+    /**
+     * This method delete the files.
+     */
+    private static void delete(List<Path> files) throws IOException {
+        for (Path file : files) {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * This method delete the work directory and its files.
+     */
+    private static void delete(Path work) {
+        try (Stream<Path> files = Files.list(work)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(work);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This class represents a sequential reader of the records of a file.
+     */
+    private final class Reader implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+
+        private Reader(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.READ);
+            this.buffer.flip();
+        }
+
+        /**
+         * This method read the next record.
+         *
+         * @param record - the record, words longs.
+         * @return - false at the end of the file.
+         */
+        private boolean next(long[] record) throws IOException {
+            if (this.buffer.remaining() < words * 8) {
+                this.buffer.compact();
+                int read = 0;
+                while (this.buffer.hasRemaining() && read != -1) {
+                    read = this.channel.read(this.buffer);
+                }
+                this.buffer.flip();
+                if (this.buffer.remaining() < words * 8) {
+                    return false;
+                }
+            }
+            for (int w = 0; w < words; w++) {
+                record[w] = this.buffer.getLong();
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * This class represents a sequential writer of records to a file.
+     */
+    private final class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(IO_BUFFER);
+
+        private Writer(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * This method write one record.
+         *
+         * @param records - the records.
+         * @param offset  - the index of the first long of the record.
+         */
+        private void write(long[] records, int offset) throws IOException {
+            if (this.buffer.remaining() < words * 8) {
+                drain();
+            }
+            for (int w = 0; w < words; w++) {
+                this.buffer.putLong(records[offset + w]);
+            }
+        }
+
+        private void drain() throws IOException {
+            this.buffer.flip();
+            while (this.buffer.hasRemaining()) {
+                this.channel.write(this.buffer);
+            }
+            this.buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            drain();
+            this.channel.close();
+        }
+    }
+
+    /**
+     * This class represents a reader of a sorted layer that answers, for ascending records, if a record is in the layer.
+     */
+    private final class Cursor {
+
+        private final Reader reader;
+        private final long[] head = new long[words];
+        private boolean more;
+
+        private Cursor(Reader reader) throws IOException {
+            this.reader = reader;
+            this.more = reader.next(this.head);
+        }
+
+        /**
+         * This method check if the layer contain the record (the records are asked in ascending order).
+         *
+         * @param record - the record.
+         * @return - true if the record is in the layer.
+         */
+        private boolean contains(long[] record) throws IOException {
+            while (this.more && compare(this.head, 0, record, 0) < 0) {
+                this.more = this.reader.next(this.head);
+            }
+            return this.more && compare(this.head, 0, record, 0) == 0;
+        }
+    }
+}
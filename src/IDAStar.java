@@ -1,15 +1,49 @@
-import java.util.ArrayList;
-import java.util.Hashtable;
-import java.util.Stack;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Vector;
 
 /**
  * this algorithm perform at each iteration a depth-first search, cutting off a branch when its total cost f(n)=g(n)+h(n) exceeds a given threshold.
  * This threshold starts at the estimate of the cost at the initial state, and increases for each iteration of the algorithm.
  * At each iteration, the threshold used for the next iteration is the minimum cost of all values that exceeded the current threshold.
+ * A transposition table (on by default) prunes a board that was already searched in the iteration with the same or a
+ * smaller cost, and keeps a learned lower bound of h for the boards whose subtree was searched without pruning a board
+ * for being on the path (a bound that depends on the path to the board is not a bound of the board).
+ * Without the table, a board that is kept on the stack and not searched yet is pruned when it is generated again with
+ * the same or a bigger f, and replaced when it is generated with a smaller f, like the open list of the first version.
  */
 public class IDAStar extends Algo{
 
+    /**
+     * This class has eleven fields (the stack of the depth-first search, one frame for every depth of the board):
+     *
+     * @param moves - the moves of every depth, Move.MAX_MOVES for each depth (Move.NONE for a move that was replaced).
+     * @param func - func[k] is f(n) = g(n) + h(n) of the board after moves[k].
+     * @param keys - keys[k] is the key of the board after moves[k].
+     * @param next - next[d] is the index in moves of the next move to search at depth d.
+     * @param end - end[d] is the index in moves after the last move of depth d.
+     * @param bound - bound[d] is the minimum f that exceeded the threshold in the subtree of the board at depth d
+     *              (and the f of the boards of the moves back that the moves of the subtree leave out).
+     * @param onPath - onPath[d] is true if a board in the subtree of the board at depth d was pruned for being on the path.
+     * @param minF - the minimum f of all the states that exceeded the threshold in this iteration.
+     * @param open - the keys of the boards of the moves that are kept in the frames and not searched yet, with the index
+     *             in moves of the move of each key (only without the table).
+     * @param table - the transposition table, null without one.
+     * @param withTable - false if the search runs without a transposition table.
+     */
+    private int[] moves = new int[64 * Move.MAX_MOVES];
+    private int[] func = new int[64 * Move.MAX_MOVES];
+    private long[] keys = new long[64 * Move.MAX_MOVES];
+    private int[] next = new int[64];
+    private int[] end = new int[64];
+    private int[] bound = new int[64];
+    private boolean[] onPath = new boolean[64];
+    private int minF;
+    private final Map<Long, Integer> open = new HashMap<>();
+    private TranspositionTable table;
+    private boolean withTable = true;
+
     /**
      * constructor.
      *
@@ -21,56 +55,169 @@ public class IDAStar extends Algo{
         super(initialState, g, withOpen);
     }
 
+    /**
+     * This method set the transposition table of the search (by default, a table of TranspositionTable.DEFAULT_ENTRIES).
+     *
+     * @param table - the table, null to search without one.
+     */
+    public void setTranspositions(TranspositionTable table) {
+        this.table = table;
+        this.withTable = table != null;
+    }
+
     @Override
     public String Algo() {
-        Stack<State> st = new Stack<>();
-        Hashtable<String, State> openList = new Hashtable<>();
-        int t = initialState.manhattanDistance(initialState.getGoal());
+        if (this.withTable && this.table == null) {
+            this.table = new TranspositionTable(TranspositionTable.DEFAULT_ENTRIES, TranspositionTable.Replacement.DEPTH);
+        }
+        MutableBoard board = new MutableBoard(initialState, goals);
+        if (board.isGoal()) {
+            return print(board);
+        }
+        int t = board.getHeuristic();
         int infinity = Integer.MAX_VALUE;
+        stats.evaluate();
         while (t != infinity) {
-            int minF = infinity;
-            st.add(initialState);
-            openList.put(initialState.toString(), initialState);
-            while (!st.isEmpty()) {
-                openListPrint(openList, this.withOpen); // if withOpen == true it will print the open list in this level.
-                State s = st.pop();
-                if (s.getTag().equals("out")) {
-                    openList.remove(s.toString());
-                } else {
-                    s.setTag("out");
-                    st.push(s);
-                    ArrayList<State> arrState = s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2());
-                    for (State operator : arrState) {
-                        numOfState++;
-                        int funcOperator = operator.getCost() + operator.manhattanDistance(operator.getGoal()); // f(operator) = g(operator) + h(operator)
-                        if (funcOperator > t) {
-                            minF = Math.min(minF, funcOperator);
-                            continue;
-                        }
-                        State operatorTag = openList.get(operator.toString());
-                        if (operatorTag != null && operatorTag.getTag().equals("out")) {
-                            continue;
-                        }
-                        if (operatorTag != null && !operatorTag.getTag().equals("out")) {
-                            int funcOperatorTag = operatorTag.getCost() + operatorTag.manhattanDistance(operatorTag.getGoal());  // f(operatorTag) = g(operatorTag) + h(operatorTag)
-                            if (funcOperatorTag > funcOperator) {
-                                openList.remove(operatorTag.toString());
-                                st.remove(operatorTag);
-                            } else {
-                                continue;
-                            }
-                        }
-                        if (goals.contains(operator)) {
-                            return print(operator);
-                        }
-                        openList.put(operator.toString(), operator);
-                        st.push(operator);
+            threshold(t);
+            stats.phase("iteration " + t);
+            this.minF = infinity;
+            this.open.clear();
+            if (this.table != null) {
+                this.table.nextIteration();
+                this.table.visit(board.getKey(), board.getCost());
+            }
+            boolean found = expand(board, t);
+            while (!found) {
+                if (isCancelled()) {
+                    return cancelled();
+                }
+                int d = board.getDepth();
+                if (this.next[d] == this.end[d]) {
+                    if (this.table != null && this.bound[d] != infinity && !this.onPath[d]) {  // the subtree of the board is searched.
+                        this.table.learn(board.getKey(), board.getCost(), this.bound[d] - board.getCost());
+                    }
+                    if (d == 0) {
+                        break;
+                    }
+                    board.undo();
+                    this.bound[d - 1] = Math.min(this.bound[d - 1], this.bound[d]);
+                    this.onPath[d - 1] |= this.onPath[d];
+                    continue;
+                }
+                int move = this.moves[this.next[d]++];
+                if (move == Move.NONE) {    // a cheaper move of the same board was kept after it.
+                    continue;
+                }
+                this.open.remove(this.keys[this.next[d] - 1]);
+                board.apply(move);
+                if (this.table != null) {
+                    if (this.table.seen(board.getKey(), board.getCost())) {   // its subtree is already searched.
+                        int learned = Math.max(board.getHeuristic(), this.table.learned(board.getKey()));
+                        this.bound[d] = Math.min(this.bound[d], board.getCost() + learned);
+                        stats.duplicate();
+                        board.undo();
+                        continue;
                     }
+                    this.table.visit(board.getKey(), board.getCost());
                 }
+                found = expand(board, t);
+            }
+            if (found) {
+                return print(board);
+            }
+            t = this.minF;
+        }
+        return noPath();
+    }
+
+    /**
+     * This method perform the operators of the board and keep the moves whose f(n) is at most t and whose board is not
+     * already on the path, in the order they would be popped from a stack (the last generated first).
+     * Without the table, a move whose board is kept in a frame with the same or a smaller f is not kept, and a move
+     * whose board is kept in a frame with a bigger f replaces it.
+     *
+     * @param board - the board to expand, its moves are kept in the frame of its depth.
+     * @param t     - the threshold of this iteration.
+     * @return - true if one of the moves reached a goal (the board is left on the goal), false o.t.
+     */
+    private boolean expand(MutableBoard board, int t) {
+        openListPrint(board, this.withOpen); // if withOpen == true it will print the open list in this level.
+        stats.expand();
+        stats.open(board.getDepth() + 1);
+        int d = board.getDepth();
+        if ((d + 1) * Move.MAX_MOVES > this.moves.length) {
+            this.moves = Arrays.copyOf(this.moves, this.moves.length * 2);
+            this.func = Arrays.copyOf(this.func, this.func.length * 2);
+            this.keys = Arrays.copyOf(this.keys, this.keys.length * 2);
+            this.next = Arrays.copyOf(this.next, this.next.length * 2);
+            this.end = Arrays.copyOf(this.end, this.end.length * 2);
+            this.bound = Arrays.copyOf(this.bound, this.bound.length * 2);
+            this.onPath = Arrays.copyOf(this.onPath, this.onPath.length * 2);
+        }
+        this.bound[d] = Integer.MAX_VALUE;
+        this.onPath[d] = false;
+        int offset = d * Move.MAX_MOVES;
+        if (this.table != null) {   // a bound of the board counts the boards of the moves back too, with their own h.
+            int back = board.undoingMoves(this.moves, offset);
+            for (int k = offset; k < offset + back; k++) {
+                board.apply(this.moves[k]);
+                this.bound[d] = Math.min(this.bound[d], board.getCost() + board.getHeuristic());
+                board.undo();
+            }
+        }
+        int count = board.moves(this.moves, offset);
+        int n = offset;
+        for (int k = offset; k < offset + count; k++) {
+            stats.generate();
+            board.apply(this.moves[k]);
+            int heuristic = board.getHeuristic();
+            if (this.table != null) {
+                heuristic = Math.max(heuristic, this.table.learned(board.getKey()));
+            }
+            int funcOperator = board.getCost() + heuristic; // f(operator) = g(operator) + h(operator)
+            stats.evaluate();
+            Integer other = this.table == null ? this.open.get(board.getKey()) : null;  // the same board in a frame.
+            if (funcOperator > t) {
+                this.minF = Math.min(this.minF, funcOperator);
+                this.bound[d] = Math.min(this.bound[d], funcOperator);
+                if (this.table != null && board.onPath()) {     // a bound through the path is not a bound of the board.
+                    this.onPath[d] = true;
+                }
+            } else if (board.onPath()) {
+                this.onPath[d] = true;
+                stats.duplicate();
+            } else if (other != null && this.func[other] <= funcOperator) {
+                stats.duplicate();
+            } else if (board.isGoal()) {
+                return true;
+            } else {
+                if (other != null) {    // cheaper than the kept move of its board, only with two empty panels.
+                    this.moves[other] = Move.NONE;
+                }
+                this.moves[n] = this.moves[k];
+                this.func[n] = funcOperator;
+                this.keys[n++] = board.getKey();
+            }
+            board.undo();
+        }
+        for (int i = offset, j = n - 1; i < j; i++, j--) {
+            int move = this.moves[i];
+            this.moves[i] = this.moves[j];
+            this.moves[j] = move;
+            int f = this.func[i];
+            this.func[i] = this.func[j];
+            this.func[j] = f;
+            long key = this.keys[i];
+            this.keys[i] = this.keys[j];
+            this.keys[j] = key;
+        }
+        if (this.table == null) {
+            for (int k = offset; k < n; k++) {
+                this.open.put(this.keys[k], k);
             }
-            t = minF;
-            initialState.setTag("");
         }
-        return "no path\n" + "Num: " + numOfState;
+        this.next[d] = offset;
+        this.end[d] = n;
+        return false;
     }
 }
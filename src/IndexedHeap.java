@@ -0,0 +1,214 @@
+import java.util.Arrays;
+
+/**
+ * This class represents the open list of A*: an indexed binary min-heap of node indexes.
+ * The f and g values of every node are cached in int arrays, so ordering never computes the heuristic again,
+ * and the heap position of every node is kept so decreaseKey works in O(log n) instead of the O(n) remove
+ * of java.util.PriorityQueue.
+ * Order: smaller f first, on equal f larger g first (deeper nodes are closer to a goal), then smaller node index.
+ *
+ * @Author Liav Weiss.
+ */
+public final class IndexedHeap {
+
+    /**
+     * This class has five fields:
+     *
+     * @param heap - the node indexes in heap order.
+     * @param pos - pos[node] is the place of the node in heap, -1 if the node is not in the heap.
+     * @param f - f[node] = g(node) + h(node).
+     * @param g - g[node] = the cost of the node.
+     * @param size - the number of nodes in the heap.
+     */
+    private int[] heap;
+    private int[] pos;
+    private int[] f;
+    private int[] g;
+    private int size;
+
+    /**
+     * constructor.
+     */
+    public IndexedHeap() {
+        this.heap = new int[64];
+        this.pos = new int[64];
+        this.f = new int[64];
+        this.g = new int[64];
+        Arrays.fill(this.pos, -1);
+    }
+
+    /**
+     * This method return the number of nodes in the heap.
+     *
+     * @return - size.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * This method return true if the heap is empty.
+     *
+     * @return - size == 0.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * This method check if the node is in the heap.
+     *
+     * @param node - the node index.
+     * @return - true if the node is in the heap.
+     */
+    public boolean contains(int node) {
+        return node < this.pos.length && this.pos[node] != -1;
+    }
+
+    /**
+     * This method return the cached f of the node.
+     *
+     * @param node - the node index.
+     * @return - f(node).
+     */
+    public int getF(int node) {
+        return this.f[node];
+    }
+
+    /**
+     * This method return the smallest f in the heap.
+     *
+     * @return - f of the first node, Integer.MAX_VALUE if the heap is empty.
+     */
+    public int peekF() {
+        return this.size == 0 ? Integer.MAX_VALUE : this.f[this.heap[0]];
+    }
+
+    /**
+     * This method add a node to the heap.
+     *
+     * @param node - the node index (not in the heap).
+     * @param f    - f(node).
+     * @param g    - g(node).
+     */
+    public void add(int node, int f, int g) {
+        ensureNode(node);
+        if (this.size == this.heap.length) {
+            this.heap = Arrays.copyOf(this.heap, this.size * 2);
+        }
+        this.f[node] = f;
+        this.g[node] = g;
+        this.heap[this.size] = node;
+        this.pos[node] = this.size;
+        siftUp(this.size++);
+    }
+
+    /**
+     * This method lower the f and g of a node that is in the heap (a better path to it was found).
+     *
+     * @param node - the node index.
+     * @param f    - the new f(node), not bigger than the old one.
+     * @param g    - the new g(node).
+     */
+    public void decreaseKey(int node, int f, int g) {
+        this.f[node] = f;
+        this.g[node] = g;
+        siftUp(this.pos[node]);
+    }
+
+    /**
+     * This method remove and return the first node.
+     *
+     * @return - the node index with the smallest f.
+     */
+    public int poll() {
+        int top = this.heap[0];
+        this.pos[top] = -1;
+        int last = this.heap[--this.size];
+        if (this.size > 0) {
+            this.heap[0] = last;
+            this.pos[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /**
+     * This method remove all the nodes.
+     */
+    public void clear() {
+        for (int k = 0; k < this.size; k++) {
+            this.pos[this.heap[k]] = -1;
+        }
+        this.size = 0;
+    }
+
+    /**
+     * This method return the nodes of the heap (in heap order).
+     *
+     * @return - new array of node indexes.
+     */
+    public int[] nodes() {
+        return Arrays.copyOf(this.heap, this.size);
+    }
+
+    /**
+     * This method check if node a comes before node b.
+     */
+    private boolean before(int a, int b) {
+        if (this.f[a] != this.f[b]) return this.f[a] < this.f[b];
+        if (this.g[a] != this.g[b]) return this.g[a] > this.g[b];
+        return a < b;
+    }
+
+    private void siftUp(int k) {
+        int node = this.heap[k];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            int p = this.heap[parent];
+            if (!before(node, p)) {
+                break;
+            }
+            this.heap[k] = p;
+            this.pos[p] = k;
+            k = parent;
+        }
+        this.heap[k] = node;
+        this.pos[node] = k;
+    }
+
+    private void siftDown(int k) {
+        int node = this.heap[k];
+        int half = this.size >>> 1;
+        while (k < half) {
+            int child = 2 * k + 1;
+            int right = child + 1;
+            if (right < this.size && before(this.heap[right], this.heap[child])) {
+                child = right;
+            }
+            int c = this.heap[child];
+            if (!before(c, node)) {
+                break;
+            }
+            this.heap[k] = c;
+            this.pos[c] = k;
+            k = child;
+        }
+        this.heap[k] = node;
+        this.pos[node] = k;
+    }
+
+    /**
+     * This method grow the per-node arrays so they can hold the node.
+     */
+    private void ensureNode(int node) {
+        if (node >= this.pos.length) {
+            int length = Math.max(node + 1, this.pos.length * 2);
+            int old = this.pos.length;
+            this.pos = Arrays.copyOf(this.pos, length);
+            Arrays.fill(this.pos, old, length, -1);
+            this.f = Arrays.copyOf(this.f, length);
+            this.g = Arrays.copyOf(this.g, length);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/**
+ * This class represents the operators of the tile-NxM game as int codes, so generating the moves of a board and pruning
+ * the move that undoes the last one are integer comparisons.
+ * A move is the direction the panels move to in bits [0, 2), the moving number in bits [2, 10) and, for a move of two
+ * panels, the number next to the second empty panel in bits [10, 18) (0 for a move of one panel).
+ * The text of a move ("4L", "3&7U") is made only when the answer is printed.
+ *
+ * @Author Liav Weiss.
+ */
+public final class Move {
+
+    /**
+     * The directions of a move.
+     */
+    public static final int LEFT = 0;
+    public static final int UP = 1;
+    public static final int RIGHT = 2;
+    public static final int DOWN = 3;
+
+    /**
+     * INVERSE[direction] is the opposite direction.
+     */
+    public static final int[] INVERSE = {RIGHT, DOWN, LEFT, UP};
+
+    /**
+     * The move of a state that no move brought (the initial state, the goal states).
+     */
+    public static final int NONE = -1;
+
+    /**
+     * The largest number of moves of one board: two moves of two panels and four moves of each empty panel.
+     */
+    public static final int MAX_MOVES = 10;
+
+    private static final char[] NAMES = {'L', 'U', 'R', 'D'};
+
+    private Move() {
+    }
+
+    /**
+     * This method return the code of a move of one panel.
+     *
+     * @param direction - the direction the panel moves to.
+     * @param num       - the moving number.
+     * @return - the move.
+     */
+    public static int of(int direction, int num) {
+        return direction | num << 2;
+    }
+
+    /**
+     * This method return the code of a move of two panels.
+     *
+     * @param direction - the direction the panels move to.
+     * @param num1      - the number next to the first empty panel.
+     * @param num2      - the number next to the second empty panel.
+     * @return - the move.
+     */
+    public static int of(int direction, int num1, int num2) {
+        return direction | num1 << 2 | num2 << 10;
+    }
+
+    public static int direction(int move) {
+        return move & 3;
+    }
+
+    public static int number(int move) {
+        return (move >>> 2) & 0xFF;
+    }
+
+    public static int second(int move) {
+        return (move >>> 10) & 0xFF;
+    }
+
+    public static boolean isPair(int move) {
+        return second(move) != 0;
+    }
+
+    /**
+     * This method return the move that undoes the given move (the same panels in the opposite direction).
+     *
+     * @param move - the move.
+     * @return - the opposite move.
+     */
+    public static int inverse(int move) {
+        return (move & ~3) | INVERSE[move & 3];
+    }
+
+    /**
+     * This method check if a move undoes the last move: a move of one panel undoes the same number in the opposite
+     * direction, alone or as the second number of a move of two panels, a move of two panels undoes the same numbers
+     * in the opposite direction.
+     *
+     * @param move - the move.
+     * @param last - the last move, NONE if there is none.
+     * @return - true if the move undoes the last move.
+     */
+    public static boolean undoes(int move, int last) {
+        if (last == NONE) {
+            return false;
+        }
+        int opposite = inverse(move);
+        if (isPair(move) || !isPair(last)) {
+            return last == opposite;
+        }
+        return second(last) == number(move) && direction(last) == direction(opposite);
+    }
+
+    /**
+     * This method return the text of a path, like "4L-3&7U-2D" (the text of the moves is made once, at the end).
+     *
+     * @param moves - the moves, the first move first.
+     * @param count - the number of moves.
+     * @return - the moves joined with "-", "" for no moves.
+     */
+    public static String join(int[] moves, int count) {
+        StringBuilder ans = new StringBuilder(count * 4);
+        for (int k = 0; k < count; k++) {
+            if (k > 0) {
+                ans.append('-');
+            }
+            ans.append(number(moves[k]));
+            if (isPair(moves[k])) {
+                ans.append('&').append(second(moves[k]));
+            }
+            ans.append(NAMES[direction(moves[k])]);
+        }
+        return ans.toString();
+    }
+
+    /**
+     * This method return the text of a move, like "4L" or "3&7U".
+     *
+     * @param move - the move.
+     * @return - the text of the move, null for NONE.
+     */
+    public static String toString(int move) {
+        if (move == NONE) {
+            return null;
+        }
+        String nums = isPair(move) ? number(move) + "&" + second(move) : "" + number(move);
+        return nums + NAMES[direction(move)];
+    }
+}
@@ -0,0 +1,521 @@
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * This class represents one board of the tile-NxM game that is changed in place by apply and restored by undo,
+ * for the depth-first searches (IDA*, DFBnB, DFID) that only need the current path.
+ * A move updates the panels, the empty panels, the cost and the heuristic (incrementally, like State) and the key of
+ * the board, and pushes what undo needs on arrays that only grow with the depth of the search, so moving along the
+ * search tree allocates nothing.
+ * The moves are generated in the same order and with the same pruning of the move that undoes the last one as
+ * State.performingOperators.
+ * <p>
+ * A move is a Move code. The key of a board with up to 16 panels whose numbers fit in 4 bits is the nibble-packed
+ * board itself (exact), otherwise it is a 64-bit Zobrist hash (boards with the same key are checked panel by panel
+ * against the goals).
+ */
+public final class MutableBoard {
+
+    /**
+     * This class has the fields of the board:
+     *
+     * @param rows - The number of rows on the board.
+     * @param cols - The number of cols on the board.
+     * @param context - the goal tables of the game.
+     * @param cells - cells[k] is the number in panel k (0 is an empty panel).
+     * @param cellOf - cellOf[num] is the panel of num (for the numbers that are not 0).
+     * @param blank1 - The panel of the first empty panel (the one that moved last, like i1, j1 of State).
+     * @param blank2 - The panel of the second empty panel, -1 on a board with one empty panel.
+     * @param cost - The price it cost us to get from the initial state to the board.
+     * @param distance - The sum of the Manhattan distances of the panels.
+     * @param conflicts - The number of linear conflicts on the board.
+     * @param heuristic - The value of the heuristic function.
+     * @param key - The key of the board (see the class doc).
+     * @param zobrist - zobrist[cell * 256 + num], null when the key is the nibble-packed board.
+     * @param goalKeys - the keys of the goal boards in increasing order (for a binary search), and goalCells their panels.
+     */
+    private final int rows;
+    private final int cols;
+    private final ProblemContext context;
+    private final int[] cells;
+    private final int[] cellOf = new int[256];
+    private int blank1;
+    private int blank2;
+    private int cost;
+    private int distance;
+    private int conflicts;
+    private int heuristic;
+    private long key;
+    private final long[] zobrist;
+    private final long[] goalKeys;
+    private final int[][] goalCells;
+
+    /**
+     * The undo stack, index d holds the values of the board at depth d and the move that was applied to it.
+     */
+    private int depth;
+    private int[] moveAt = new int[64];
+    private int[] blank1At = new int[64];
+    private int[] blank2At = new int[64];
+    private int[] costAt = new int[64];
+    private int[] distanceAt = new int[64];
+    private int[] conflictsAt = new int[64];
+    private int[] heuristicAt = new int[64];
+    private long[] keyAt = new long[64];
+
+    /**
+     * constructor.
+     *
+     * @param start - the state to start from (its board, empty panels, cost and context).
+     * @param goals - the goal states.
+     */
+    public MutableBoard(State start, List<State> goals) {
+        PackedBoard board = start.getBoard();
+        this.rows = board.getRows();
+        this.cols = board.getCols();
+        this.context = start.getContext();
+        this.cells = new int[board.size()];
+        boolean nibble = board.isNibblePacked();
+        for (int k = 0; k < this.cells.length; k++) {
+            this.cells[k] = board.get(k);
+            this.cellOf[this.cells[k]] = k;
+        }
+        if (nibble) {
+            this.zobrist = null;
+        } else {
+            this.zobrist = new long[this.cells.length * 256];
+            SplittableRandom random = new SplittableRandom(0x5EED);
+            for (int k = 0; k < this.zobrist.length; k++) {
+                this.zobrist[k] = random.nextLong();
+            }
+        }
+        this.blank1 = start.getI1() == -1 ? -1 : start.getI1() * this.cols + start.getJ1();
+        this.blank2 = start.getI2() == -1 ? -1 : start.getI2() * this.cols + start.getJ2();
+        this.cost = start.getCost();
+        this.key = keyOf(this.cells);
+        this.distance = this.context.distanceSum(this.cells, this.blank2 != -1);
+        this.conflicts = this.context.conflicts(this.cells);
+        this.heuristic = this.context.estimates() ? this.context.estimate(this.cellOf) : evaluate();
+        this.goalKeys = new long[goals.size()];
+        this.goalCells = new int[goals.size()][];
+        for (int g = 0; g < goals.size(); g++) {
+            PackedBoard goal = goals.get(g).getBoard();
+            this.goalCells[g] = new int[goal.size()];
+            for (int k = 0; k < goal.size(); k++) {
+                this.goalCells[g][k] = goal.get(k);
+            }
+            this.goalKeys[g] = keyOf(this.goalCells[g]);
+            for (int k = g; k > 0 && this.goalKeys[k - 1] > this.goalKeys[k]; k--) {   // insertion sort, a few goals.
+                long key = this.goalKeys[k];
+                this.goalKeys[k] = this.goalKeys[k - 1];
+                this.goalKeys[k - 1] = key;
+                int[] panels = this.goalCells[k];
+                this.goalCells[k] = this.goalCells[k - 1];
+                this.goalCells[k - 1] = panels;
+            }
+        }
+        this.keyAt[0] = this.key;
+    }
+
+    /**
+     * constructor of a copy of the board and its path, for a search on another thread (the tables of the game and the
+     * goals are shared, they are never changed).
+     *
+     * @param board - the board to copy.
+     */
+    public MutableBoard(MutableBoard board) {
+        this.rows = board.rows;
+        this.cols = board.cols;
+        this.context = board.context;
+        this.cells = board.cells.clone();
+        System.arraycopy(board.cellOf, 0, this.cellOf, 0, this.cellOf.length);
+        this.blank1 = board.blank1;
+        this.blank2 = board.blank2;
+        this.cost = board.cost;
+        this.distance = board.distance;
+        this.conflicts = board.conflicts;
+        this.heuristic = board.heuristic;
+        this.key = board.key;
+        this.zobrist = board.zobrist;
+        this.goalKeys = board.goalKeys;
+        this.goalCells = board.goalCells;
+        this.depth = board.depth;
+        this.moveAt = board.moveAt.clone();
+        this.blank1At = board.blank1At.clone();
+        this.blank2At = board.blank2At.clone();
+        this.costAt = board.costAt.clone();
+        this.distanceAt = board.distanceAt.clone();
+        this.conflictsAt = board.conflictsAt.clone();
+        this.heuristicAt = board.heuristicAt.clone();
+        this.keyAt = board.keyAt.clone();
+    }
+
+    /**
+     * This method return the key of the panels (see the class doc).
+     */
+    private long keyOf(int[] panels) {
+        long ans = 0;
+        for (int k = 0; k < panels.length; k++) {
+            if (this.zobrist == null) {
+                ans |= ((long) panels[k]) << (k << 2);
+            } else if (panels[k] != 0) {
+                ans ^= this.zobrist[k * 256 + panels[k]];
+            }
+        }
+        return ans;
+    }
+
+    public int getCost() {
+        return this.cost;
+    }
+
+    public int getHeuristic() {
+        return this.heuristic;
+    }
+
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public long getKey() {
+        return this.key;
+    }
+
+    /**
+     * This method return true if the board is one of the goal boards.
+     *
+     * @return - true for a goal board.
+     */
+    public boolean isGoal() {
+        int g = Arrays.binarySearch(this.goalKeys, this.key);
+        if (g < 0) {
+            return false;
+        }
+        if (this.zobrist == null) {     // the key is the board.
+            return true;
+        }
+        while (g > 0 && this.goalKeys[g - 1] == this.key) {
+            g--;
+        }
+        for (; g < this.goalKeys.length && this.goalKeys[g] == this.key; g++) {
+            if (Arrays.equals(this.goalCells[g], this.cells)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method return true if the board already appeared on the path from the start to it.
+     *
+     * @return - true if one of the boards before it on the path has the same key.
+     */
+    public boolean onPath() {
+        for (int d = 0; d < this.depth; d++) {
+            if (this.keyAt[d] == this.key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method count the boards before it on the path from the start that are the same board.
+     *
+     * @return - the number of boards before it on the path with the same key.
+     */
+    public int timesOnPath() {
+        int ans = 0;
+        for (int d = 0; d < this.depth; d++) {
+            if (this.keyAt[d] == this.key) {
+                ans++;
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * This method write all the moves of the board into out, in the order of State.performingOperators
+     * (the moves of two panels, then the moves of the upper/lefter empty panel, then of the other one, each L, U, R, D),
+     * without the move that undoes the last move.
+     *
+     * @param out    - the moves, room for Move.MAX_MOVES from offset.
+     * @param offset - the index of the first move in out.
+     * @return - the number of moves.
+     */
+    public int moves(int[] out, int offset) {
+        return moves(out, offset, false);
+    }
+
+    /**
+     * This method write the moves of the board that moves leaves out because they undo the last move
+     * (none at the start), in the same order.
+     *
+     * @param out    - the moves, room for Move.MAX_MOVES from offset.
+     * @param offset - the index of the first move in out.
+     * @return - the number of moves.
+     */
+    public int undoingMoves(int[] out, int offset) {
+        return moves(out, offset, true);
+    }
+
+    /**
+     * This method write the moves of the board that undo the last move (undoing) or that do not (!undoing).
+     */
+    private int moves(int[] out, int offset, boolean undoing) {
+        int last = this.depth == 0 ? Move.NONE : this.moveAt[this.depth - 1];
+        int n = offset;
+        if (this.blank2 != -1) {
+            int r1 = this.blank1 / this.cols;
+            int c1 = this.blank1 % this.cols;
+            int r2 = this.blank2 / this.cols;
+            int c2 = this.blank2 % this.cols;
+            boolean vertical = Math.abs(r1 - r2) == 1 && c1 == c2;
+            if (vertical || (Math.abs(c1 - c2) == 1 && r1 == r2)) {
+                for (int slide : this.context.slides(this.blank1)) {
+                    int direction = Move.direction(slide);
+                    if ((direction == Move.LEFT || direction == Move.RIGHT) == vertical) {
+                        int from1 = slide >>> 2;
+                        int move = Move.of(direction, this.cells[from1], this.cells[from1 - this.blank1 + this.blank2]);
+                        if (Move.undoes(move, last) == undoing) {
+                            out[n++] = move;
+                        }
+                    }
+                }
+            }
+            boolean firstIsOne = r1 < r2 || (r1 == r2 && c1 < c2);
+            n = singleMoves(out, n, last, firstIsOne ? this.blank1 : this.blank2, undoing);
+            n = singleMoves(out, n, last, firstIsOne ? this.blank2 : this.blank1, undoing);
+        } else {
+            n = singleMoves(out, n, last, this.blank1, undoing);
+        }
+        return n - offset;
+    }
+
+    /**
+     * This method add the moves of one panel into the empty panel blank, in the order L, U, R, D
+     * (the moves that undo the last move, or the moves that do not).
+     */
+    private int singleMoves(int[] out, int n, int last, int blank, boolean undoing) {
+        for (int slide : this.context.slides(blank)) {
+            int num = this.cells[slide >>> 2];
+            if (num != 0) {
+                int move = Move.of(Move.direction(slide), num);
+                if (Move.undoes(move, last) == undoing) {
+                    out[n++] = move;
+                }
+            }
+        }
+        return n;
+    }
+
+    /**
+     * This method perform a move on the board.
+     *
+     * @param move - a move returned by moves.
+     */
+    public void apply(int move) {
+        if (this.depth + 1 == this.keyAt.length) {
+            grow();
+        }
+        int d = this.depth;
+        this.moveAt[d] = move;
+        this.blank1At[d] = this.blank1;
+        this.blank2At[d] = this.blank2;
+        this.costAt[d] = this.cost;
+        this.distanceAt[d] = this.distance;
+        this.conflictsAt[d] = this.conflicts;
+        this.heuristicAt[d] = this.heuristic;
+        int direction = Move.direction(move);
+        int delta = delta(direction);
+        int num1 = Move.number(move);
+        int num2 = Move.second(move);
+        int from1 = this.cellOf[num1];
+        int to1 = from1 + delta;
+        int from2 = num2 == 0 ? -1 : this.cellOf[num2];
+        int to2 = num2 == 0 ? -1 : from2 + delta;
+        boolean patterns = this.context.estimates();
+        int rowA = 0;
+        int rowB = 0;
+        int colA = 0;
+        int colB = 0;
+        if (!patterns) {
+            rowA = from1 / this.cols;
+            colA = from1 % this.cols;
+            int otherFrom = num2 == 0 ? from1 : from2;
+            rowB = to1 / this.cols != rowA ? to1 / this.cols : otherFrom / this.cols;
+            colB = to1 % this.cols != colA ? to1 % this.cols : otherFrom % this.cols;
+            this.conflicts -= this.context.lineConflicts(this.cells, rowA, rowB, colA, colB);
+        }
+        slide(num1, from1, to1);
+        if (num2 == 0) {
+            this.cost += 5;
+            if (this.blank1 == to1) {
+                this.blank1 = from1;
+            } else {        // the second empty panel moved, it becomes the first one.
+                this.blank2 = this.blank1;
+                this.blank1 = from1;
+            }
+        } else {
+            slide(num2, from2, to2);
+            this.cost += direction == Move.LEFT || direction == Move.RIGHT ? 6 : 7;
+            this.blank1 = from1;
+            this.blank2 = from2;
+        }
+        if (patterns) {
+            this.heuristic = this.context.estimate(this.cellOf);
+        } else {
+            this.distance += this.context.distance(num1, to1) - this.context.distance(num1, from1);
+            if (num2 != 0) {
+                this.distance += this.context.distance(num2, to2) - this.context.distance(num2, from2);
+            }
+            if (this.blank2 == -1) {  // the empty panel moved the other way.
+                this.distance += this.context.distance(0, from1) - this.context.distance(0, to1);
+            }
+            this.conflicts += this.context.lineConflicts(this.cells, rowA, rowB, colA, colB);
+            this.heuristic = evaluate();
+        }
+        this.depth++;
+        this.keyAt[this.depth] = this.key;
+    }
+
+    /**
+     * This method undo the last move that was applied.
+     */
+    public void undo() {
+        int d = --this.depth;
+        int move = this.moveAt[d];
+        int delta = delta(Move.direction(move));
+        int num1 = Move.number(move);
+        int num2 = Move.second(move);
+        int at1 = this.cellOf[num1];
+        slide(num1, at1, at1 - delta);
+        if (num2 != 0) {
+            int at2 = this.cellOf[num2];
+            slide(num2, at2, at2 - delta);
+        }
+        this.blank1 = this.blank1At[d];
+        this.blank2 = this.blank2At[d];
+        this.cost = this.costAt[d];
+        this.distance = this.distanceAt[d];
+        this.conflicts = this.conflictsAt[d];
+        this.heuristic = this.heuristicAt[d];
+        this.key = this.keyAt[d];
+    }
+
+    /**
+     * This method move the number num from the panel "from" to the empty panel "to", and update the key.
+     */
+    private void slide(int num, int from, int to) {
+        this.cells[to] = num;
+        this.cells[from] = 0;
+        this.cellOf[num] = to;
+        if (this.zobrist == null) {
+            this.key = (this.key & ~(0xFL << (from << 2))) | ((long) num << (to << 2));
+        } else {
+            this.key ^= this.zobrist[from * 256 + num] ^ this.zobrist[to * 256 + num];
+        }
+    }
+
+    /**
+     * This method double the undo stack.
+     */
+    private void grow() {
+        int length = this.keyAt.length * 2;
+        this.moveAt = Arrays.copyOf(this.moveAt, length);
+        this.blank1At = Arrays.copyOf(this.blank1At, length);
+        this.blank2At = Arrays.copyOf(this.blank2At, length);
+        this.costAt = Arrays.copyOf(this.costAt, length);
+        this.distanceAt = Arrays.copyOf(this.distanceAt, length);
+        this.conflictsAt = Arrays.copyOf(this.conflictsAt, length);
+        this.heuristicAt = Arrays.copyOf(this.heuristicAt, length);
+        this.keyAt = Arrays.copyOf(this.keyAt, length);
+    }
+
+    /**
+     * This method return the change of the panel index of a move in the direction.
+     */
+    private int delta(int direction) {
+        switch (direction) {
+            case Move.LEFT:
+                return -1;
+            case Move.RIGHT:
+                return 1;
+            case Move.UP:
+                return -this.cols;
+            default:
+                return this.cols;
+        }
+    }
+
+    /**
+     * This method compute the heuristic from the distance and the conflicts fields (see ProblemContext.evaluate).
+     *
+     * @return - h(board).
+     */
+    private int evaluate() {
+        return this.context.evaluate(this.distance, this.conflicts, this.blank2 != -1);
+    }
+
+    /**
+     * This method return the path from the start to the board, like "4L-3&7U-2D".
+     *
+     * @return - the moves on the path.
+     */
+    public String path() {
+        return Move.join(this.moveAt, this.depth);
+    }
+
+    /**
+     * This method return the boards on the path from the start to the board (for the print of the open list).
+     *
+     * @return - the panels of the boards, the start first.
+     */
+    public int[][] pathBoards() {
+        int[][] ans = new int[this.depth + 1][];
+        int[] panels = this.cells.clone();
+        int[] places = this.cellOf.clone();
+        for (int d = this.depth; d >= 0; d--) {
+            ans[d] = panels.clone();
+            if (d > 0) {
+                int move = this.moveAt[d - 1];
+                int delta = delta(Move.direction(move));
+                unslide(panels, places, Move.number(move), delta);
+                unslide(panels, places, Move.second(move), delta);
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * This method move the number back on a copy of the panels (0 is not a number of a move).
+     */
+    private static void unslide(int[] panels, int[] places, int num, int delta) {
+        if (num != 0) {
+            panels[places[num]] = 0;
+            places[num] -= delta;
+            panels[places[num]] = num;
+        }
+    }
+
+    /**
+     * This method print the panels in the format of the board print.
+     */
+    private String text(int[] panels) {
+        StringBuilder s = new StringBuilder();
+        for (int k = 0; k < panels.length; k++) {
+            if (k % this.cols == 0) {
+                s.append('\n');
+            }
+            s.append(panels[k]).append('\t');
+        }
+        return s.toString();
+    }
+
+    @Override
+    public String toString() {
+        return text(this.cells);
+    }
+
+}
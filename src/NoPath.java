@@ -0,0 +1,34 @@
+import java.util.Vector;
+
+/**
+ * This class represents the answer of an instance that the analysis proved has no path (see Analysis):
+ * it answers "no path" without searching.
+ */
+public class NoPath extends Algo {
+
+    /**
+     * This class has one field:
+     *
+     * @param reason - why the instance has no path.
+     */
+    private final String reason;
+
+    /**
+     * constructor.
+     *
+     * @param reason - why the instance has no path.
+     */
+    protected NoPath(String reason) {
+        super(null, new Vector<>(), false);
+        this.reason = reason;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    @Override
+    public String Algo() {
+        return noPath();
+    }
+}
@@ -0,0 +1,337 @@
+import java.util.Arrays;
+
+/**
+ * This class represents a compact, immutable board of the tile-NxM game.
+ * Boards with up to 16 panels whose numbers fit in 4 bits are packed into a single long (one nibble per panel),
+ * bigger boards are packed into a byte array (one byte per panel).
+ * The 64-bit hash is computed once when the board is created, so the board can be used as the identity key
+ * of a state in the open and closed lists instead of the String of the board.
+ *
+ * @Author Liav Weiss.
+ */
+public final class PackedBoard {
+
+    /**
+     * This class has five fields:
+     *
+     * @param rows - The number of rows on the board.
+     * @param cols - The number of cols on the board.
+     * @param bits - The nibble-packed panels, panel k is stored in bits [4k, 4k+4) (used when cells == null).
+     * @param cells - The byte-packed panels, panel k is stored in cells[k] (null for nibble-packed boards).
+     * @param hash - The precomputed 64-bit hash of the panels.
+     */
+    private final int rows;
+    private final int cols;
+    private final long bits;
+    private final byte[] cells;
+    private final long hash;
+
+    /**
+     * Constructor for a nibble-packed board.
+     */
+    private PackedBoard(int rows, int cols, long bits) {
+        this.rows = rows;
+        this.cols = cols;
+        this.bits = bits;
+        this.cells = null;
+        this.hash = mix(bits);
+    }
+
+    /**
+     * Constructor for a byte-packed board.
+     */
+    private PackedBoard(int rows, int cols, byte[] cells) {
+        this.rows = rows;
+        this.cols = cols;
+        this.bits = 0;
+        this.cells = cells;
+        this.hash = hashBytes(cells);
+    }
+
+    /**
+     * This method packs the given board.
+     *
+     * @param board - the board, 0 is an empty panel.
+     * @return - the packed board.
+     */
+    public static PackedBoard of(int[][] board) {
+        int rows = board.length;
+        int cols = board[0].length;
+        boolean nibble = rows * cols <= 16;
+        for (int[] row : board) {
+            for (int num : row) {
+                if (num < 0 || num > 255) {
+                    throw new IllegalArgumentException("panel number out of range: " + num);
+                }
+                if (num > 15) {
+                    nibble = false;
+                }
+            }
+        }
+        if (nibble) {
+            long bits = 0;
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < cols; j++) {
+                    bits |= ((long) board[i][j]) << ((i * cols + j) << 2);
+                }
+            }
+            return new PackedBoard(rows, cols, bits);
+        }
+        byte[] cells = new byte[rows * cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                cells[i * cols + j] = (byte) board[i][j];
+            }
+        }
+        return new PackedBoard(rows, cols, cells);
+    }
+
+    /**
+     * This method return the number of rows on the board.
+     *
+     * @return - rows.
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * This method return the number of cols on the board.
+     *
+     * @return - cols.
+     */
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * This method return the number of panels on the board.
+     *
+     * @return - rows * cols.
+     */
+    public int size() {
+        return this.rows * this.cols;
+    }
+
+    /**
+     * This method return the number in the given panel.
+     *
+     * @param i - the row.
+     * @param j - the col.
+     * @return - the number, 0 for an empty panel.
+     */
+    public int get(int i, int j) {
+        return get(i * this.cols + j);
+    }
+
+    /**
+     * This method return the number in the given panel.
+     *
+     * @param cell - the panel index (row * cols + col).
+     * @return - the number, 0 for an empty panel.
+     */
+    public int get(int cell) {
+        if (this.cells == null) {
+            return (int) (this.bits >>> (cell << 2)) & 0xF;
+        }
+        return this.cells[cell] & 0xFF;
+    }
+
+    /**
+     * This method return a new board after sliding the panel in "from" into the empty panel "to".
+     *
+     * @param from - the index of the moving panel.
+     * @param to   - the index of the empty panel.
+     * @return - the new board.
+     */
+    public PackedBoard slide(int from, int to) {
+        if (this.cells == null) {
+            long num = (this.bits >>> (from << 2)) & 0xFL;
+            long moved = (this.bits & ~(0xFL << (from << 2))) | (num << (to << 2));
+            return new PackedBoard(this.rows, this.cols, moved);
+        }
+        byte[] moved = this.cells.clone();
+        moved[to] = moved[from];
+        moved[from] = 0;
+        return new PackedBoard(this.rows, this.cols, moved);
+    }
+
+    /**
+     * This method return a new board after sliding two panels together into the two empty panels.
+     *
+     * @param from1 - the index of the first moving panel.
+     * @param to1   - the index of the first empty panel.
+     * @param from2 - the index of the second moving panel.
+     * @param to2   - the index of the second empty panel.
+     * @return - the new board.
+     */
+    public PackedBoard slide(int from1, int to1, int from2, int to2) {
+        if (this.cells == null) {
+            long num1 = (this.bits >>> (from1 << 2)) & 0xFL;
+            long num2 = (this.bits >>> (from2 << 2)) & 0xFL;
+            long moved = this.bits & ~(0xFL << (from1 << 2)) & ~(0xFL << (from2 << 2));
+            moved |= (num1 << (to1 << 2)) | (num2 << (to2 << 2));
+            return new PackedBoard(this.rows, this.cols, moved);
+        }
+        byte[] moved = this.cells.clone();
+        moved[to1] = moved[from1];
+        moved[from1] = 0;
+        moved[to2] = moved[from2];
+        moved[from2] = 0;
+        return new PackedBoard(this.rows, this.cols, moved);
+    }
+
+    /**
+     * This method return true if the board is packed into a single long.
+     *
+     * @return - true for nibble-packed boards, false for byte-packed boards.
+     */
+    public boolean isNibblePacked() {
+        return this.cells == null;
+    }
+
+    /**
+     * This method return the nibble-packed panels (only meaningful when isNibblePacked() is true).
+     *
+     * @return - the packed long.
+     */
+    public long getBits() {
+        return this.bits;
+    }
+
+    /**
+     * This method copy the byte-packed panels into dest (works for both packings).
+     *
+     * @param dest   - the destination array.
+     * @param offset - the index in dest of the first panel.
+     */
+    public void copyTo(byte[] dest, int offset) {
+        if (this.cells != null) {
+            System.arraycopy(this.cells, 0, dest, offset, this.cells.length);
+        } else {
+            for (int k = 0; k < size(); k++) {
+                dest[offset + k] = (byte) get(k);
+            }
+        }
+    }
+
+    /**
+     * This method copy the panels into dest as ints (works for both packings).
+     *
+     * @param dest   - the destination array.
+     * @param offset - the index in dest of the first panel.
+     */
+    public void copyTo(int[] dest, int offset) {
+        for (int k = 0; k < size(); k++) {
+            dest[offset + k] = get(k);
+        }
+    }
+
+    /**
+     * This method compare the panels with the byte-span src[offset, offset + size()).
+     *
+     * @param src    - the source array.
+     * @param offset - the index in src of the first panel.
+     * @return - true if all the panels are equal.
+     */
+    public boolean equalsBytes(byte[] src, int offset) {
+        for (int k = 0; k < size(); k++) {
+            if (src[offset + k] != (byte) get(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * This method return the board as a two dimensional array.
+     *
+     * @return - new board array.
+     */
+    public int[][] toArray() {
+        int[][] ans = new int[this.rows][this.cols];
+        for (int i = 0; i < this.rows; i++) {
+            for (int j = 0; j < this.cols; j++) {
+                ans[i][j] = get(i, j);
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * This method return the 64-bit hash of the board.
+     *
+     * @return - the hash.
+     */
+    public long hash64() {
+        return this.hash;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (this.hash ^ (this.hash >>> 32));
+    }
+
+    /**
+     * This method Override the equals method, two boards are equal if all their panels are equal.
+     *
+     * @return - true if the boards are equal.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof PackedBoard)) return false;
+        PackedBoard other = (PackedBoard) o;
+        if (this.hash != other.hash || this.rows != other.rows || this.cols != other.cols) return false;
+        if (this.cells == null && other.cells == null) return this.bits == other.bits;
+        if (this.cells != null && other.cells != null) return Arrays.equals(this.cells, other.cells);
+        for (int k = 0; k < size(); k++) {
+            if (get(k) != other.get(k)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * This method print the board (same format as the open list print).
+     *
+     * @return - String of the board.
+     */
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder(size() * 3 + this.rows);
+        for (int i = 0; i < this.rows; i++) {
+            s.append('\n');
+            for (int j = 0; j < this.cols; j++) {
+                s.append(get(i, j)).append('\t');
+            }
+        }
+        return s.toString();
+    }
+
+    /**
+     * This method scramble the bits of a long (splitmix64 finalizer).
+     *
+     * @param z - the long.
+     * @return - the hash.
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * This method hash a byte-packed board (FNV-1a followed by mix).
+     *
+     * @param cells - the panels.
+     * @return - the hash.
+     */
+    private static long hashBytes(byte[] cells) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : cells) {
+            h ^= (b & 0xFF);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+}
@@ -0,0 +1,203 @@
+import java.util.ArrayList;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hash-distributed A* (HDA*): the states are split between worker threads by the hash of their board.
+ * Every worker owns the open and closed lists of its part of the state space, expands its best state, and sends
+ * every generated state to the inbox of its owner (a lock-free queue).
+ * A goal found by a worker is only an incumbent: the search ends when no worker has a state with f smaller than the
+ * incumbent cost and no state is on its way between workers, then the incumbent is optimal (for an admissible heuristic).
+ * To detect that moment, one counter holds the number of busy workers plus the number of states sent and not yet received.
+ */
+public class ParallelAStar extends Algo {
+
+    /**
+     * This class has three fields:
+     *
+     * @param threads - the number of worker threads.
+     * @param work - busy workers + states in the inboxes, the search is over when it is 0.
+     * @param incumbent - the best goal state found so far.
+     */
+    private final int threads;
+    private final AtomicLong work = new AtomicLong();
+    private final AtomicReference<State> incumbent = new AtomicReference<>();
+
+    /**
+     * constructor.
+     *
+     * @param initialState - The initial state of the game.
+     * @param g - A vector containing all the target states that need to be reached (at least one of them).
+     * @param withOpen - flag if print the open list or not (not supported, the open list is split between threads).
+     * @param threads - the number of worker threads.
+     */
+    protected ParallelAStar(State initialState, Vector<State> g, boolean withOpen, int threads) {
+        super(initialState, g, withOpen);
+        this.threads = Math.max(1, threads);
+    }
+
+    @Override
+    public String Algo() {
+        Worker[] workers = new Worker[this.threads];
+        for (int k = 0; k < this.threads; k++) {
+            workers[k] = new Worker(k, workers);
+        }
+        this.work.set(this.threads + 1);   // every worker starts busy, +1 for the initial state.
+        workers[owner(initialState.getBoard())].inbox.add(initialState);
+        Thread[] running = new Thread[this.threads];
+        for (int k = 0; k < this.threads; k++) {
+            running[k] = new Thread(workers[k], "hda-" + k);
+            running[k].start();
+        }
+        for (Thread thread : running) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        for (Worker worker : workers) {
+            stats.add(worker.counts);
+        }
+        if (isCancelled()) {
+            return cancelled();
+        }
+        State best = this.incumbent.get();
+        if (best == null) {
+            return noPath();
+        }
+        return print(best);
+    }
+
+    /**
+     * This method return the worker that owns the board (by the high bits of its hash, the low bits are used by StateTable).
+     *
+     * @param board - the board.
+     * @return - the worker index.
+     */
+    private int owner(PackedBoard board) {
+        return (int) (((board.hash64() >>> 32) * this.threads) >>> 32);
+    }
+
+    /**
+     * This method return the cost of the incumbent.
+     *
+     * @return - the cost, Integer.MAX_VALUE if no goal was found yet.
+     */
+    private int incumbentCost() {
+        State best = this.incumbent.get();
+        return best == null ? Integer.MAX_VALUE : best.getCost();
+    }
+
+    /**
+     * This class represents one worker thread and its part of the state space.
+     */
+    private final class Worker implements Runnable {
+        private final int id;
+        private final Worker[] workers;
+        private final ConcurrentLinkedQueue<State> inbox = new ConcurrentLinkedQueue<>();
+        private final ArrayList<State> nodes = new ArrayList<>();
+        private final StateTable seen = new StateTable();
+        private final IndexedHeap open = new IndexedHeap();
+        private final SearchStats counts = new SearchStats("worker");   // added to the statistics of the search at the end.
+
+        Worker(int id, Worker[] workers) {
+            this.id = id;
+            this.workers = workers;
+        }
+
+        @Override
+        public void run() {
+            boolean busy = true;
+            while (true) {
+                if (isCancelled()) {
+                    return;
+                }
+                State received = this.inbox.poll();
+                if (received != null) {
+                    if (!busy) {
+                        work.incrementAndGet();   // busy again before the message stops being counted.
+                        busy = true;
+                    }
+                    offer(received);
+                    work.decrementAndGet();
+                    continue;
+                }
+                if (!this.open.isEmpty() && this.open.peekF() < incumbentCost()) {
+                    if (!busy) {
+                        work.incrementAndGet();
+                        busy = true;
+                    }
+                    expand(this.nodes.get(this.open.poll()));
+                    continue;
+                }
+                if (busy) {
+                    busy = false;
+                    work.decrementAndGet();
+                }
+                if (work.get() == 0) {
+                    return;
+                }
+                LockSupport.parkNanos(1000);
+            }
+        }
+
+        /**
+         * This method add a state to the open list of this worker, or lower its cost if a better path was found.
+         */
+        private void offer(State s) {
+            int f = s.getCost() + s.getHeuristic();  // f(s) = g(s) + h(s)
+            this.counts.evaluate();
+            if (f >= incumbentCost()) {
+                return;
+            }
+            int node = this.seen.get(s.getBoard());
+            if (node == -1) {
+                this.nodes.add(s);
+                node = this.nodes.size() - 1;
+                this.seen.put(s.getBoard(), node);
+                this.open.add(node, f, s.getCost());
+                this.counts.open(this.open.size());
+            } else if (s.getCost() < this.nodes.get(node).getCost()) {
+                this.nodes.set(node, s);
+                if (this.open.contains(node)) {
+                    this.open.decreaseKey(node, f, s.getCost());
+                } else {
+                    this.open.add(node, f, s.getCost());   // reopen a closed state.
+                    this.counts.reopen();
+                }
+            } else {
+                this.counts.duplicate();
+            }
+        }
+
+        /**
+         * This method expand a state, a goal state becomes the incumbent if it is better.
+         */
+        private void expand(State s) {
+            if (goalBoards.contains(s.getBoard())) {
+                State best = incumbent.get();
+                while ((best == null || s.getCost() < best.getCost()) && !incumbent.compareAndSet(best, s)) {
+                    best = incumbent.get();
+                }
+                return;
+            }
+            this.counts.expand();
+            this.counts.closed(this.seen.size() - this.open.size());
+            ArrayList<State> arrState = s.performingOperators(s.getBoard(), s.getI1(), s.getJ1(), s.getI2(), s.getJ2());
+            for (State operator : arrState) {
+                this.counts.generate();
+                int to = owner(operator.getBoard());
+                if (to == this.id) {
+                    offer(operator);
+                } else if (operator.getCost() + operator.getHeuristic() < incumbentCost()) {
+                    work.incrementAndGet();
+                    this.workers[to].inbox.add(operator);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,205 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This algorithm is IDA* where every iteration runs on a ForkJoinPool: the search tree is split into tasks at the
+ * shallow levels (and deeper, while the workers are short of work), and idle workers steal tasks from busy ones.
+ * The threshold of the next iteration is the minimum f that exceeded the current one, kept with an atomic min.
+ * With an admissible heuristic any goal found in an iteration costs exactly the threshold, which is optimal (nothing was
+ * found below it in the last iteration), so the first goal found cancels all the tasks.
+ * Duplicates are pruned along the path of every state (as in IDA*, the stack holds only the path).
+ * Every task searches a MutableBoard of its own with apply/undo (a copy of the board of its parent task, with the path).
+ */
+public class ParallelIDAStar extends Algo {
+
+    /**
+     * Tasks are always split up to this depth, and up to MAX_SPLIT_DEPTH when the worker has few queued tasks.
+     */
+    private static final int MIN_SPLIT_DEPTH = 4;
+    private static final int MAX_SPLIT_DEPTH = 32;
+
+    /**
+     * This class has six fields:
+     *
+     * @param threads - the number of worker threads.
+     * @param generated - the number of generated states of all the tasks.
+     * @param expanded - the number of expanded states of all the tasks.
+     * @param duplicates - the number of states of all the tasks that were pruned because they were on their path.
+     * @param nextThreshold - the minimum f that exceeded the threshold of this iteration.
+     * @param solution - a copy of the goal board (with its path), set once and then all the tasks stop.
+     */
+    private final int threads;
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder expanded = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+    private final AtomicInteger nextThreshold = new AtomicInteger();
+    private final AtomicReference<MutableBoard> solution = new AtomicReference<>();
+
+    /**
+     * constructor.
+     *
+     * @param initialState - The initial state of the game.
+     * @param g - A vector containing all the target states that need to be reached (at least one of them).
+     * @param withOpen - flag if print the open list or not (not supported, the stack is split between threads).
+     * @param threads - the number of worker threads.
+     */
+    protected ParallelIDAStar(State initialState, Vector<State> g, boolean withOpen, int threads) {
+        super(initialState, g, withOpen);
+        this.threads = Math.max(1, threads);
+    }
+
+    @Override
+    public String Algo() {
+        MutableBoard start = new MutableBoard(initialState, goals);
+        if (start.isGoal()) {
+            return print(start);
+        }
+        int infinity = Integer.MAX_VALUE;
+        int t = start.getHeuristic();
+        ForkJoinPool pool = new ForkJoinPool(this.threads);
+        try {
+            while (t != infinity && this.solution.get() == null && !isCancelled()) {
+                threshold(t);
+                stats.phase("iteration " + t);
+                this.nextThreshold.set(infinity);
+                pool.invoke(new Search(new MutableBoard(start), t));
+                t = this.nextThreshold.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        stats.generate(this.generated.sum());
+        stats.expand(this.expanded.sum());
+        stats.evaluate(this.generated.sum());   // every generated state is checked against the threshold.
+        stats.duplicate(this.duplicates.sum());
+        if (isCancelled() && this.solution.get() == null) {
+            return cancelled();
+        }
+        if (this.solution.get() == null) {
+            return noPath();
+        }
+        return print(this.solution.get());
+    }
+
+    /**
+     * This class represents the task of searching the subtree of one board up to the threshold.
+     */
+    private final class Search extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final MutableBoard board;
+        private final int t;
+        private int minF = Integer.MAX_VALUE;
+        private long count;
+        private long expandedCount;
+        private long duplicateCount;
+
+        /**
+         * constructor.
+         *
+         * @param board - the root of the subtree, a board of the task alone.
+         * @param t     - the threshold of this iteration.
+         */
+        Search(MutableBoard board, int t) {
+            this.board = board;
+            this.t = t;
+        }
+
+        @Override
+        protected void compute() {
+            if (solution.get() == null && !isCancelled()) {
+                int depth = this.board.getDepth();
+                boolean split = depth < MIN_SPLIT_DEPTH || (depth < MAX_SPLIT_DEPTH && getSurplusQueuedTaskCount() < 2);
+                if (split) {
+                    int[] moves = new int[Move.MAX_MOVES];
+                    int n = children(moves, 0);
+                    List<Search> tasks = new ArrayList<>(n);
+                    for (int k = 0; k < n; k++) {
+                        MutableBoard child = new MutableBoard(this.board);
+                        child.apply(moves[k]);
+                        tasks.add(new Search(child, this.t));
+                    }
+                    invokeAll(tasks);
+                } else {
+                    dfs();
+                }
+            }
+            generated.add(this.count);
+            expanded.add(this.expandedCount);
+            duplicates.add(this.duplicateCount);
+            if (this.minF != Integer.MAX_VALUE) {
+                nextThreshold.accumulateAndGet(this.minF, Math::min);
+            }
+        }
+
+        /**
+         * This method search the subtree of the board in this task, depth-first with apply/undo (the moves of every
+         * depth are kept in one int array, the stack of the search, Move.MAX_MOVES for each depth).
+         */
+        private void dfs() {
+            int[] moves = new int[16 * Move.MAX_MOVES];
+            int[] next = new int[16];
+            int[] end = new int[16];
+            int d = 0;
+            end[0] = children(moves, 0);
+            while (solution.get() == null && !isCancelled()) {
+                if (next[d] == end[d]) {
+                    if (d == 0) {
+                        return;
+                    }
+                    this.board.undo();
+                    d--;
+                    continue;
+                }
+                this.board.apply(moves[next[d]++]);
+                d++;
+                if ((d + 1) * Move.MAX_MOVES > moves.length) {
+                    moves = Arrays.copyOf(moves, moves.length * 2);
+                    next = Arrays.copyOf(next, next.length * 2);
+                    end = Arrays.copyOf(end, end.length * 2);
+                }
+                int offset = d * Move.MAX_MOVES;
+                next[d] = offset;
+                end[d] = offset + children(moves, offset);
+            }
+        }
+
+        /**
+         * This method write the moves of the board that should be searched into out: f(child) <= t and not on the path.
+         * A goal child ends the search.
+         *
+         * @param out    - the moves, room for Move.MAX_MOVES from offset.
+         * @param offset - the index of the first move in out.
+         * @return - the number of moves.
+         */
+        private int children(int[] out, int offset) {
+            this.expandedCount++;
+            int count = this.board.moves(out, offset);
+            int n = offset;
+            for (int k = offset; k < offset + count; k++) {
+                this.count++;
+                this.board.apply(out[k]);
+                int funcOperator = this.board.getCost() + this.board.getHeuristic(); // f(operator) = g(operator) + h(operator)
+                if (funcOperator > this.t) {
+                    this.minF = Math.min(this.minF, funcOperator);
+                } else if (this.board.onPath()) {
+                    this.duplicateCount++;
+                } else if (this.board.isGoal()) {
+                    solution.compareAndSet(null, new MutableBoard(this.board));
+                    this.board.undo();
+                    return 0;
+                } else {
+                    out[n++] = out[k];
+                }
+                this.board.undo();
+            }
+            return n - offset;
+        }
+    }
+}
@@ -0,0 +1,619 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents a disjoint additive pattern database heuristic.
+ * The numbers of the goal board are split into disjoint patterns. For every pattern we search backward (from the goal)
+ * over the abstract space where only the places of the pattern numbers and of the empty panels are known, and store
+ * for every placement of the pattern numbers the cheapest cost to bring them to their goal places (one byte per entry).
+ * The heuristic of a board is the sum of the entries of all the patterns.
+ *
+ * The cost model of the game is kept in the abstract space, and every move is charged so the sum over the patterns
+ * never exceeds the real cost:
+ * moving one number - 5 to its pattern.
+ * moving two numbers together (6 horizontal, 7 vertical) - the full cost if both are in the pattern,
+ * 3 if only one of them is in the pattern (the other half is charged by the pattern of the second number).
+ * moving numbers of other patterns - 0.
+ *
+ * Each pattern is saved to a file in the given directory and loaded again with memory-mapped I/O,
+ * so only the first run on a goal pays the build.
+ *
+ * @Author Liav Weiss.
+ */
+public final class PatternDatabase {
+
+    /**
+     * The first int of every pattern database file.
+     */
+    private static final int MAGIC = 0x50444231; // "PDB1"
+
+    /**
+     * The biggest number of abstract states the automatic partition allows for one pattern.
+     */
+    private static final long AUTO_LIMIT = 16_000_000L;
+
+    /**
+     * This class has five fields:
+     *
+     * @param dir - The directory of the pattern database files.
+     * @param cells - The number of panels on the board.
+     * @param patterns - patterns[p] is the numbers of pattern p.
+     * @param tables - tables[p] is the (memory-mapped) table of pattern p, one unsigned byte per placement rank.
+     * @param patternOf - patternOf[num] = p * 256 + (index of num in pattern p), -1 for numbers out of the patterns.
+     */
+    private final File dir;
+    private final int cells;
+    private final int[][] patterns;
+    private final ByteBuffer[] tables;
+    private final int[] patternOf;
+
+    /**
+     * constructor.
+     */
+    private PatternDatabase(File dir, int cells, int[][] patterns, ByteBuffer[] tables) {
+        this.dir = dir;
+        this.cells = cells;
+        this.patterns = patterns;
+        this.tables = tables;
+        this.patternOf = new int[256];
+        Arrays.fill(this.patternOf, -1);
+        for (int p = 0; p < patterns.length; p++) {
+            for (int k = 0; k < patterns[p].length; k++) {
+                this.patternOf[patterns[p][k]] = p * 256 + k;
+            }
+        }
+    }
+
+    /**
+     * This method load the pattern database of the goal board from dir, the missing patterns are built and saved first.
+     *
+     * @param goal      - the goal board, 0 is an empty panel.
+     * @param partition - the partition of the numbers: "auto", sizes like "5-5-5", or numbers like "1,2,3/4,5,6".
+     * @param dir       - the directory of the pattern database files.
+     * @return - the pattern database.
+     * @throws IOException - if a file cannot be read or written.
+     */
+    public static PatternDatabase load(int[][] goal, String partition, File dir) throws IOException {
+        int rows = goal.length;
+        int cols = goal[0].length;
+        int cells = rows * cols;
+        if (cells > 64) {
+            throw new IllegalArgumentException("pattern databases support boards of up to 64 panels");
+        }
+        int[][] patterns = partition(goal, partition);
+        ByteBuffer[] tables = new ByteBuffer[patterns.length];
+        Files.createDirectories(dir.toPath());
+        for (int p = 0; p < patterns.length; p++) {
+            Path file = dir.toPath().resolve(fileName(goal, patterns[p]));
+            tables[p] = map(file, rows, cols, patterns[p]);
+            if (tables[p] == null) {
+                byte[] table = build(goal, patterns[p]);
+                write(file, rows, cols, patterns[p], table);
+                tables[p] = map(file, rows, cols, patterns[p]);
+            }
+        }
+        return new PatternDatabase(dir, cells, patterns, tables);
+    }
+
+    /**
+     * This method load the pattern database of the same patterns for another goal board, from the same directory (the
+     * backward search of BiA* measures its heuristic to the start board).
+     *
+     * @param goal - the other goal board, with the same numbers.
+     * @return - the pattern database of the goal.
+     * @throws IOException - if a file cannot be read or written.
+     */
+    public PatternDatabase toGoal(int[][] goal) throws IOException {
+        StringBuilder partition = new StringBuilder();
+        for (int[] pattern : this.patterns) {
+            if (partition.length() > 0) {
+                partition.append('/');
+            }
+            for (int k = 0; k < pattern.length; k++) {
+                partition.append(k == 0 ? "" : ",").append(pattern[k]);
+            }
+        }
+        return load(goal, partition.toString(), this.dir);
+    }
+
+    /**
+     * This method return the heuristic of the board: the sum of the entries of all the patterns.
+     *
+     * @param board - the board.
+     * @return - h(board).
+     */
+    public int estimate(PackedBoard board) {
+        int[] cellOf = new int[256];
+        for (int cell = 0; cell < this.cells; cell++) {
+            cellOf[board.get(cell)] = cell;
+        }
+        return estimate(cellOf);
+    }
+
+    /**
+     * This method return the heuristic of the board given by the panel of every number.
+     *
+     * @param cellOf - cellOf[num] is the panel index of num.
+     * @return - h(board).
+     */
+    public int estimate(int[] cellOf) {
+        int ans = 0;
+        for (int p = 0; p < this.patterns.length; p++) {
+            int[] pattern = this.patterns[p];
+            long used = 0;
+            int rank = 0;
+            for (int k = 0; k < pattern.length; k++) {
+                int cell = cellOf[pattern[k]];
+                rank = rank * (this.cells - k) + cell - Long.bitCount(used & ((1L << cell) - 1));
+                used |= 1L << cell;
+            }
+            ans += this.tables[p].get(rank) & 0xFF;
+        }
+        return ans;
+    }
+
+    /**
+     * This method return the pattern of the number.
+     *
+     * @param num - the number.
+     * @return - the pattern index, -1 if the number is out of the patterns.
+     */
+    public int patternOf(int num) {
+        return this.patternOf[num] < 0 ? -1 : this.patternOf[num] / 256;
+    }
+
+    /**
+     * This method return the numbers of every pattern.
+     *
+     * @return - copy of the patterns.
+     */
+    public int[][] getPatterns() {
+        int[][] ans = new int[this.patterns.length][];
+        for (int p = 0; p < ans.length; p++) {
+            ans[p] = this.patterns[p].clone();
+        }
+        return ans;
+    }
+
+    /**
+     * This method split the numbers of the goal board into disjoint patterns.
+     *
+     * @param goal - the goal board.
+     * @param spec - "auto", sizes like "5-5-5" (numbers are taken in increasing order), or numbers like "1,2,3/4,5,6".
+     * @return - the patterns.
+     */
+    static int[][] partition(int[][] goal, String spec) {
+        List<Integer> numbers = new ArrayList<>();
+        int empty = 0;
+        for (int[] row : goal) {
+            for (int num : row) {
+                if (num == 0) {
+                    empty++;
+                } else {
+                    numbers.add(num);
+                }
+            }
+        }
+        numbers.sort(null);
+        int cells = goal.length * goal[0].length;
+        List<int[]> ans = new ArrayList<>();
+        if (spec.contains("/") || spec.contains(",")) {
+            for (String group : spec.split("/")) {
+                String[] nums = group.trim().split(",");
+                int[] pattern = new int[nums.length];
+                for (int k = 0; k < nums.length; k++) {
+                    pattern[k] = Integer.parseInt(nums[k].trim());
+                    if (!numbers.contains(pattern[k])) {
+                        throw new IllegalArgumentException("number " + pattern[k] + " is not on the goal board");
+                    }
+                }
+                ans.add(pattern);
+            }
+        } else {
+            List<Integer> sizes = new ArrayList<>();
+            if (spec.equals("auto")) {
+                int size = 1;
+                while (size < numbers.size() && abstractStates(cells, size + 1, empty) <= AUTO_LIMIT) {
+                    size++;
+                }
+                for (int left = numbers.size(); left > 0; left -= size) {
+                    sizes.add(Math.min(size, left));
+                }
+            } else {
+                for (String size : spec.split("-")) {
+                    sizes.add(Integer.parseInt(size.trim()));
+                }
+            }
+            int next = 0;
+            for (int size : sizes) {
+                if (next + size > numbers.size()) {
+                    throw new IllegalArgumentException("the partition " + spec + " has more numbers than the board");
+                }
+                int[] pattern = new int[size];
+                for (int k = 0; k < size; k++) {
+                    pattern[k] = numbers.get(next++);
+                }
+                ans.add(pattern);
+            }
+        }
+        boolean[] seen = new boolean[256];
+        for (int[] pattern : ans) {
+            for (int num : pattern) {
+                if (seen[num]) {
+                    throw new IllegalArgumentException("number " + num + " is in two patterns");
+                }
+                seen[num] = true;
+            }
+        }
+        return ans.toArray(new int[0][]);
+    }
+
+    /**
+     * This method return the number of abstract states of a pattern: placements of the numbers times places of the empty panels.
+     */
+    private static long abstractStates(int cells, int size, int empty) {
+        return permutations(cells, size) * (empty == 2 ? (long) cells * (cells - 1) / 2 : cells);
+    }
+
+    /**
+     * This method return n * (n - 1) * ... * (n - k + 1).
+     */
+    private static long permutations(int n, int k) {
+        long ans = 1;
+        for (int i = 0; i < k; i++) {
+            ans *= n - i;
+        }
+        return ans;
+    }
+
+    /**
+     * This method build the table of one pattern with a backward uniform-cost search (Dial's buckets, the costs are 0-7)
+     * from the goal over the abstract space, then keep for every placement the minimum over the places of the empty panels.
+     *
+     * @param goal    - the goal board.
+     * @param pattern - the numbers of the pattern.
+     * @return - the table, one unsigned byte (capped at 254) per placement rank.
+     */
+    static byte[] build(int[][] goal, int[] pattern) {
+        int rows = goal.length;
+        int cols = goal[0].length;
+        int n = rows * cols;
+        int k = pattern.length;
+        int[] goalPos = new int[k];
+        int[] goalEmpty = new int[2];
+        int empty = 0;
+        for (int cell = 0; cell < n; cell++) {
+            int num = goal[cell / cols][cell % cols];
+            if (num == 0) {
+                goalEmpty[empty++] = cell;
+            }
+            for (int s = 0; s < k; s++) {
+                if (pattern[s] == num) {
+                    goalPos[s] = cell;
+                }
+            }
+        }
+        if (empty < 1 || empty > 2) {
+            throw new IllegalArgumentException("the goal board must have one or two empty panels");
+        }
+        long placementsLong = permutations(n, k);
+        int blanks = empty == 2 ? n * (n - 1) / 2 : n;
+        if (placementsLong * blanks > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("the pattern " + Arrays.toString(pattern) + " is too big");
+        }
+        int placements = (int) placementsLong;
+        // index of the pair of empty panels (a < b).
+        int[][] pairIndex = new int[n][n];
+        int[] pairA = new int[blanks];
+        int[] pairB = new int[blanks];
+        if (empty == 2) {
+            int index = 0;
+            for (int a = 0; a < n; a++) {
+                for (int b = a + 1; b < n; b++) {
+                    pairIndex[a][b] = index;
+                    pairIndex[b][a] = index;
+                    pairA[index] = a;
+                    pairB[index] = b;
+                    index++;
+                }
+            }
+        }
+        int states = placements * blanks;
+        byte[] dist = new byte[states];
+        Arrays.fill(dist, (byte) -1);
+        long[] settled = new long[(states + 63) >>> 6];
+        IntQueue[] buckets = new IntQueue[8];
+        for (int b = 0; b < buckets.length; b++) {
+            buckets[b] = new IntQueue();
+        }
+        int start = rank(goalPos, n) * blanks + (empty == 2 ? pairIndex[goalEmpty[0]][goalEmpty[1]] : goalEmpty[0]);
+        dist[start] = 0;
+        buckets[0].add(start);
+        long pending = 1;
+        int[] pos = new int[k];
+        int[] occ = new int[n];
+        int[] blank = new int[2];
+        int[] neighbor = new int[4];
+        boolean capped = false;
+        for (int d = 0; pending > 0; d++) {
+            if (d >= 254) {
+                capped = true;
+                break;
+            }
+            IntQueue bucket = buckets[d & 7];
+            for (int q = 0; q < bucket.size(); q++) {   // 0-cost moves are appended to this bucket while it is scanned.
+                int state = bucket.get(q);
+                pending--;
+                if ((settled[state >>> 6] & (1L << state)) != 0) {
+                    continue;
+                }
+                settled[state >>> 6] |= 1L << state;
+                int placement = state / blanks;
+                int blankIndex = state % blanks;
+                unrank(placement, n, k, pos);
+                Arrays.fill(occ, -1);
+                for (int s = 0; s < k; s++) {
+                    occ[pos[s]] = s;
+                }
+                if (empty == 2) {
+                    blank[0] = pairA[blankIndex];
+                    blank[1] = pairB[blankIndex];
+                } else {
+                    blank[0] = blankIndex;
+                }
+                if (occ[blank[0]] != -1 || (empty == 2 && occ[blank[1]] != -1)) {
+                    continue;
+                }
+                // moves of one number into an empty panel.
+                for (int e = 0; e < empty; e++) {
+                    int b = blank[e];
+                    int count = neighbors(b, rows, cols, neighbor);
+                    for (int t = 0; t < count; t++) {
+                        int from = neighbor[t];
+                        if (empty == 2 && from == blank[1 - e]) {
+                            continue;
+                        }
+                        int slot = occ[from];
+                        int cost = slot == -1 ? 0 : 5;
+                        if (slot != -1) {
+                            pos[slot] = b;
+                        }
+                        int nextBlank = empty == 2 ? pairIndex[from][blank[1 - e]] : from;
+                        int next = rank(pos, n) * blanks + nextBlank;
+                        if (slot != -1) {
+                            pos[slot] = from;
+                        }
+                        pending += relax(dist, settled, buckets, next, d + cost);
+                    }
+                }
+                // moves of two numbers together into two close empty panels.
+                if (empty == 2) {
+                    int a = Math.min(blank[0], blank[1]);
+                    int b = Math.max(blank[0], blank[1]);
+                    boolean vertical = b - a == cols;                              // empty panels one above the other.
+                    boolean horizontal = b - a == 1 && a / cols == b / cols;       // empty panels side by side.
+                    if (vertical || horizontal) {
+                        for (int side = -1; side <= 1; side += 2) {
+                            int fromA;
+                            int fromB;
+                            if (vertical) {   // numbers slide left or right, cost 6.
+                                int col = a % cols + side;
+                                if (col < 0 || col >= cols) continue;
+                                fromA = a + side;
+                                fromB = b + side;
+                            } else {          // numbers slide up or down, cost 7.
+                                int row = a / cols + side;
+                                if (row < 0 || row >= rows) continue;
+                                fromA = a + side * cols;
+                                fromB = b + side * cols;
+                            }
+                            int inPattern = (occ[fromA] != -1 ? 1 : 0) + (occ[fromB] != -1 ? 1 : 0);
+                            int cost = inPattern == 2 ? (vertical ? 6 : 7) : inPattern * 3;
+                            if (occ[fromA] != -1) pos[occ[fromA]] = a;
+                            if (occ[fromB] != -1) pos[occ[fromB]] = b;
+                            int next = rank(pos, n) * blanks + pairIndex[fromA][fromB];
+                            if (occ[fromA] != -1) pos[occ[fromA]] = fromA;
+                            if (occ[fromB] != -1) pos[occ[fromB]] = fromB;
+                            pending += relax(dist, settled, buckets, next, d + cost);
+                        }
+                    }
+                }
+            }
+            bucket.clear();
+        }
+        byte[] table = new byte[placements];
+        for (int placement = 0; placement < placements; placement++) {
+            int best = 255;
+            for (int b = 0; b < blanks; b++) {
+                int value = dist[placement * blanks + b] & 0xFF;
+                if (capped && value == 255) {
+                    value = 254;   // not reached below the cap, so the cost is at least 254.
+                }
+                best = Math.min(best, value);
+            }
+            table[placement] = (byte) best;
+        }
+        return table;
+    }
+
+    /**
+     * This method lower the distance of the abstract state if the new cost is better.
+     *
+     * @return - 1 if the state was added to a bucket, 0 o.t.
+     */
+    private static int relax(byte[] dist, long[] settled, IntQueue[] buckets, int state, int cost) {
+        if ((settled[state >>> 6] & (1L << state)) != 0 || cost >= (dist[state] & 0xFF)) {
+            return 0;
+        }
+        dist[state] = (byte) Math.min(cost, 254);
+        buckets[cost & 7].add(state);
+        return 1;
+    }
+
+    /**
+     * This method put the panels next to the cell (left, right, up, down) in ans.
+     *
+     * @return - the number of neighbors.
+     */
+    private static int neighbors(int cell, int rows, int cols, int[] ans) {
+        int count = 0;
+        int row = cell / cols;
+        int col = cell % cols;
+        if (col > 0) ans[count++] = cell - 1;
+        if (col < cols - 1) ans[count++] = cell + 1;
+        if (row > 0) ans[count++] = cell - cols;
+        if (row < rows - 1) ans[count++] = cell + cols;
+        return count;
+    }
+
+    /**
+     * This method return the rank of a placement of distinct panels (mixed radix n, n-1, ..., n-k+1).
+     */
+    static int rank(int[] pos, int n) {
+        long used = 0;
+        int rank = 0;
+        for (int k = 0; k < pos.length; k++) {
+            int cell = pos[k];
+            rank = rank * (n - k) + cell - Long.bitCount(used & ((1L << cell) - 1));
+            used |= 1L << cell;
+        }
+        return rank;
+    }
+
+    /**
+     * This method write into pos the placement of the given rank (the opposite of rank).
+     */
+    static void unrank(int rank, int n, int k, int[] pos) {
+        for (int i = k - 1; i >= 0; i--) {
+            pos[i] = rank % (n - i);
+            rank /= (n - i);
+        }
+        long used = 0;
+        for (int i = 0; i < k; i++) {
+            int digit = pos[i];
+            int cell = 0;
+            while (true) {
+                if ((used & (1L << cell)) == 0) {
+                    if (digit == 0) break;
+                    digit--;
+                }
+                cell++;
+            }
+            pos[i] = cell;
+            used |= 1L << cell;
+        }
+    }
+
+    /**
+     * This method return the file name of a pattern of the goal board.
+     */
+    private static String fileName(int[][] goal, int[] pattern) {
+        StringBuilder s = new StringBuilder("pdb_").append(goal.length).append('x').append(goal[0].length).append('_');
+        s.append(Long.toHexString(PackedBoard.of(goal).hash64()));
+        for (int num : pattern) {
+            s.append('_').append(num);
+        }
+        return s.append(".bin").toString();
+    }
+
+    /**
+     * This method write a table with its header to a temporary file and move it into place.
+     */
+    private static void write(Path file, int rows, int cols, int[] pattern, byte[] table) throws IOException {
+        ByteBuffer header = header(rows, cols, pattern);
+        Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            ByteBuffer body = ByteBuffer.wrap(table);
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * This method map the table of the file into memory.
+     *
+     * @return - the table, null if the file does not exist or does not match the pattern.
+     */
+    private static ByteBuffer map(Path file, int rows, int cols, int[] pattern) throws IOException {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer expected = header(rows, cols, pattern);
+        long size = permutations(rows * cols, pattern.length);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() != expected.remaining() + size) {
+                return null;
+            }
+            ByteBuffer header = ByteBuffer.allocate(expected.remaining()).order(ByteOrder.BIG_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header.
+            }
+            header.flip();
+            if (!header.equals(expected)) {
+                return null;
+            }
+            MappedByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, expected.remaining(), size);
+            table.load();
+            return table;
+        }
+    }
+
+    /**
+     * This method return the header of a table file: magic, rows, cols, pattern size and numbers.
+     */
+    private static ByteBuffer header(int rows, int cols, int[] pattern) {
+        ByteBuffer header = ByteBuffer.allocate(16 + 4 * pattern.length).order(ByteOrder.BIG_ENDIAN);
+        header.putInt(MAGIC).putInt(rows).putInt(cols).putInt(pattern.length);
+        for (int num : pattern) {
+            header.putInt(num);
+        }
+        header.flip();
+        return header;
+    }
+
+    /**
+     * This class represents a growable queue of ints (one bucket of the search).
+     */
+    private static final class IntQueue {
+        private int[] items = new int[1024];
+        private int size;
+
+        void add(int item) {
+            if (this.size == this.items.length) {
+                this.items = Arrays.copyOf(this.items, this.size * 2);
+            }
+            this.items[this.size++] = item;
+        }
+
+        int get(int index) {
+            return this.items[index];
+        }
+
+        int size() {
+            return this.size;
+        }
+
+        void clear() {
+            this.size = 0;
+            if (this.items.length > 1 << 20) {
+                this.items = new int[1024];
+            }
+        }
+    }
+}
@@ -0,0 +1,154 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class runs a portfolio of searches on the same instance, each on its own thread, and answers with the first one
+ * that ends: the others are cancelled (Algo.cancel, they stop at their next expansion) and their threads end by
+ * themselves, the answer does not wait for them.
+ * The members must be searches that end with an optimal path (see isMember) and the heuristic must be admissible
+ * (ProblemContext.isAdmissible, with --pdb), so the first answer is as good as any other and the portfolio costs only the
+ * time of the fastest member; Ex1.algorithm rejects any other portfolio.
+ * Chosen with "portfolio" (the DEFAULT_MEMBERS) or "portfolio:" and the members separated by "," in the input file,
+ * where a member name that ends with "/md" runs with the admissible Manhattan distance heuristic instead of the pattern
+ * database (ProblemContext.manhattan).
+ *
+ * @Author Liav Weiss.
+ */
+public class Portfolio extends Algo {
+
+    /**
+     * The members of "portfolio".
+     */
+    public static final String DEFAULT_MEMBERS = "A*,IDA*,DFBnB";
+
+    /**
+     * This method check if an algorithm can be a member of a portfolio: a search that ends with an optimal path with an
+     * admissible heuristic (not a search that counts moves like BFS, that may stop early like ARA*, or a portfolio).
+     *
+     * @param algorithm - the name of the algorithm.
+     * @return - true if it can be a member.
+     */
+    public static boolean isMember(String algorithm) {
+        switch (algorithm) {
+            case "A*":
+            case "BiA*":
+            case "HDA*":
+            case "IDA*":
+            case "PIDA*":
+            case "DFBnB":
+            case "auto":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * This class has two fields:
+     *
+     * @param members - the searches of the portfolio.
+     * @param winner - the member that answered, null until one did.
+     */
+    private final List<Algo> members;
+    private volatile Algo winner;
+
+    /**
+     * constructor.
+     *
+     * @param initialState - The initial state of the game.
+     * @param g - A vector containing all the target states that need to be reached (at least one of them).
+     * @param withOpen - flag if print the open list or not.
+     * @param members - the searches of the portfolio, of the same instance.
+     */
+    protected Portfolio(State initialState, Vector<State> g, boolean withOpen, List<Algo> members) {
+        super(initialState, g, withOpen);
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("a portfolio needs at least one search");
+        }
+        this.members = new ArrayList<>(members);
+    }
+
+    @Override
+    public String Algo() {
+        ExecutorService pool = Executors.newFixedThreadPool(this.members.size(), runnable -> {
+            Thread thread = new Thread(runnable, "portfolio");
+            thread.setDaemon(true);     // a member that is slow to see its cancel does not keep the program alive.
+            return thread;
+        });
+        CompletionService<String> race = new ExecutorCompletionService<>(pool);
+        List<Future<String>> futures = new ArrayList<>();
+        for (Algo member : this.members) {
+            futures.add(race.submit(member::solve));
+        }
+        RuntimeException failure = null;
+        String ans = null;
+        try {
+            for (int k = 0; k < this.members.size() && ans == null && !isCancelled(); k++) {
+                Future<String> done = race.take();
+                try {
+                    String result = done.get();
+                    Algo member = this.members.get(futures.indexOf(done));
+                    if (!member.isCancelled()) {
+                        this.winner = member;
+                        ans = result;
+                    }
+                } catch (ExecutionException e) {   // the member failed, the others go on.
+                    if (failure == null) {
+                        failure = new RuntimeException(e.getCause());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Algo member : this.members) {
+                member.cancel();
+            }
+            pool.shutdown();
+        }
+        if (ans != null) {
+            return ans;
+        }
+        if (failure != null && !isCancelled()) {
+            throw failure;
+        }
+        return cancelled();
+    }
+
+    /**
+     * This method cancel the portfolio and all its members.
+     */
+    @Override
+    public void cancel() {
+        super.cancel();
+        for (Algo member : this.members) {
+            member.cancel();
+        }
+    }
+
+    /**
+     * This method return the statistics of the member that answered (of the portfolio before one did).
+     *
+     * @return - the statistics.
+     */
+    @Override
+    public SearchStats getStats() {
+        Algo member = this.winner;
+        return member == null ? super.getStats() : member.getStats();
+    }
+
+    public List<Algo> getMembers() {
+        return members;
+    }
+
+    public Algo getWinner() {
+        return winner;
+    }
+}
@@ -0,0 +1,158 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * This class represents one instance of the puzzle game as written in the input file:
+ * the algorithm, the time and open list flags, the start board and the goal board (or goal boards: more "Goal state:"
+ * blocks after the first one, any of them is a goal).
+ * <p>
+ * The format of an instance:
+ * <pre>
+ * A*
+ * with time
+ * no open
+ * 3x4
+ * 1,2,3,4
+ * 5,6,11,7
+ * 9,10,8,_
+ * Goal state:
+ * 1,2,3,4
+ * 5,6,7,8
+ * 9,10,11,_
+ * </pre>
+ */
+public class Problem {
+    /**
+     * This class has six fields:
+     *
+     * @param algorithm - the name of the algorithm (BFS, A*, ...).
+     * @param withTime - flag if print the run time or not.
+     * @param withOpen - flag if print the open list or not.
+     * @param startBoard - the board of the initial state (0 is an empty panel).
+     * @param goalBoard - the board of the goal state (the first goal).
+     * @param goalBoards - the boards of all the goal states.
+     */
+    private final String algorithm;
+    private final boolean withTime;
+    private final boolean withOpen;
+    private final int[][] startBoard;
+    private final int[][] goalBoard;
+    private final List<int[][]> goalBoards;
+
+    /**
+     * constructor.
+     */
+    public Problem(String algorithm, boolean withTime, boolean withOpen, int[][] startBoard, int[][] goalBoard) {
+        this(algorithm, withTime, withOpen, startBoard, Collections.singletonList(goalBoard));
+    }
+
+    /**
+     * constructor of an instance with one or more goals.
+     */
+    public Problem(String algorithm, boolean withTime, boolean withOpen, int[][] startBoard, List<int[][]> goalBoards) {
+        if (goalBoards.isEmpty()) {
+            throw new IllegalArgumentException("an instance needs at least one goal");
+        }
+        this.algorithm = algorithm;
+        this.withTime = withTime;
+        this.withOpen = withOpen;
+        this.startBoard = startBoard;
+        this.goalBoard = goalBoards.get(0);
+        this.goalBoards = Collections.unmodifiableList(new ArrayList<>(goalBoards));
+    }
+
+    /**
+     * This method read one instance from the scanner.
+     *
+     * @param scanner - the input, positioned at the algorithm line.
+     * @return - the instance.
+     */
+    public static Problem read(Scanner scanner) {
+        //check which algorithms to use.
+        String algorithm = scanner.nextLine().trim();
+
+        //check if it is with time or not.
+        boolean withTime = scanner.nextLine().charAt(0) == 'w';
+
+        //check if it is with print of the open list or not.
+        boolean withOpen = scanner.nextLine().charAt(0) == 'w';
+
+        //get the size of the array that will be the start and the gaol state board.
+        String[] rowAndColStr = scanner.nextLine().trim().split("x");
+        int row = Integer.parseInt(rowAndColStr[0]);
+        int col = Integer.parseInt(rowAndColStr[1]);
+        int[][] startBoard = new int[row][col];
+        int i = 0;
+        String line = scanner.nextLine();
+
+        //init the start state board.
+        while (!line.contains("G")) {
+            readRow(line, startBoard[i++]);
+            line = scanner.nextLine();
+        }
+
+        //init the goal state boards, every "Goal state:" line starts one more goal.
+        List<int[][]> goalBoards = new ArrayList<>();
+        goalBoards.add(readBoard(scanner, row, col));
+        while (scanner.hasNext("G.*")) {
+            scanner.nextLine();
+            goalBoards.add(readBoard(scanner, row, col));
+        }
+        return new Problem(algorithm, withTime, withOpen, startBoard, goalBoards);
+    }
+
+    /**
+     * This method read the rows of a board.
+     *
+     * @param scanner - the input, positioned at the first row.
+     * @param rows - the number of rows.
+     * @param cols - the number of cols.
+     * @return - the board.
+     */
+    private static int[][] readBoard(Scanner scanner, int rows, int cols) {
+        int[][] board = new int[rows][cols];
+        for (int[] row : board) {
+            readRow(scanner.nextLine(), row);
+        }
+        return board;
+    }
+
+    /**
+     * This method read one row of a board ("_" is an empty panel).
+     *
+     * @param line - the row, numbers separated by ",".
+     * @param row - the row of the board to fill.
+     */
+    private static void readRow(String line, int[] row) {
+        String[] arrStr = line.trim().split(",");
+        for (int k = 0; k < arrStr.length; k++) {
+            row[k] = arrStr[k].equals("_") ? 0 : Integer.parseInt(arrStr[k]);
+        }
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public boolean isWithTime() {
+        return withTime;
+    }
+
+    public boolean isWithOpen() {
+        return withOpen;
+    }
+
+    public int[][] getStartBoard() {
+        return startBoard;
+    }
+
+    public int[][] getGoalBoard() {
+        return goalBoard;
+    }
+
+    public List<int[][]> getGoalBoards() {
+        return goalBoards;
+    }
+}
@@ -0,0 +1,465 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents the immutable data of one puzzle game that is shared by all the states of the game.
+ * It is built once (in Ex1) from the goal board, and precomputes the goal place of every number and the
+ * Manhattan distance of every number from every panel, so the heuristic function never searches the goal board.
+ * A game with more than one goal board has the context of every goal (see of), and its heuristic is the minimum over the
+ * goals of an admissible estimate of every goal: its pattern database, or the Manhattan distance of its numbers times the
+ * cheapest price of one step (5 with one empty panel, 3 with two).
+ * Only that heuristic and the pattern database are admissible (see isAdmissible): the weighted distance and conflicts of
+ * the game with one goal find paths faster, but not always the cheapest one.
+ *
+ * @Author Liav Weiss.
+ */
+public final class ProblemContext {
+
+    /**
+     * Numbers that are not on the goal board are treated as if their goal place is (0,0).
+     */
+    private static final int NUMBERS = 256;
+
+    /**
+     * This class has eleven fields:
+     *
+     * @param rows - The number of rows on the board.
+     * @param cols - The number of cols on the board.
+     * @param cells - The number of panels on the board.
+     * @param goalBoard - The target board.
+     * @param goalRow - goalRow[num] is the row of num on the goal board(for 0, the first empty panel).
+     * @param goalCol - goalCol[num] is the col of num on the goal board(for 0, the first empty panel).
+     * @param distance - distance[num * cells + cell] is the Manhattan distance of num from the panel to its goal place.
+     * @param patterns - The pattern database heuristic, null to use the Manhattan distance heuristic.
+     * @param slides - slides[cell] is the legal moves into an empty panel at the cell, in the order L, U, R, D,
+     * each one is the direction | the panel of the moving number << 2.
+     * @param price - the cheapest price of one step of one number: 5 with one empty panel, 3 with two.
+     * @param goals - the contexts of the goals whose minimum admissible estimate is the heuristic (of a game with more than
+     * one goal, or of one goal with the admissible Manhattan distance, see manhattan), null o.t.
+     */
+    private final int rows;
+    private final int cols;
+    private final int cells;
+    private final int[][] goalBoard;
+    private final int[] goalRow;
+    private final int[] goalCol;
+    private final int[] distance;
+    private final PatternDatabase patterns;
+    private final int[][] slides;
+    private final int price;
+    private final ProblemContext[] goals;
+
+    /**
+     * constructor.
+     *
+     * @param goal - the target board, 0 is an empty panel.
+     */
+    public ProblemContext(int[][] goal) {
+        this(goal, null);
+    }
+
+    /**
+     * constructor.
+     *
+     * @param goal     - the target board, 0 is an empty panel.
+     * @param patterns - the pattern database heuristic of the goal, null to use the Manhattan distance heuristic.
+     */
+    public ProblemContext(int[][] goal, PatternDatabase patterns) {
+        this.patterns = patterns;
+        this.goals = null;
+        this.rows = goal.length;
+        this.cols = goal[0].length;
+        this.cells = this.rows * this.cols;
+        this.goalBoard = new int[this.rows][];
+        for (int i = 0; i < this.rows; i++) {
+            this.goalBoard[i] = goal[i].clone();
+        }
+        this.goalRow = new int[NUMBERS];
+        this.goalCol = new int[NUMBERS];
+        boolean[] found = new boolean[NUMBERS];
+        int empty = 0;
+        for (int i = 0; i < this.rows; i++) {
+            for (int j = 0; j < this.cols; j++) {
+                int num = goal[i][j];
+                if (num == 0) {
+                    empty++;
+                }
+                if (!found[num]) {
+                    found[num] = true;
+                    this.goalRow[num] = i;
+                    this.goalCol[num] = j;
+                }
+            }
+        }
+        this.price = empty == 2 ? 3 : 5;     // a move of two numbers costs at least 6.
+        this.distance = new int[NUMBERS * this.cells];
+        for (int num = 0; num < NUMBERS; num++) {
+            for (int cell = 0; cell < this.cells; cell++) {
+                this.distance[num * this.cells + cell] = Math.abs(cell / this.cols - this.goalRow[num]) + Math.abs(cell % this.cols - this.goalCol[num]);
+            }
+        }
+        this.slides = new int[this.cells][];
+        for (int cell = 0; cell < this.cells; cell++) {
+            int i = cell / this.cols;
+            int j = cell % this.cols;
+            int[] legal = new int[4];
+            int n = 0;
+            if (j != this.cols - 1) {
+                legal[n++] = Move.LEFT | (cell + 1) << 2;
+            }
+            if (i != this.rows - 1) {
+                legal[n++] = Move.UP | (cell + this.cols) << 2;
+            }
+            if (j != 0) {
+                legal[n++] = Move.RIGHT | (cell - 1) << 2;
+            }
+            if (i != 0) {
+                legal[n++] = Move.DOWN | (cell - this.cols) << 2;
+            }
+            this.slides[cell] = Arrays.copyOf(legal, n);
+        }
+    }
+
+    /**
+     * constructor of a game with more than one goal: the tables of the first goal, and the contexts of all the goals.
+     */
+    private ProblemContext(ProblemContext first, ProblemContext[] goals) {
+        this.rows = first.rows;
+        this.cols = first.cols;
+        this.cells = first.cells;
+        this.goalBoard = first.goalBoard;
+        this.goalRow = first.goalRow;
+        this.goalCol = first.goalCol;
+        this.distance = first.distance;
+        this.patterns = null;
+        this.slides = first.slides;
+        this.price = first.price;
+        this.goals = goals;
+    }
+
+    /**
+     * This method return the context of a game with the given goals.
+     *
+     * @param goals - the contexts of the goals (each with its own tables and pattern database), at least one.
+     * @return - the context of the only goal, or a context whose heuristic is the minimum over the goals.
+     */
+    public static ProblemContext of(List<ProblemContext> goals) {
+        if (goals.size() == 1) {
+            return goals.get(0);
+        }
+        return new ProblemContext(goals.get(0), goals.toArray(new ProblemContext[0]));
+    }
+
+    /**
+     * This method return the context of the same goals with the admissible Manhattan distance heuristic: the Manhattan
+     * distance of the numbers times the cheapest price of one step, instead of the pattern databases (or of the weighted
+     * distance and conflicts, that are not admissible).
+     *
+     * @return - the context.
+     */
+    public ProblemContext manhattan() {
+        ProblemContext[] ans = this.goals == null ? new ProblemContext[]{this} : this.goals.clone();
+        for (int g = 0; g < ans.length; g++) {
+            if (ans[g].patterns != null) {
+                ans[g] = new ProblemContext(ans[g].goalBoard);
+            }
+        }
+        return new ProblemContext(ans[0], ans);
+    }
+
+    /**
+     * This method return the context of another goal board with the same kind of heuristic: the same patterns, the
+     * admissible Manhattan distance, or the weighted distance and conflicts.
+     *
+     * @param goal - the other goal board, with the same numbers.
+     * @return - the context of the goal.
+     * @throws IOException - if the pattern database of the goal cannot be read or written.
+     */
+    public ProblemContext toGoal(int[][] goal) throws IOException {
+        if (this.patterns != null) {
+            return new ProblemContext(goal, this.patterns.toGoal(goal));
+        }
+        ProblemContext ans = new ProblemContext(goal);
+        return this.goals == null ? ans : ans.manhattan();
+    }
+
+    /**
+     * This method check if the heuristic never overestimates the cost to the nearest goal: a pattern database, or the
+     * Manhattan distance times the cheapest price of one step (for one goal or the minimum over many goals). The weighted
+     * distance and conflicts of the other games can overestimate it.
+     *
+     * @return - true for an admissible heuristic.
+     */
+    public boolean isAdmissible() {
+        return this.patterns != null || this.goals != null;
+    }
+
+    /**
+     * This method check if the heuristic is estimated by the context (a pattern database, or the Manhattan distance of
+     * one or more goals), and not by the distance and the conflicts of the board. These are exactly the admissible
+     * heuristics, so it is isAdmissible(); it is kept for the boards, which ask which code computes h and not
+     * whether h is a lower bound.
+     *
+     * @return - true if the heuristic is estimate(board).
+     */
+    public boolean estimates() {
+        return isAdmissible();
+    }
+
+    /**
+     * This method return the heuristic of the board when estimates() (see the class doc).
+     *
+     * @param board - the board.
+     * @return - h(board).
+     */
+    public int estimate(PackedBoard board) {
+        if (this.goals == null) {
+            return this.patterns.estimate(board);
+        }
+        int ans = Integer.MAX_VALUE;
+        for (ProblemContext goal : this.goals) {
+            int h;
+            if (goal.patterns != null) {
+                h = goal.patterns.estimate(board);
+            } else {
+                h = 0;
+                for (int cell = 0; cell < goal.cells; cell++) {
+                    int num = board.get(cell);
+                    if (num != 0) {
+                        h += goal.distance[num * goal.cells + cell];
+                    }
+                }
+                h *= goal.price;
+            }
+            ans = Math.min(ans, h);
+        }
+        return ans;
+    }
+
+    /**
+     * This method return the heuristic of the board given by the panel of every number when estimates() (see the class
+     * doc).
+     *
+     * @param cellOf - cellOf[num] is the panel index of num.
+     * @return - h(board).
+     */
+    public int estimate(int[] cellOf) {
+        if (this.goals == null) {
+            return this.patterns.estimate(cellOf);
+        }
+        int ans = Integer.MAX_VALUE;
+        for (ProblemContext goal : this.goals) {
+            int h;
+            if (goal.patterns != null) {
+                h = goal.patterns.estimate(cellOf);
+            } else {
+                h = 0;
+                for (int[] row : goal.goalBoard) {
+                    for (int num : row) {
+                        if (num != 0) {
+                            h += goal.distance[num * goal.cells + cellOf[num]];
+                        }
+                    }
+                }
+                h *= goal.price;
+            }
+            ans = Math.min(ans, h);
+        }
+        return ans;
+    }
+
+    /**
+     * This method return the number of rows on the board.
+     *
+     * @return - rows.
+     */
+    public int getRows() {
+        return this.rows;
+    }
+
+    /**
+     * This method return the number of cols on the board.
+     *
+     * @return - cols.
+     */
+    public int getCols() {
+        return this.cols;
+    }
+
+    /**
+     * This method return a copy of the goal board.
+     *
+     * @return - the goal board.
+     */
+    public int[][] getGoalBoard() {
+        int[][] ans = new int[this.rows][];
+        for (int i = 0; i < this.rows; i++) {
+            ans[i] = this.goalBoard[i].clone();
+        }
+        return ans;
+    }
+
+    /**
+     * This method return the row of the number on the goal board.
+     *
+     * @param num - the number.
+     * @return - the goal row.
+     */
+    public int goalRow(int num) {
+        return this.goalRow[num];
+    }
+
+    /**
+     * This method return the col of the number on the goal board.
+     *
+     * @param num - the number.
+     * @return - the goal col.
+     */
+    public int goalCol(int num) {
+        return this.goalCol[num];
+    }
+
+    /**
+     * This method return the Manhattan distance of the number from the panel to its place on the goal board.
+     *
+     * @param num  - the number.
+     * @param cell - the panel index (row * cols + col).
+     * @return - the distance.
+     */
+    public int distance(int num, int cell) {
+        return this.distance[num * this.cells + cell];
+    }
+
+    /**
+     * This method compute the weighted heuristic of the game with one goal from the distance and the conflicts of a board
+     * (shared by State and MutableBoard, that keep them up to date on every move).
+     * Each counted panel adds 2 * weight for every conflict on the board, and weight for every step of its distance.
+     *
+     * @param distance  - the sum of the distances of the board (see distanceSum).
+     * @param conflicts - the number of conflicts of the board (see conflicts).
+     * @param twoEmpty  - true for a board with two empty panels.
+     * @return - h(board).
+     */
+    public int evaluate(int distance, int conflicts, boolean twoEmpty) {
+        int weight = twoEmpty ? 3 : 5;
+        int counted = twoEmpty ? this.cells - 2 : this.cells;
+        return (counted * conflicts * 2 + distance) * weight;
+    }
+
+    /**
+     * This method return the sum of the Manhattan distances of the panels
+     * (the empty panel is counted only on a board with one empty panel).
+     *
+     * @param board    - the numbers of the board, board[row * cols + col].
+     * @param twoEmpty - true for a board with two empty panels.
+     * @return - the sum of the distances.
+     */
+    public int distanceSum(int[] board, boolean twoEmpty) {
+        int ans = 0;
+        for (int k = 0; k < this.cells; k++) {
+            if (board[k] != 0 || !twoEmpty) {
+                ans += distance(board[k], k);
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * This method return the number of linear conflicts of a board (the panels counted by conflictAt).
+     *
+     * @param board - the numbers of the board, board[row * cols + col].
+     * @return - the number of conflicts.
+     */
+    public int conflicts(int[] board) {
+        int conflict = 0;
+        for (int i = 0; i < this.rows; i++) {
+            for (int j = 0; j < this.cols; j++) {
+                conflict += conflictAt(board, i, j);
+            }
+        }
+        return conflict;
+    }
+
+    /**
+     * This method return the number of conflicts of the panels in the two rows and the two cols
+     * (rowA may be equal to rowB and colA may be equal to colB), the only conflicts a move can change.
+     *
+     * @param board - the numbers of the board, board[row * cols + col].
+     * @param rowA  - the first row.
+     * @param rowB  - the second row.
+     * @param colA  - the first col.
+     * @param colB  - the second col.
+     * @return - the conflicts of the panels in the lines.
+     */
+    public int lineConflicts(int[] board, int rowA, int rowB, int colA, int colB) {
+        int conflict = 0;
+        for (int j = 0; j < this.cols; j++) {
+            conflict += conflictAt(board, rowA, j);
+            if (rowB != rowA) {
+                conflict += conflictAt(board, rowB, j);
+            }
+        }
+        for (int i = 0; i < this.rows; i++) {
+            if (i == rowA || i == rowB) {
+                continue;
+            }
+            conflict += conflictAt(board, i, colA);
+            if (colB != colA) {
+                conflict += conflictAt(board, i, colB);
+            }
+        }
+        return conflict;
+    }
+
+    /**
+     * This method check if the panel (i,j) is in a linear conflict with a panel after it on its goal row
+     * (or on its goal col, when it is not on its goal row).
+     *
+     * @return - 1 if there is a conflict, 0 o.t.
+     */
+    private int conflictAt(int[] board, int i, int j) {
+        int num = board[i * this.cols + j];
+        if (num == 0) {
+            return 0;
+        }
+        int rowGoal = this.goalRow[num];
+        int colGoal = this.goalCol[num];
+        if (i == rowGoal) {
+            for (int k = j + 1; k < this.cols; k++) {
+                int num2 = board[i * this.cols + k];
+                if (this.goalRow[num2] == rowGoal && this.goalCol[num2] < colGoal) {
+                    return 1;
+                }
+            }
+        } else if (j == colGoal) {
+            for (int k = i + 1; k < this.rows; k++) {
+                int num3 = board[k * this.cols + j];
+                if (this.goalCol[num3] == colGoal && this.goalRow[num3] < rowGoal) {
+                    return 1;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * This method return the legal moves into an empty panel, by the place of the panel on the board
+     * (the same for every board of the game, so it is computed once).
+     *
+     * @param cell - the panel index of the empty panel (row * cols + col).
+     * @return - the moves in the order L, U, R, D, each one is the direction | the panel of the moving number << 2.
+     */
+    public int[] slides(int cell) {
+        return this.slides[cell];
+    }
+
+    /**
+     * This method return the pattern database heuristic.
+     *
+     * @return - the pattern database, null if the game uses the Manhattan distance heuristic (or has more than one goal).
+     */
+    public PatternDatabase getPatterns() {
+        return this.patterns;
+    }
+}
@@ -0,0 +1,160 @@
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class represents the normalization of an instance: the numbers are relabeled so the goal board becomes the
+ * canonical board 1, 2, 3, ... in the order of its panels (row after row), with its empty panels in their places.
+ * The price of a move does not depend on the numbers and the heuristics measure the places of the numbers on the goal
+ * board, so the relabeled instance has the same paths and the same costs; only the numbers of the moves of the answer are
+ * mapped back. Instances with different goals and the same empty panels then share one goal: its goal tables, pattern
+ * database files and the paths of the solution cache.
+ * A number that appears more than once gets one label (the label of its first panel), and a number of the start board
+ * that is not on the goal board gets a label after the labels of the goal, so the analysis still finds that there is no
+ * path.
+ *
+ * @Author Liav Weiss.
+ */
+public final class Relabeling {
+
+    /**
+     * This class has two fields:
+     *
+     * @param label - label[num] is the new number of num (label[0] = 0, the empty panel).
+     * @param number - number[label] is the number of the label (the inverse of label).
+     */
+    private final int[] label = new int[256];
+    private final int[] number = new int[256];
+
+    private Relabeling() {
+    }
+
+    /**
+     * This method create the relabeling of an instance: the numbers of its (first) goal board get the labels 1, 2, 3, ...
+     * row after row, the numbers of the start board and of the other goal boards that have no label get the next labels.
+     *
+     * @param problem - the instance.
+     * @return - the relabeling.
+     */
+    public static Relabeling of(Problem problem) {
+        Relabeling ans = new Relabeling();
+        int next = ans.labelAll(problem.getGoalBoard(), 1);
+        next = ans.labelAll(problem.getStartBoard(), next);
+        for (int[][] goal : problem.getGoalBoards()) {
+            next = ans.labelAll(goal, next);
+        }
+        return ans;
+    }
+
+    /**
+     * This method relabel an instance.
+     *
+     * @param problem - the instance.
+     * @return - the same instance with the canonical goal board.
+     */
+    public Problem apply(Problem problem) {
+        List<int[][]> goals = new ArrayList<>();
+        for (int[][] goal : problem.getGoalBoards()) {
+            goals.add(apply(goal));
+        }
+        return new Problem(problem.getAlgorithm(), problem.isWithTime(), problem.isWithOpen(), apply(problem.getStartBoard()), goals);
+    }
+
+    /**
+     * This method relabel a board.
+     *
+     * @param board - the board.
+     * @return - a new board with the labels of its numbers.
+     */
+    public int[][] apply(int[][] board) {
+        int[][] ans = new int[board.length][];
+        for (int i = 0; i < board.length; i++) {
+            ans[i] = new int[board[i].length];
+            for (int j = 0; j < board[i].length; j++) {
+                ans[i][j] = this.label[board[i][j]];
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * This method map the answer of the relabeled instance back to the numbers of the instance: the numbers of the moves
+     * of the path (the first line), the other lines have no numbers of panels.
+     *
+     * @param ans - the answer of the relabeled instance.
+     * @return - the answer of the instance.
+     */
+    public String restore(String ans) {
+        int end = ans.indexOf('\n');
+        String path = end < 0 ? ans : ans.substring(0, end);
+        if (path.isEmpty() || !Character.isDigit(path.charAt(0))) {  // "no path", "cancelled", ...
+            return ans;
+        }
+        StringBuilder s = new StringBuilder(ans.length());
+        int k = 0;
+        while (k < path.length()) {
+            char c = path.charAt(k);
+            if (Character.isDigit(c)) {
+                int num = 0;
+                while (k < path.length() && Character.isDigit(path.charAt(k))) {
+                    num = num * 10 + path.charAt(k++) - '0';
+                }
+                s.append(this.number[num]);
+            } else {
+                s.append(c);
+                k++;
+            }
+        }
+        return s.append(ans, path.length(), ans.length()).toString();
+    }
+
+    /**
+     * This method relabel the partition of a pattern database: the numbers of "1,2,3/4,5,6" are relabeled, "auto" and
+     * sizes like "5-5-5" take the labels in increasing order (the goal panels in their order).
+     *
+     * @param partition - the partition of the numbers of the instance, null for none.
+     * @return - the partition of the labels.
+     */
+    public String partition(String partition) {
+        if (partition == null || !(partition.contains("/") || partition.contains(","))) {
+            return partition;
+        }
+        StringBuilder s = new StringBuilder();
+        for (String group : partition.split("/")) {
+            if (s.length() > 0) {
+                s.append('/');
+            }
+            String[] nums = group.trim().split(",");
+            for (int k = 0; k < nums.length; k++) {
+                if (k > 0) {
+                    s.append(',');
+                }
+                int num = Integer.parseInt(nums[k].trim());
+                if (num <= 0 || num >= 256 || this.label[num] == 0) {
+                    throw new IllegalArgumentException("number " + num + " is not on the goal board");
+                }
+                s.append(this.label[num]);
+            }
+        }
+        return s.toString();
+    }
+
+    /**
+     * This method give labels to the numbers of a board that have none, row after row.
+     *
+     * @param board - the board.
+     * @param next  - the next label.
+     * @return - the next label after the board.
+     */
+    private int labelAll(int[][] board, int next) {
+        for (int[] row : board) {
+            for (int num : row) {
+                if (num != 0 && this.label[num] == 0) {
+                    this.label[num] = next;
+                    this.number[next] = num;
+                    next++;
+                }
+            }
+        }
+        return next;
+    }
+}
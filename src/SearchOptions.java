@@ -0,0 +1,131 @@
+import java.io.File;
+import java.util.function.Consumer;
+
+/**
+ * This class holds the options of the searches that are set on the search after it is created (the memory budget of
+ * A*, the transposition table of IDA*, the weights of ARA* and the storage of the external BFS), so one instance and every instance of a batch are searched the same way.
+ * apply sets the options of the kind of the search, and of every member of a portfolio.
+ *
+ * @Author Liav Weiss.
+ */
+public final class SearchOptions {
+
+    /**
+     * The default size of the IDA* transposition table in megabytes.
+     */
+    public static final int DEFAULT_TABLE_MEGABYTES = 16;
+
+    /**
+     * This class has nine fields:
+     *
+     * @param maxNodes - the memory budget of every A* search in states (no limit by default).
+     * @param tableMegabytes - the size of the transposition table of every IDA* search in megabytes, 0 for none.
+     * @param replacement - the replacement policy of the transposition tables.
+     * @param araWeight - the first weight of ARA*.
+     * @param araStep - how much ARA* lowers the weight after every path.
+     * @param araMillis - the time budget of ARA* in milliseconds, 0 for none.
+     * @param araListener - gets every better path of ARA*, null for none.
+     * @param ebfsDir - the directory of the layer files of the external BFS, null for the temporary directory.
+     * @param ebfsBuffer - the sort buffer of the external BFS in bytes.
+     */
+    private long maxNodes = Long.MAX_VALUE;
+    private int tableMegabytes = DEFAULT_TABLE_MEGABYTES;
+    private TranspositionTable.Replacement replacement = TranspositionTable.Replacement.DEPTH;
+    private double araWeight = AnytimeAStar.DEFAULT_WEIGHT;
+    private double araStep = AnytimeAStar.DEFAULT_STEP;
+    private long araMillis = 0;
+    private Consumer<String> araListener;
+    private File ebfsDir;
+    private long ebfsBuffer = ExternalBFS.DEFAULT_BUFFER;
+
+    /**
+     * This method set the memory budget of every A* search (see AStar.setMemoryBudget).
+     *
+     * @param nodes - the number of states of one search, Long.MAX_VALUE for no limit.
+     */
+    public void setMemoryBudget(long nodes) {
+        if (nodes < 1) {
+            throw new IllegalArgumentException("the memory budget needs at least one state: " + nodes);
+        }
+        this.maxNodes = nodes;
+    }
+
+    /**
+     * This method set the transposition table of every IDA* search, every search gets a table of its own.
+     *
+     * @param megabytes   - the size of the table in megabytes, 0 for none.
+     * @param replacement - the replacement policy.
+     */
+    public void setTranspositions(int megabytes, TranspositionTable.Replacement replacement) {
+        if (megabytes < 0) {
+            throw new IllegalArgumentException("the size of the table can not be negative: " + megabytes);
+        }
+        this.tableMegabytes = megabytes;
+        this.replacement = replacement;
+    }
+
+    /**
+     * This method set the weights and the time budget of every ARA* search (see AnytimeAStar).
+     *
+     * @param weight - the first weight.
+     * @param step   - how much the weight is lowered after every path.
+     * @param millis - the time budget in milliseconds, 0 for none.
+     */
+    public void setAnytime(double weight, double step, long millis) {
+        this.araWeight = weight;
+        this.araStep = step;
+        this.araMillis = millis;
+    }
+
+    /**
+     * This method set the listener of every ARA* search, that gets the text of every better path.
+     *
+     * @param listener - the listener, null for none.
+     */
+    public void setAnytimeListener(Consumer<String> listener) {
+        this.araListener = listener;
+    }
+
+    /**
+     * This method set where every external BFS writes its layers and how much memory sorts them.
+     *
+     * @param dir         - the directory of the layer files, null for the temporary directory of the system.
+     * @param bufferBytes - the size of the sort buffer in bytes.
+     */
+    public void setStorage(File dir, long bufferBytes) {
+        if (bufferBytes < 1) {
+            throw new IllegalArgumentException("the sort buffer needs at least one byte: " + bufferBytes);
+        }
+        this.ebfsDir = dir;
+        this.ebfsBuffer = bufferBytes;
+    }
+
+    /**
+     * This method set the options of a search, before it is solved (the members of a portfolio too).
+     *
+     * @param search - the search.
+     */
+    public void apply(Algo search) {
+        if (search instanceof Portfolio) {
+            for (Algo member : ((Portfolio) search).getMembers()) {
+                apply(member);
+            }
+        }
+        if (search instanceof IDAStar) {
+            ((IDAStar) search).setTranspositions(this.tableMegabytes == 0 ? null
+                    : TranspositionTable.ofMegabytes(this.tableMegabytes, this.replacement));
+        }
+        if (search instanceof AStar) {
+            ((AStar) search).setMemoryBudget(this.maxNodes);
+        }
+        if (search instanceof AnytimeAStar) {
+            AnytimeAStar anytime = (AnytimeAStar) search;
+            anytime.setWeights(this.araWeight, this.araStep);
+            anytime.setDeadline(this.araMillis);
+            anytime.setListener(this.araListener);
+        }
+        if (search instanceof ExternalBFS) {
+            ((ExternalBFS) search).setStorage(this.ebfsDir, this.ebfsBuffer);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents the statistics of one search: what it generated, expanded and pruned, the peak sizes of its lists,
+ * the thresholds of its iterations and the wall and CPU time of every phase.
+ * The search counts into it while it runs (it is not thread safe: a parallel search keeps one per worker and adds them up).
+ * At the end it is written as one line of JSON, and recorded as JFR events (puzzle.Search, and puzzle.Phase for every
+ * phase) when a flight recording is running.
+ */
+public class SearchStats {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * This class has eleven fields:
+     *
+     * @param algorithm - the name of the algorithm.
+     * @param generated - the number of states created by the operators (the "Num" of the answer).
+     * @param expanded - the number of states whose operators were performed.
+     * @param duplicates - the number of generated states pruned because their board was already seen.
+     * @param reopened - the number of closed states that were opened again with a cheaper path.
+     * @param evaluations - the number of times the search used the heuristic of a state.
+     * @param peakOpen - the largest size of the open list (for a parallel search, the sum of the workers).
+     * @param peakClosed - the largest size of the closed list (for a parallel search, the sum of the workers).
+     * @param thresholds - the threshold of every iteration (IDA*, DFID).
+     * @param phases - the wall and CPU time of every phase by its name, in nanoseconds.
+     * @param cost - the cost of the solution, -1 if there is none.
+     */
+    private final String algorithm;
+    private long generated;
+    private long expanded;
+    private long duplicates;
+    private long reopened;
+    private long evaluations;
+    private long peakOpen;
+    private long peakClosed;
+    private final List<Integer> thresholds = new ArrayList<>();
+    private final Map<String, long[]> phases = new LinkedHashMap<>();
+    private int cost = -1;
+
+    /**
+     * The phase that runs now, since when, and its JFR event.
+     */
+    private String phase;
+    private long phaseWall;
+    private long phaseCpu;
+    private PhaseEvent phaseEvent;
+
+    /**
+     * constructor.
+     *
+     * @param algorithm - the name of the algorithm.
+     */
+    public SearchStats(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public void generate() {
+        this.generated++;
+    }
+
+    public void generate(long count) {
+        this.generated += count;
+    }
+
+    public void expand() {
+        this.expanded++;
+    }
+
+    public void expand(long count) {
+        this.expanded += count;
+    }
+
+    public void duplicate() {
+        this.duplicates++;
+    }
+
+    public void duplicate(long count) {
+        this.duplicates += count;
+    }
+
+    public void reopen() {
+        this.reopened++;
+    }
+
+    public void evaluate() {
+        this.evaluations++;
+    }
+
+    public void evaluate(long count) {
+        this.evaluations += count;
+    }
+
+    /**
+     * This method update the peak size of the open list.
+     *
+     * @param size - the size of the open list now.
+     */
+    public void open(long size) {
+        this.peakOpen = Math.max(this.peakOpen, size);
+    }
+
+    /**
+     * This method update the peak size of the closed list.
+     *
+     * @param size - the size of the closed list now.
+     */
+    public void closed(long size) {
+        this.peakClosed = Math.max(this.peakClosed, size);
+    }
+
+    /**
+     * This method record the threshold of a new iteration.
+     */
+    public void threshold(int t) {
+        this.thresholds.add(t);
+    }
+
+    /**
+     * This method record the cost of the solution.
+     */
+    public void solution(int cost) {
+        this.cost = cost;
+    }
+
+    /**
+     * This method add the counters of another search (a worker of a parallel search) to this one.
+     *
+     * @param other - the statistics of the worker.
+     */
+    public void add(SearchStats other) {
+        this.generated += other.generated;
+        this.expanded += other.expanded;
+        this.duplicates += other.duplicates;
+        this.reopened += other.reopened;
+        this.evaluations += other.evaluations;
+        this.peakOpen += other.peakOpen;
+        this.peakClosed += other.peakClosed;
+    }
+
+    /**
+     * This method end the phase that runs now and start a new one, the time of phases with the same name is summed.
+     *
+     * @param name - the name of the new phase, null to only end the phase that runs now.
+     * @return - the name of the phase that ended (null if there was none), so a short phase can go back to it.
+     */
+    public String phase(String name) {
+        String previous = this.phase;
+        if (previous != null) {
+            long[] time = this.phases.computeIfAbsent(previous, k -> new long[2]);
+            time[0] += System.nanoTime() - this.phaseWall;
+            time[1] += cpuTime() - this.phaseCpu;
+            this.phaseEvent.end();
+            if (this.phaseEvent.shouldCommit()) {
+                this.phaseEvent.algorithm = this.algorithm;
+                this.phaseEvent.phase = previous;
+                this.phaseEvent.commit();
+            }
+        }
+        this.phase = name;
+        if (name != null) {
+            this.phaseWall = System.nanoTime();
+            this.phaseCpu = cpuTime();
+            this.phaseEvent = new PhaseEvent();
+            this.phaseEvent.begin();
+        }
+        return previous;
+    }
+
+    /**
+     * This method end the search: it ends the last phase and records the JFR event of the search.
+     */
+    public void finish() {
+        phase(null);
+        SearchEvent event = new SearchEvent();
+        if (event.shouldCommit()) {
+            event.algorithm = this.algorithm;
+            event.generated = this.generated;
+            event.expanded = this.expanded;
+            event.duplicates = this.duplicates;
+            event.reopened = this.reopened;
+            event.evaluations = this.evaluations;
+            event.peakOpen = this.peakOpen;
+            event.peakClosed = this.peakClosed;
+            event.iterations = this.thresholds.size();
+            event.cost = this.cost;
+            event.commit();
+        }
+    }
+
+    /**
+     * This method return the CPU time of the current thread (the thread that runs the search, not its workers).
+     *
+     * @return - the time in nanoseconds, 0 if the JVM does not measure it.
+     */
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public long getExpanded() {
+        return expanded;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getReopened() {
+        return reopened;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    public long getPeakOpen() {
+        return peakOpen;
+    }
+
+    public long getPeakClosed() {
+        return peakClosed;
+    }
+
+    public List<Integer> getThresholds() {
+        return thresholds;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * This method return the statistics as one line of JSON.
+     *
+     * @return - the JSON object.
+     */
+    public String toJson() {
+        StringBuilder ans = new StringBuilder();
+        ans.append("{\"algorithm\":\"").append(this.algorithm.replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        ans.append(",\"solved\":").append(this.cost != -1);
+        ans.append(",\"cost\":").append(this.cost);
+        ans.append(",\"generated\":").append(this.generated);
+        ans.append(",\"expanded\":").append(this.expanded);
+        ans.append(",\"duplicates\":").append(this.duplicates);
+        ans.append(",\"reopened\":").append(this.reopened);
+        ans.append(",\"heuristicEvaluations\":").append(this.evaluations);
+        ans.append(",\"peakOpen\":").append(this.peakOpen);
+        ans.append(",\"peakClosed\":").append(this.peakClosed);
+        ans.append(",\"thresholds\":").append(this.thresholds.toString().replace(" ", ""));
+        ans.append(",\"phases\":{");
+        String separator = "";
+        for (Map.Entry<String, long[]> entry : this.phases.entrySet()) {
+            ans.append(separator).append('"').append(entry.getKey()).append("\":{\"wallNanos\":").append(entry.getValue()[0])
+                    .append(",\"cpuNanos\":").append(entry.getValue()[1]).append('}');
+            separator = ",";
+        }
+        ans.append("}}");
+        return ans.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    /**
+     * The JFR event of a whole search.
+     */
+    @Name("puzzle.Search")
+    @Label("Search")
+    @Category("Puzzle")
+    @Description("The statistics of one search")
+    static final class SearchEvent extends Event {
+        @Label("Algorithm")
+        String algorithm;
+        @Label("Generated")
+        long generated;
+        @Label("Expanded")
+        long expanded;
+        @Label("Duplicates")
+        long duplicates;
+        @Label("Reopened")
+        long reopened;
+        @Label("Heuristic Evaluations")
+        long evaluations;
+        @Label("Peak Open")
+        long peakOpen;
+        @Label("Peak Closed")
+        long peakClosed;
+        @Label("Iterations")
+        int iterations;
+        @Label("Cost")
+        int cost;
+    }
+
+    /**
+     * The JFR event of one phase of a search (its duration is the duration of the phase).
+     */
+    @Name("puzzle.Phase")
+    @Label("Search Phase")
+    @Category("Puzzle")
+    static final class PhaseEvent extends Event {
+        @Label("Algorithm")
+        String algorithm;
+        @Label("Phase")
+        String phase;
+    }
+}
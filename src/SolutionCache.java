@@ -0,0 +1,346 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a cache of solved instances that is kept between runs: (start, goal, cost model) to the path and
+ * its cost.
+ * Every solved instance is appended to a text file as one line, and the file is read again when the cache is opened.
+ * In memory every board on a cached path is indexed by the packed goal and the packed board, so an instance whose start
+ * is on a cached path to the same goal is answered by the rest of that path (a part of an optimal path is optimal), and
+ * the boards that were not used for the longest time are forgotten when the index is full (LRU).
+ * The paths are optimal only with an admissible heuristic, so only the answers of the optimal searches with an admissible
+ * heuristic (see isOptimal) are cached and answered from the cache; the weighted distance and conflicts heuristic of the
+ * games without --pdb can overestimate, and its answers are neither cached nor answered.
+ * <p>
+ * A line of the file:
+ * <pre>
+ * cost-model rows cols goal-panels start-panels cost path
+ * </pre>
+ * where the panels are separated by "," row after row and the path is the text of the answer ("4L-3&amp;7U-2D").
+ * A line that cannot be read (like the last line after a crash) or of another cost model is skipped.
+ *
+ * @Author Liav Weiss.
+ */
+public final class SolutionCache {
+
+    /**
+     * The cost model of the answers: a move of one panel costs 5, a move of two panels 6 to the left or the right and 7
+     * up or down. A change of the prices must change it, so the old lines are not used.
+     */
+    public static final String COST_MODEL = "5/6/7";
+
+    /**
+     * The default number of boards in the index.
+     */
+    public static final int DEFAULT_CAPACITY = 100000;
+
+    /**
+     * This class has two fields:
+     *
+     * @param file - the file of the cache.
+     * @param index - the goal and a board to the cached path it is on, in the order of their last use.
+     */
+    private final File file;
+    private final Map<Key, Place> index;
+
+    /**
+     * constructor, reads the lines of the file (if it exists).
+     *
+     * @param file     - the file of the cache, created on the first answer.
+     * @param capacity - the largest number of boards in the index.
+     */
+    public SolutionCache(File file, int capacity) throws IOException {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("the capacity of the cache must be positive: " + capacity);
+        }
+        this.file = file;
+        this.index = new LinkedHashMap<Key, Place>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Place> eldest) {
+                return size() > capacity;
+            }
+        };
+        List<String> lines = file.exists() ? Files.readAllLines(file.toPath(), StandardCharsets.UTF_8) : Collections.emptyList();
+        for (String line : lines) {
+            try {
+                add(line);
+            } catch (RuntimeException e) {      // a broken line, the others are still good.
+            }
+        }
+    }
+
+    /**
+     * This method check if the answers of an algorithm can be cached: the searches that end with an optimal path with an
+     * admissible heuristic (ProblemContext.isAdmissible), and not the searches that count moves (BFS, DFID, ...) or that
+     * may stop early (ARA*).
+     *
+     * @param algorithm - the algorithm line of the instance.
+     * @param context   - the goal tables of the instance (its heuristic).
+     * @return - true if its answers are cached.
+     */
+    public static boolean isOptimal(String algorithm, ProblemContext context) {
+        if (!context.isAdmissible()) {
+            return false;
+        }
+        return Portfolio.isMember(algorithm) || algorithm.equals("portfolio") || algorithm.startsWith("portfolio:");
+    }
+
+    /**
+     * This method look for an instance in the cache.
+     *
+     * @param start - the start board.
+     * @param goal  - the goal board.
+     * @return - the answer of the instance ("Num: 0", no state was generated), null if the start is not on a cached path.
+     */
+    public synchronized String lookup(int[][] start, int[][] goal) {
+        Place place = this.index.get(new Key(PackedBoard.of(goal), PackedBoard.of(start)));
+        if (place == null) {
+            return null;
+        }
+        int[] moves = place.solution.moves;
+        int[] suffix = new int[moves.length - place.at];
+        System.arraycopy(moves, place.at, suffix, 0, suffix.length);
+        return Move.join(suffix, suffix.length) + "\n" + "Num: 0\n" + "Cost: " + place.cost() + "\n";
+    }
+
+    /**
+     * This method add the answer of an instance to the cache and to its file, if it is a path of an optimal search (see
+     * isOptimal) to its only goal.
+     *
+     * @param problem - the instance.
+     * @param context - the goal tables of the instance (its heuristic).
+     * @param ans     - the answer of its search (a path, or "no path", "cancelled" ... that are not cached).
+     */
+    public synchronized void store(Problem problem, ProblemContext context, String ans) throws IOException {
+        if (!isOptimal(problem.getAlgorithm(), context) || problem.getGoalBoards().size() != 1) {
+            return;
+        }
+        String[] lines = ans.split("\n");
+        if (lines.length < 3 || lines[0].isEmpty() || lines[0].contains(" ") || !lines[2].startsWith("Cost: ")) {
+            return;
+        }
+        int[][] start = problem.getStartBoard();
+        String line = COST_MODEL + " " + start.length + " " + start[0].length + " " + panels(problem.getGoalBoard())
+                + " " + panels(start) + " " + lines[2].substring("Cost: ".length()) + " " + lines[0];
+        boolean added;
+        try {
+            added = add(line);
+        } catch (RuntimeException e) {      // the answer is not a path of the instance, it is not cached.
+            return;
+        }
+        if (added) {
+            Files.write(this.file.toPath(), Collections.singletonList(line), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    /**
+     * This method return the number of boards in the index.
+     *
+     * @return - the size of the index.
+     */
+    public synchronized int size() {
+        return this.index.size();
+    }
+
+    /**
+     * This method read a line of the file and index all the boards on its path.
+     *
+     * @param line - the line.
+     * @return - true if a board got a new or a cheaper path, false if the line is of another cost model or adds nothing.
+     */
+    private boolean add(String line) {
+        String[] parts = line.split(" ");
+        if (parts.length != 7 || !parts[0].equals(COST_MODEL)) {
+            return false;
+        }
+        int rows = Integer.parseInt(parts[1]);
+        int cols = Integer.parseInt(parts[2]);
+        PackedBoard goal = PackedBoard.of(board(parts[3], rows, cols));
+        PackedBoard board = PackedBoard.of(board(parts[4], rows, cols));
+        String[] names = parts[6].split("-");
+        Solution solution = new Solution(new int[names.length], new int[names.length + 1]);
+        PackedBoard[] boards = new PackedBoard[names.length];
+        for (int k = 0; k < names.length; k++) {
+            boards[k] = board;
+            solution.moves[k] = parse(names[k]);
+            board = slide(board, solution.moves[k]);
+            solution.costs[k + 1] = solution.costs[k] + price(solution.moves[k]);
+        }
+        if (!board.equals(goal) || solution.costs[names.length] != Integer.parseInt(parts[5])) {
+            throw new IllegalArgumentException("the path does not reach the goal at its cost: " + line);
+        }
+        boolean added = false;
+        for (int k = 0; k < boards.length; k++) {
+            Key key = new Key(goal, boards[k]);
+            Place old = this.index.get(key);
+            Place place = new Place(solution, k);
+            if (old == null || place.cost() < old.cost()) {
+                this.index.put(key, place);
+                added = true;
+            }
+        }
+        return added;
+    }
+
+    /**
+     * This method return the code of the text of a move ("4L", "3&amp;7U").
+     */
+    private static int parse(String name) {
+        int direction = "LURD".indexOf(name.charAt(name.length() - 1));
+        if (direction < 0) {
+            throw new IllegalArgumentException("bad move: " + name);
+        }
+        String[] nums = name.substring(0, name.length() - 1).split("&");
+        if (nums.length == 1) {
+            return Move.of(direction, Integer.parseInt(nums[0]));
+        }
+        return Move.of(direction, Integer.parseInt(nums[0]), Integer.parseInt(nums[1]));
+    }
+
+    /**
+     * This method return the board after a move, the moving panels must move into empty panels.
+     */
+    private static PackedBoard slide(PackedBoard board, int move) {
+        int cols = board.getCols();
+        int direction = Move.direction(move);
+        int step = direction == Move.LEFT ? -1 : direction == Move.RIGHT ? 1 : direction == Move.UP ? -cols : cols;
+        int from1 = movingCell(board, Move.number(move), step, -1);
+        if (!Move.isPair(move)) {
+            return board.slide(from1, from1 + step);
+        }
+        int from2 = movingCell(board, Move.second(move), step, from1);
+        return board.slide(from1, from1 + step, from2, from2 + step);
+    }
+
+    /**
+     * This method return the cell of a panel of a number that can move one step into an empty panel (the panels of the
+     * same number give the same board).
+     *
+     * @param board - the board.
+     * @param num   - the number.
+     * @param step  - the step of the move (1, -1, cols or -cols).
+     * @param other - the cell of the other panel of a move of two panels, -1 for none.
+     * @return - the cell.
+     */
+    private static int movingCell(PackedBoard board, int num, int step, int other) {
+        int cols = board.getCols();
+        for (int from = 0; from < board.size(); from++) {
+            int to = from + step;
+            if (from != other && board.get(from) == num && to >= 0 && to < board.size() && to != other + step
+                    && (Math.abs(step) != 1 || to / cols == from / cols) && board.get(to) == 0) {
+                return from;
+            }
+        }
+        throw new IllegalArgumentException("the panel " + num + " cannot move");
+    }
+
+    /**
+     * This method return the price of a move (see COST_MODEL).
+     */
+    private static int price(int move) {
+        if (!Move.isPair(move)) {
+            return 5;
+        }
+        int direction = Move.direction(move);
+        return direction == Move.LEFT || direction == Move.RIGHT ? 6 : 7;
+    }
+
+    /**
+     * This method return the panels of a board separated by ",", row after row.
+     */
+    private static String panels(int[][] board) {
+        StringBuilder ans = new StringBuilder();
+        for (int[] row : board) {
+            for (int num : row) {
+                if (ans.length() > 0) {
+                    ans.append(',');
+                }
+                ans.append(num);
+            }
+        }
+        return ans.toString();
+    }
+
+    /**
+     * This method return the board of the panels of a line.
+     */
+    private static int[][] board(String panels, int rows, int cols) {
+        String[] nums = panels.split(",");
+        if (nums.length != rows * cols) {
+            throw new IllegalArgumentException("the board is not " + rows + "x" + cols + ": " + panels);
+        }
+        int[][] ans = new int[rows][cols];
+        for (int k = 0; k < nums.length; k++) {
+            ans[k / cols][k % cols] = Integer.parseInt(nums[k]);
+        }
+        return ans;
+    }
+
+    /**
+     * This class holds a cached path: its moves and costs[k], the cost of its first k moves.
+     */
+    private static final class Solution {
+        private final int[] moves;
+        private final int[] costs;
+
+        private Solution(int[] moves, int[] costs) {
+            this.moves = moves;
+            this.costs = costs;
+        }
+    }
+
+    /**
+     * This class holds a board of the index: the path it is on and its place on the path (the moves before it).
+     */
+    private static final class Place {
+        private final Solution solution;
+        private final int at;
+
+        private Place(Solution solution, int at) {
+            this.solution = solution;
+            this.at = at;
+        }
+
+        /**
+         * This method return the cost of the rest of the path, from the board to the goal.
+         */
+        private int cost() {
+            return this.solution.costs[this.solution.moves.length] - this.solution.costs[this.at];
+        }
+    }
+
+    /**
+     * This class is the key of the index: the goal and a board.
+     */
+    private static final class Key {
+        private final PackedBoard goal;
+        private final PackedBoard board;
+
+        private Key(PackedBoard goal, PackedBoard board) {
+            this.goal = goal;
+            this.board = board;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.goal.hashCode() + this.board.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return this.goal.equals(other.goal) && this.board.equals(other.board);
+        }
+    }
+}
@@ -10,46 +10,74 @@ public class State implements Comparable<State> {
     /**
      * Each state will have several fields:
      *
-     * @param board - The game board in the given state.
+     * @param board - The game board in the given state(packed, also used as the identity key of the state).
      * @param cost - The price it cost us to get from the initial state to the new state.
      * @param pre - Which "state" he came from.
-     * @param strPath - string ot the path from start to the goal state.
      * @param counter - to increase the statID every time.
      * @param stateID - Each situation will have its own ID  to use in  the priority queue,
      * * in a situation where two states have equality in their costs.
-     * @param goalStateBoard - the target State, use for priority queue and Manhattan Distance heuristic function.
-     * @param strPre - The action that brought  the state.
-     * @param tag - for IDA* algorithm(it symbolizes whether the state is marked as "out" or not).
+     * @param context - the data shared by all the states of the game(goal places and distance tables),
+     * use for priority queue and Manhattan Distance heuristic function.
+     * @param move - The action that brought the state, a Move code (Move.NONE for the initial state).
      * @param i1 - The first row that containing an empty panel.
      * @param j1 - The first col that containing an empty panel.
      * @param i2 - The second row that containing an empty panel.
      * @param j2 - The second col that containing an empty panel.
+     * @param distance - The sum of the Manhattan distances of the panels (updated from pre on every move).
+     * @param conflicts - The number of linear conflicts on the board (updated from pre on every move).
+     * @param heuristic - The value of the heuristic function, computed from distance and conflicts.
      */
-    private int[][] board;
+    private PackedBoard board;
     private int cost;
     private State pre;
-    private String strPath;
     private static int counter = 0;
     private int stateID;
-    private int[][] goalStateBoard;
-    private String strPre;
-    private String tag;
+    private ProblemContext context;
+    private int move;
     private int i1;
     private int j1;
     private int i2;
     private int j2;
-
+    private int distance;
+    private int conflicts;
+    private int heuristic;
 
     /**
      * Constructor for a game with two empty panels.
      */
-    public State(int[][] board, int cost, State pre, int[][] goal, int i1, int j1, int i2, int j2) {
+    public State(int[][] board, int cost, State pre, ProblemContext context, int i1, int j1, int i2, int j2) {
+        this(PackedBoard.of(board), cost, pre, context, i1, j1, i2, j2);
+    }
+
+    /**
+     * Constructor for a game with two empty panels, from a packed board.
+     */
+    public State(PackedBoard board, int cost, State pre, ProblemContext context, int i1, int j1, int i2, int j2) {
+        this.board = board;
+        this.cost = cost;
+        this.pre = pre;
+        this.context = context;
+        this.move = Move.NONE;
+        this.i1 = i1;
+        this.j1 = j1;
+        this.i2 = i2;
+        this.j2 = j2;
+        this.stateID = counter++;
+        int[] cells = cells();
+        this.distance = context.distanceSum(cells, twoEmpty());
+        this.conflicts = context.conflicts(cells);
+        this.heuristic = context.estimates() ? context.estimate(board) : evaluate();
+    }
+
+    /**
+     * Constructor for a state created by a move from pre, the heuristic is updated later by updateHeuristic.
+     */
+    private State(State pre, PackedBoard board, int cost, int i1, int j1, int i2, int j2) {
         this.board = board;
         this.cost = cost;
         this.pre = pre;
-        this.goalStateBoard = goal;
-        this.strPre = "";
-        this.tag = "";
+        this.context = pre.context;
+        this.move = Move.NONE;
         this.i1 = i1;
         this.j1 = j1;
         this.i2 = i2;
@@ -62,7 +90,7 @@ public class State implements Comparable<State> {
      *
      * @return - The board.
      */
-    public int[][] getBoard() {
+    public PackedBoard getBoard() {
         return this.board;
     }
 
@@ -85,33 +113,6 @@ public class State implements Comparable<State> {
     }
 
 
-    /**
-     * This method return string how we got to this state.
-     *
-     * @return - strPath.
-     */
-    public String getStrPath() {
-        return this.strPath;
-    }
-
-    /**
-     * This method return the tag string.
-     *
-     * @return - tag.
-     */
-    public String getTag() {
-        return this.tag;
-    }
-
-    /**
-     * This method set the tag to be s.
-     *
-     * @param s - the new tag.
-     */
-    public void setTag(String s) {
-        this.tag = s;
-    }
-
     /**
      * This method return the ID of this State.
      *
@@ -122,28 +123,21 @@ public class State implements Comparable<State> {
     }
 
     /**
-     * This method return the goal state of this State.
+     * This method return the data shared by all the states of the game.
      *
-     * @return - goal state.
+     * @return - the problem context.
      */
-    public int[][] getGoal() {
-        return this.goalStateBoard;
+    public ProblemContext getContext() {
+        return this.context;
     }
 
     /**
      * This method return the action that brought the state.
      *
-     * @return - strPre.
-     */
-    public String getStrPre() {
-        return this.strPre;
-    }
-
-    /**
-     * This method set the strPre.
+     * @return - the Move code, Move.NONE for the initial state.
      */
-    public void setStrPre(String s) {
-        this.strPre = s;
+    public int getMove() {
+        return this.move;
     }
 
     /**
@@ -186,20 +180,12 @@ public class State implements Comparable<State> {
     }
 
     /**
-     * This method makes a deep copy to the board.
+     * This method return the index of the panel (i,j) on the packed board.
      *
-     * @return - New board.
-     */
-    private int[][] deepCopyArr(int[][] arr) {
-        int row = arr.length;
-        int col = arr[0].length;
-        int[][] ans = new int[row][col];
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < col; j++) {
-                ans[i][j] = arr[i][j];
-            }
-        }
-        return ans;
+     * @return - i * cols + j.
+     */
+    private int cell(int i, int j) {
+        return i * this.board.getCols() + j;
     }
 
     /**
@@ -218,214 +204,61 @@ public class State implements Comparable<State> {
 
 
     /**
-     * This method return a new state after moving one of the components from the board left.
-     *
-     * @param board - The existing board.
-     * @param i     - The row that containing an empty panel.
-     * @param j     - The col that containing an empty panel.
-     * @return - The new state, null if it failed.
-     */
-    private State moveLeft(int[][] board, int i, int j, int i2, int j2) {
-        if (j == this.board[0].length - 1) {
-            return null;
-        }
-        if (board[i][j + 1] == 0) {
-            return null;
-        }
-        if (this.strPre.equals(this.board[i][j + 1] + "R") || (this.strPre.contains("&" + this.board[i][j + 1] + "R") || (this.strPre.substring(0).equals(this.board[i][j + 1])) && this.strPre.substring(3).equals("R"))) {
-            return null;
-        }
-        State ans = new State(deepCopyArr(board), this.cost + 5, this, this.goalStateBoard, i, j + 1, i2, j2);
-        ans.setStrPre(this.board[i][j + 1] + "L");
-        ans.board[i][j] = ans.board[i][j + 1];
-        ans.board[i][j + 1] = 0;
-        ans.strPath = ans.board[i][j] + "L";
-        return ans;
-    }
-
-    /**
-     * This method return a new state after moving one of the components from the board right.
-     *
-     * @param board - The existing board.
-     * @param i     - The row that containing an empty panel.
-     * @param j     - The col that containing an empty panel.
-     * @return - The new state, null if it failed.
-     */
-    private State moveRight(int[][] board, int i, int j, int i2, int j2) {
-        if (j == 0) {
-            return null;
-        }
-        if (board[i][j - 1] == 0) {
-            return null;
-        }
-        if (this.strPre.equals(this.board[i][j - 1] + "L") || (this.strPre.contains("&" + this.board[i][j - 1] + "L") || (this.strPre.substring(0).equals(this.board[i][j - 1])) && this.strPre.substring(3).equals("L"))) {
-            return null;
-        }
-        State ans = new State(deepCopyArr(board), this.cost + 5, this, this.goalStateBoard, i, j - 1, i2, j2);
-        ans.setStrPre(this.board[i][j - 1] + "R");
-        ans.board[i][j] = ans.board[i][j - 1];
-        ans.board[i][j - 1] = 0;
-        ans.strPath = ans.board[i][j] + "R";
-        return ans;
-    }
-
-    /**
-     * This method return a new state after moving one of the components from the board up.
-     *
-     * @param board - The existing board.
-     * @param i     - The row that containing an empty panel.
-     * @param j     - The col that containing an empty panel.
-     * @return - The new state, null if it failed.
-     */
-    private State moveUp(int[][] board, int i, int j, int i2, int j2) {
-        if (i == board.length - 1) {
-            return null;
-        }
-        if (board[i + 1][j] == 0) {
-            return null;
-        }
-        if (this.strPre.equals(this.board[i + 1][j] + "D") || (this.strPre.contains("&" + this.board[i + 1][j] + "D") || (this.strPre.substring(0).equals(this.board[i + 1][j])) && this.strPre.substring(3).equals("D"))) {
-            return null;
-        }
-        State ans = new State(deepCopyArr(board), this.cost + 5, this, this.goalStateBoard, i + 1, j, i2, j2);
-        ans.setStrPre(this.board[i + 1][j] + "U");
-        ans.board[i][j] = ans.board[i + 1][j];
-        ans.board[i + 1][j] = 0;
-        ans.strPath = ans.board[i][j] + "U";
-        return ans;
-    }
-
-    /**
-     * This method return a new state after moving one of the components from the board down.
-     *
-     * @param board - The existing board.
-     * @param i     - The row that containing an empty panel.
-     * @param j     - The col that containing an empty panel.
-     * @return - The new state, null if it failed.
-     */
-    private State moveDown(int[][] board, int i, int j, int i2, int j2) {
-        if (i == 0) {
-            return null;
-        }
-        if (board[i - 1][j] == 0) {
-            return null;
-        }
-        if (this.strPre.equals(this.board[i - 1][j] + "U") || (this.strPre.contains("&" + this.board[i - 1][j] + "U") || (this.strPre.substring(0).equals(this.board[i - 1][j])) && this.strPre.substring(3).equals("U"))) {
-            return null;
-        }
-        State ans = new State(deepCopyArr(board), this.cost + 5, this, this.goalStateBoard, i - 1, j, i2, j2);
-        ans.setStrPre(this.board[i - 1][j] + "D");
-        ans.board[i][j] = ans.board[i - 1][j];
-        ans.board[i - 1][j] = 0;
-        ans.strPath = ans.board[i][j] + "D";
-        return ans;
-    }
-
-    /**
-     * This method return a new state after moving two close panels from the board up.
-     *
-     * @param board - The existing board.
-     * @param i1    - The first row that containing an empty panel.
-     * @param j1    - The first col that containing an empty panel.
-     * @param i2    - The second row that containing an empty panel.
-     * @param j2    - The second col that containing an empty panel.
-     * @return - The new state, null if it failed.
-     */
-    private State moveLeftTwo(int[][] board, int i1, int j1, int i2, int j2) {
-        if (j1 == board[0].length - 1) {
-            return null;
-        }
-        if (this.strPre.equals(this.board[i1][j1 + 1] + "&" + this.board[i2][j2 + 1] + "R")) {
-            return null;
-        }
-        State ans = new State(deepCopyArr(board), this.cost + 6, this, this.goalStateBoard, i1, j1 + 1, i2, j2 + 1);
-        ans.setStrPre(this.board[i1][j1 + 1] + "&" + this.board[i2][j2 + 1] + "L");
-        ans.board[i1][j1] = ans.board[i1][j1 + 1];
-        ans.board[i1][j1 + 1] = 0;
-        ans.board[i2][j2] = ans.board[i2][j2 + 1];
-        ans.board[i2][j2 + 1] = 0;
-        ans.strPath = ans.board[i1][j1] + "&" + ans.board[i2][j2] + "L";
-        return ans;
-    }
-
-    /**
-     * This method return a new state after moving two close panels from the board up.
-     *
-     * @param board - The existing board.
-     * @param i1    - The first row that containing an empty panel.
-     * @param j1    - The first col that containing an empty panel.
-     * @param i2    - The second row that containing an empty panel.
-     * @param j2    - The second col that containing an empty panel.
-     * @return - The new state, null if it failed.
-     */
-    private State moveRightTwo(int[][] board, int i1, int j1, int i2, int j2) {
-        if (j1 == 0) {
-            return null;
-        }
-        if (this.strPre.equals(this.board[i1][j1 - 1] + "&" + this.board[i2][j2 - 1] + "L")) {
-            return null;
-        }
-        State ans = new State(deepCopyArr(board), this.cost + 6, this, this.goalStateBoard, i1, j1 - 1, i2, j2 - 1);
-        ans.setStrPre(this.board[i1][j1 - 1] + "&" + this.board[i2][j2 - 1] + "R");
-        ans.board[i1][j1] = ans.board[i1][j1 - 1];
-        ans.board[i1][j1 - 1] = 0;
-        ans.board[i2][j2] = ans.board[i2][j2 - 1];
-        ans.board[i2][j2 - 1] = 0;
-        ans.strPath = ans.board[i1][j1] + "&" + ans.board[i2][j2] + "R";
-        return ans;
-    }
-
-    /**
-     * This method return a new state after moving two close panels from the board up.
+     * This method return a new state after moving one of the components from the board into the empty panel (i, j).
      *
      * @param board - The existing board.
-     * @param i1    - The first row that containing an empty panel.
-     * @param j1    - The first col that containing an empty panel.
-     * @param i2    - The second row that containing an empty panel.
-     * @param j2    - The second col that containing an empty panel.
-     * @return - The new state, null if it failed.
-     */
-    private State moveUpTwo(int[][] board, int i1, int j1, int i2, int j2) {
-        if (i1 == board.length - 1) {
+     * @param slide - A legal move into the empty panel (ProblemContext.slides): the direction | the panel of the number << 2.
+     * @param i     - The row that containing the empty panel.
+     * @param j     - The col that containing the empty panel.
+     * @param i2    - The row of the other empty panel (-1 if there is none).
+     * @param j2    - The col of the other empty panel (-1 if there is none).
+     * @return - The new state, null if it failed (the panel is empty or the move undoes the last move).
+     */
+    private State move(PackedBoard board, int slide, int i, int j, int i2, int j2) {
+        int from = slide >>> 2;
+        int num = board.get(from);
+        if (num == 0) {
             return null;
         }
-        if (this.strPre.equals(this.board[i1 + 1][j1] + "&" + this.board[i2 + 1][j2] + "D")) {
+        int code = Move.of(Move.direction(slide), num);
+        if (Move.undoes(code, this.move)) {
             return null;
         }
-        State ans = new State(deepCopyArr(board), this.cost + 7, this, this.goalStateBoard, i1 + 1, j1, i2 + 1, j2);
-        ans.setStrPre(this.board[i1 + 1][j1] + "&" + this.board[i2 + 1][j2] + "U");
-        ans.board[i1][j1] = ans.board[i1 + 1][j1];
-        ans.board[i1 + 1][j1] = 0;
-        ans.board[i2][j2] = ans.board[i2 + 1][j2];
-        ans.board[i2 + 1][j2] = 0;
-        ans.strPath = ans.board[i1][j1] + "&" + ans.board[i2][j2] + "U";
+        int to = cell(i, j);
+        int cols = board.getCols();
+        State ans = new State(this, board.slide(from, to), this.cost + 5, from / cols, from % cols, i2, j2);
+        ans.updateHeuristic(from, to, -1, -1);
+        ans.move = code;
         return ans;
     }
 
     /**
-     * This method return a new state after moving two close panels from the board down.
+     * This method return a new state after moving two close panels from the board into the two empty panels.
+     * Two panels move left or right for 6, up or down for 7.
      *
      * @param board - The existing board.
+     * @param slide - A legal move into the first empty panel (ProblemContext.slides), the second panel moves the same way.
      * @param i1    - The first row that containing an empty panel.
      * @param j1    - The first col that containing an empty panel.
      * @param i2    - The second row that containing an empty panel.
      * @param j2    - The second col that containing an empty panel.
-     * @return - The new state, null if it failed.
-     */
-    private State moveDownTwo(int[][] board, int i1, int j1, int i2, int j2) {
-        if (i1 == 0) {
-            return null;
-        }
-        if (this.strPre.equals(this.board[i1 - 1][j1] + "&" + this.board[i2 - 1][j2] + "U")) {
+     * @return - The new state, null if it failed (the move undoes the last move).
+     */
+    private State moveTwo(PackedBoard board, int slide, int i1, int j1, int i2, int j2) {
+        int direction = Move.direction(slide);
+        int to1 = cell(i1, j1);
+        int to2 = cell(i2, j2);
+        int from1 = slide >>> 2;
+        int from2 = from1 - to1 + to2;
+        int code = Move.of(direction, board.get(from1), board.get(from2));
+        if (Move.undoes(code, this.move)) {
             return null;
         }
-        State ans = new State(deepCopyArr(board), this.cost + 7, this, this.goalStateBoard, i1 - 1, j1, i2 - 1, j2);
-        ans.setStrPre(this.board[i1 - 1][j1] + "&" + this.board[i2 - 1][j2] + "D");
-        ans.board[i1][j1] = ans.board[i1 - 1][j1];
-        ans.board[i1 - 1][j1] = 0;
-        ans.board[i2][j2] = ans.board[i2 - 1][j2];
-        ans.board[i2 - 1][j2] = 0;
-        ans.strPath = ans.board[i1][j1] + "&" + ans.board[i2][j2] + "D";
+        int cols = board.getCols();
+        int price = direction == Move.LEFT || direction == Move.RIGHT ? 6 : 7;
+        State ans = new State(this, board.slide(from1, to1, from2, to2), this.cost + price, from1 / cols, from1 % cols, from2 / cols, from2 % cols);
+        ans.updateHeuristic(from1, to1, from2, to2);
+        ans.move = code;
         return ans;
     }
 
@@ -437,6 +270,8 @@ public class State implements Comparable<State> {
      * 2L, 2U, 2R, 2D.
      * L, U, R, D.
      * in case were (i1,j1) is lefter or upper then (j1,j2) its will do first (i1,j1).
+     * The legal moves of every empty panel are taken from the table of the game (ProblemContext.slides), and every
+     * move creates a different board, so no state is added twice.
      *
      * @param board - The given board.
      * @param i1    - The row that containing an empty panel.
@@ -445,215 +280,67 @@ public class State implements Comparable<State> {
      * @param j2    - The second col that containing an empty panel.
      * @return
      */
-    public ArrayList<State> performingOperators(int[][] board, int i1, int j1, int i2, int j2) {
+    public ArrayList<State> performingOperators(PackedBoard board, int i1, int j1, int i2, int j2) {
         int whichOperator = ifClose(i1, j1, i2, j2);
-        ArrayList<State> stateList = new ArrayList<>();
-        if (whichOperator == 1) {
-            State left = moveLeftTwo(board, i1, j1, i2, j2);
-            State right = moveRightTwo(board, i1, j1, i2, j2);
-            if (!stateList.contains(left) && left != null) {
-                stateList.add(left);
-            }
-            if (!stateList.contains(right) && right != null) {
-                stateList.add(right);
-            }
-
-        } else if (whichOperator == -1) {
-            State up = moveUpTwo(board, i1, j1, i2, j2);
-            State down = moveDownTwo(board, i1, j1, i2, j2);
-            if (!stateList.contains(up) && up != null) {
-                stateList.add(up);
-            }
-            if (!stateList.contains(down) && down != null) {
-                stateList.add(down);
+        ArrayList<State> stateList = new ArrayList<>(Move.MAX_MOVES);
+        if (whichOperator != 0) {
+            for (int slide : this.context.slides(cell(i1, j1))) {
+                int direction = Move.direction(slide);
+                boolean sideways = direction == Move.LEFT || direction == Move.RIGHT;
+                if (sideways == (whichOperator == 1)) {   // close vertically: 2L, 2R, close horizontally: 2U, 2D.
+                    add(stateList, moveTwo(board, slide, i1, j1, i2, j2));
+                }
             }
         }
-
         if (i2 != -1 && i1 != -1) {  // meaning there is two empty panels.
-            if (i1 < i2) {           //(i1,j1) is upper then (j1,j2) its will do first (i1,j1).
-                State left = moveLeft(board, i1, j1, i2, j2);
-                State up = moveUp(board, i1, j1, i2, j2);
-                State right = moveRight(board, i1, j1, i2, j2);
-                State down = moveDown(board, i1, j1, i2, j2);
-                if (!stateList.contains(left) && left != null) {
-                    stateList.add(left);
-                }
-                if (!stateList.contains(up) && up != null) {
-                    stateList.add(up);
-                }
-                if (!stateList.contains(right) && right != null) {
-                    stateList.add(right);
-                }
-                if (!stateList.contains(down) && down != null) {
-                    stateList.add(down);
-                }
-                State left2 = moveLeft(board, i2, j2, i1, j1);
-                State up2 = moveUp(board, i2, j2, i1, j1);
-                State right2 = moveRight(board, i2, j2, i1, j1);
-                State down2 = moveDown(board, i2, j2, i1, j1);
-                if (!stateList.contains(left2) && left2 != null) {
-                    stateList.add(left2);
-                }
-                if (!stateList.contains(up2) && up2 != null) {
-                    stateList.add(up2);
-                }
-                if (!stateList.contains(right2) && right2 != null) {
-                    stateList.add(right2);
-                }
-                if (!stateList.contains(down2) && down2 != null) {
-                    stateList.add(down2);
-                }
-            } else if (i1 == i2) {
-                if (j1 < j2) {     //(i1,j1) is lefter then (i2,j2) its will do first (i1,j1).
-                    State left = moveLeft(board, i1, j1, i2, j2);
-                    State up = moveUp(board, i1, j1, i2, j2);
-                    State right = moveRight(board, i1, j1, i2, j2);
-                    State down = moveDown(board, i1, j1, i2, j2);
-                    if (!stateList.contains(left) && left != null) {
-                        stateList.add(left);
-                    }
-                    if (!stateList.contains(up) && up != null) {
-                        stateList.add(up);
-                    }
-                    if (!stateList.contains(right) && right != null) {
-                        stateList.add(right);
-                    }
-                    if (!stateList.contains(down) && down != null) {
-                        stateList.add(down);
-                    }
-                    State left2 = moveLeft(board, i2, j2, i1, j1);
-                    State up2 = moveUp(board, i2, j2, i1, j1);
-                    State right2 = moveRight(board, i2, j2, i1, j1);
-                    State down2 = moveDown(board, i2, j2, i1, j1);
-                    if (!stateList.contains(left2) && left2 != null) {
-                        stateList.add(left2);
-                    }
-                    if (!stateList.contains(up2) && up2 != null) {
-                        stateList.add(up2);
-                    }
-                    if (!stateList.contains(right2) && right2 != null) {
-                        stateList.add(right2);
-                    }
-                    if (!stateList.contains(down2) && down2 != null) {
-                        stateList.add(down2);
-                    }
-                } else {      //(i2,j2) is lefter then (i1,j1) its will do first (i2,j2)
-                    State left2 = moveLeft(board, i2, j2, i1, j1);
-                    State up2 = moveUp(board, i2, j2, i1, j1);
-                    State right2 = moveRight(board, i2, j2, i1, j1);
-                    State down2 = moveDown(board, i2, j2, i1, j1);
-                    if (!stateList.contains(left2) && left2 != null) {
-                        stateList.add(left2);
-                    }
-                    if (!stateList.contains(up2) && up2 != null) {
-                        stateList.add(up2);
-                    }
-                    if (!stateList.contains(right2) && right2 != null) {
-                        stateList.add(right2);
-                    }
-                    if (!stateList.contains(down2) && down2 != null) {
-                        stateList.add(down2);
-                    }
-                    State left = moveLeft(board, i1, j1, i2, j2);
-                    State up = moveUp(board, i1, j1, i2, j2);
-                    State right = moveRight(board, i1, j1, i2, j2);
-                    State down = moveDown(board, i1, j1, i2, j2);
-                    if (!stateList.contains(left) && left != null) {
-                        stateList.add(left);
-                    }
-                    if (!stateList.contains(up) && up != null) {
-                        stateList.add(up);
-                    }
-                    if (!stateList.contains(right) && right != null) {
-                        stateList.add(right);
-                    }
-                    if (!stateList.contains(down) && down != null) {
-                        stateList.add(down);
-                    }
-                }
-            } else {   //(i2,j2) is upper then (i1,j1) its will do first (i2,j2)
-                State left2 = moveLeft(board, i2, j2, i1, j1);
-                State up2 = moveUp(board, i2, j2, i1, j1);
-                State right2 = moveRight(board, i2, j2, i1, j1);
-                State down2 = moveDown(board, i2, j2, i1, j1);
-                if (!stateList.contains(left2) && left2 != null) {
-                    stateList.add(left2);
-                }
-                if (!stateList.contains(up2) && up2 != null) {
-                    stateList.add(up2);
-                }
-                if (!stateList.contains(right2) && right2 != null) {
-                    stateList.add(right2);
-                }
-                if (!stateList.contains(down2) && down2 != null) {
-                    stateList.add(down2);
-                }
-                State left = moveLeft(board, i1, j1, i2, j2);
-                State up = moveUp(board, i1, j1, i2, j2);
-                State right = moveRight(board, i1, j1, i2, j2);
-                State down = moveDown(board, i1, j1, i2, j2);
-                if (!stateList.contains(left) && left != null) {
-                    stateList.add(left);
-                }
-                if (!stateList.contains(up) && up != null) {
-                    stateList.add(up);
-                }
-                if (!stateList.contains(right) && right != null) {
-                    stateList.add(right);
-                }
-                if (!stateList.contains(down) && down != null) {
-                    stateList.add(down);
-                }
+            if (i1 < i2 || (i1 == i2 && j1 < j2)) {    //(i1,j1) is upper or lefter then (i2,j2) its will do first (i1,j1).
+                moveAll(board, stateList, i1, j1, i2, j2);
+                moveAll(board, stateList, i2, j2, i1, j1);
+            } else {
+                moveAll(board, stateList, i2, j2, i1, j1);
+                moveAll(board, stateList, i1, j1, i2, j2);
             }
         } else {   // there is one empty panel on the board.
-            State left = moveLeft(board, i1, j1, i2, j2);
-            State up = moveUp(board, i1, j1, i2, j2);
-            State right = moveRight(board, i1, j1, i2, j2);
-            State down = moveDown(board, i1, j1, i2, j2);
-            if (!stateList.contains(left) && left != null) {
-                stateList.add(left);
-            }
-            if (!stateList.contains(up) && up != null) {
-                stateList.add(up);
-            }
-            if (!stateList.contains(right) && right != null) {
-                stateList.add(right);
-            }
-            if (!stateList.contains(down) && down != null) {
-                stateList.add(down);
-            }
+            moveAll(board, stateList, i1, j1, i2, j2);
         }
-
         return stateList;
     }
 
+    /**
+     * This method add the states of all the legal moves into the empty panel (i, j), in the order L, U, R, D.
+     */
+    private void moveAll(PackedBoard board, ArrayList<State> stateList, int i, int j, int i2, int j2) {
+        for (int slide : this.context.slides(cell(i, j))) {
+            add(stateList, move(board, slide, i, j, i2, j2));
+        }
+    }
+
+    /**
+     * This method add a state to the list, if the move did not fail.
+     */
+    private static void add(ArrayList<State> stateList, State s) {
+        if (s != null) {
+            stateList.add(s);
+        }
+    }
+
 
     /**
      * A heuristic function(Manhattan distance), which measures approximately the distance of each current state to the goal state.
      * The distance between two panel  (i1, j1), (i2, j2) measured by |i1 - i2| + |j1 - j2| and the function Summarize how far each
      * square is from its place in the target position.
      * The heuristic function check if there is a conflict between two panels or more with the linear conflict function.
+     * This method computes the value from scratch, the searches use getHeuristic() which is updated on every move.
      *
-     * @param goal - the target state board.
      */
-    public int manhattanDistance(int[][] goal) {
+    public int manhattanDistance() {
+        int weight = twoEmpty() ? 3 : 5;
         int ans = 0;
-        if (i1 == -1 || i2 == -1 || j1 == -1 || j2 == -1) {
-            for (int i = 0; i < this.board.length; i++) {
-                for (int j = 0; j < this.board[i].length; j++) {
-                    int[] goalPlace = searchGoalNumberPlace(goal, this.board[i][j]);
-                    ans += (this.linearConflict(this.goalStateBoard) * 2 * 5);
-                    ans += ((Math.abs(i - goalPlace[0]) + Math.abs(j - goalPlace[1])) * 5);
-                }
-            }
-        } else {
-            for (int i = 0; i < this.board.length; i++) {
-                for (int j = 0; j < this.board[i].length; j++) {
-                    if (this.board[i][j] != 0) {
-                        int[] goalPlace = searchGoalNumberPlace(goal, this.board[i][j]);
-                        ans += (this.linearConflict(this.goalStateBoard) * 2 * 3);
-                        ans += ((Math.abs(i - goalPlace[0]) + Math.abs(j - goalPlace[1])) * 3);
-                    }
+        for (int i = 0; i < this.board.getRows(); i++) {
+            for (int j = 0; j < this.board.getCols(); j++) {
+                if (this.board.get(i, j) != 0 || !twoEmpty()) {
+                    ans += (this.linearConflict() * 2 * weight);
+                    ans += (this.context.distance(this.board.get(i, j), cell(i, j)) * weight);
                 }
             }
         }
@@ -661,75 +348,97 @@ public class State implements Comparable<State> {
     }
 
     /**
-     * This method check if Two panels p1 and p2 are in a linear conflict if p1 and p2 are in the same line, the goal positions
-     * of p1 and p2 are both in that line, p1 is to the right of p2 and goal position of p1 is to the left of the goal position of p2.
-     * and return the number of conflicts between different panels.
+     * This method return the value of the heuristic function(same as manhattanDistance(), or the pattern database
+     * heuristic when the game has one), without computing it again.
      *
-     * @param goal - the target state board.
-     * @return
+     * @return - h(state).
      */
-    private int linearConflict(int[][] goal) {
-        int conflict = 0;
-        for (int i = 0; i < this.board.length; i++) {
-            for (int j = 0; j < this.board[i].length; j++) {
-                if (this.board[i][j] != 0) {
-                    int[] goalPlace = searchGoalNumberPlace(goal, this.board[i][j]);
-                    int rowGoal = goalPlace[0];
-                    int colGoal = goalPlace[1];
-                    if (i == rowGoal) {
-                        for (int k = j + 1; k < this.board[i].length; k++) {
-                            int[] goalPlace2 = searchGoalNumberPlace(goal, this.board[i][k]);
-                            int rowGoal2 = goalPlace2[0];
-                            int colGoal2 = goalPlace2[1];
-                            if (rowGoal == rowGoal2) {
-                                if (colGoal2 < colGoal) {
-                                    conflict++;
-                                    break;
-                                }
-                            }
-                        }
-                    } else if (j == colGoal) {
-                        for (int k = i + 1; k < this.board.length; k++) {
-                            int[] goalPlace3 = searchGoalNumberPlace(goal, this.board[k][j]);
-                            int rowGoal3 = goalPlace3[0];
-                            int colGoal3 = goalPlace3[1];
-                            if (colGoal == colGoal3) {
-                                if (rowGoal3 < rowGoal) {
-                                    conflict++;
-                                    break;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return conflict;
+    public int getHeuristic() {
+        return this.heuristic;
     }
 
+    /**
+     * This method return true if there are two empty panels on the board.
+     *
+     * @return - true for a game with two empty panels.
+     */
+    private boolean twoEmpty() {
+        return !(i1 == -1 || i2 == -1 || j1 == -1 || j2 == -1);
+    }
 
     /**
-     * This method find the place of the row and the col on the goal board
+     * This method compute the heuristic from the distance and the conflicts fields (see ProblemContext.evaluate).
      *
-     * @param goal - the goal board.
-     * @param num  - the number we search in the goal board.
-     * @return - an array -> arr[0] = row, arr[1] = col.
-     */
-    private int[] searchGoalNumberPlace(int[][] goal, int num) {
-        int[] ans = new int[2];
-        for (int i = 0; i < goal.length; i++) {
-            for (int j = 0; j < goal[0].length; j++) {
-                if (goal[i][j] == num) {
-                    ans[0] = i;
-                    ans[1] = j;
-                    return ans;
-                }
-            }
-        }
+     * @return - h(state).
+     */
+    private int evaluate() {
+        return this.context.evaluate(this.distance, this.conflicts, twoEmpty());
+    }
 
+    /**
+     * This method return the numbers of the board, [row * cols + col].
+     */
+    private int[] cells() {
+        int[] ans = new int[this.board.size()];
+        this.board.copyTo(ans, 0);
         return ans;
     }
 
+    /**
+     * This method update the heuristic of a state created by a move from pre.
+     * Only the moved panels change their distance, and only the rows and cols of the moved panels can change
+     * their conflicts, so the rest of the board is taken from pre.
+     *
+     * @param from1 - the index the first panel moved from.
+     * @param to1   - the index the first panel moved to.
+     * @param from2 - the index the second panel moved from (-1 for a move of one panel).
+     * @param to2   - the index the second panel moved to (-1 for a move of one panel).
+     */
+    private void updateHeuristic(int from1, int to1, int from2, int to2) {
+        if (this.context.estimates()) {   // distance and conflicts are not used with a pattern database (or many goals).
+            this.heuristic = this.context.estimate(this.board);
+            return;
+        }
+        int cols = this.board.getCols();
+        int num1 = this.board.get(to1);
+        this.distance = this.pre.distance + this.context.distance(num1, to1) - this.context.distance(num1, from1);
+        if (from2 != -1) {
+            int num2 = this.board.get(to2);
+            this.distance += this.context.distance(num2, to2) - this.context.distance(num2, from2);
+        } else {
+            from2 = from1;
+            to2 = to1;
+        }
+        if (!twoEmpty()) {  // the empty panel moved the other way.
+            this.distance += this.context.distance(0, from1) - this.context.distance(0, to1);
+        }
+        int rowA = from1 / cols;
+        int rowB = to1 / cols != rowA ? to1 / cols : from2 / cols;
+        int colA = from1 % cols;
+        int colB = to1 % cols != colA ? to1 % cols : from2 % cols;
+        int[] cells = cells();
+        int after = this.context.lineConflicts(cells, rowA, rowB, colA, colB);
+        if (from2 != from1) {   // the board of pre: the panels back, the second one first.
+            cells[from2] = cells[to2];
+            cells[to2] = 0;
+        }
+        cells[from1] = cells[to1];
+        cells[to1] = 0;
+        this.conflicts = this.pre.conflicts - this.context.lineConflicts(cells, rowA, rowB, colA, colB) + after;
+        this.heuristic = evaluate();
+    }
+
+    /**
+     * This method check if Two panels p1 and p2 are in a linear conflict if p1 and p2 are in the same line, the goal positions
+     * of p1 and p2 are both in that line, p1 is to the right of p2 and goal position of p1 is to the left of the goal position of p2.
+     * and return the number of conflicts between different panels.
+     *
+     * @return - the number of conflicts.
+     */
+    int linearConflict() {
+        return this.context.conflicts(cells());
+    }
+
     /**
      * This method print state.
      *
@@ -737,34 +446,30 @@ public class State implements Comparable<State> {
      */
     @Override
     public String toString() {
-        String s = "";
-        for (int i = 0; i < board.length; i++) {
-            s += "\n";
-            for (int j = 0; j < board[0].length; j++) {
-                s += board[i][j] + "\t";
-            }
-        }
-        return s;
+        return this.board.toString();
     }
 
     /**
-     * This method Override the equals method.
+     * This method Override the equals method, two states are equal if their boards are equal.
      *
-     * @return - String of state.
+     * @return - true if the boards are equal.
      */
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         State state = (State) o;
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j < board[0].length; j++) {
-                if (board[i][j] != state.board[i][j]) {
-                    return false;
-                }
-            }
-        }
-        return true;
+        return this.board.equals(state.board);
+    }
+
+    /**
+     * This method Override the hashCode method, consistent with equals.
+     *
+     * @return - the hash of the board.
+     */
+    @Override
+    public int hashCode() {
+        return this.board.hashCode();
     }
 
 
@@ -776,8 +481,8 @@ public class State implements Comparable<State> {
      */
     @Override
     public int compareTo(State o) {
-        int thisDistance = this.manhattanDistance(this.goalStateBoard);
-        int oDistance = o.manhattanDistance(o.goalStateBoard);
+        int thisDistance = this.getHeuristic();
+        int oDistance = o.getHeuristic();
         if (this.getCost() + thisDistance > o.getCost() + oDistance) return 1;
         else if (this.getCost() + thisDistance < o.getCost() + oDistance) return -1;
         else if (this.getID() > o.getID()) return 1;
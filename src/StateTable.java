@@ -0,0 +1,284 @@
+import java.util.Arrays;
+
+/**
+ * This class represents an open-addressing hash table from a packed board to an int node index,
+ * used for the open and closed lists instead of java.util.Hashtable.
+ * The keys are kept in primitive arrays: the long itself for nibble-packed boards, or a byte-span in one shared
+ * arena for byte-packed boards, so no object is allocated per entry and no monitor is taken per operation.
+ * Collisions are resolved by linear probing, removal uses backward shifting (no tombstones) and the table doubles
+ * when it is half full.
+ *
+ * @Author Liav Weiss.
+ */
+public final class StateTable {
+
+    /**
+     * This class has eight fields:
+     *
+     * @param keys - nibble-packed boards, or the 64-bit hash of byte-packed boards.
+     * @param offsets - byte-packed boards only: the offset of the board in the arena.
+     * @param values - the node index + 1 of each slot (0 is an empty slot).
+     * @param arena - byte-packed boards only: the panels of all the keys, one after the other.
+     * @param arenaSize - the used part of the arena.
+     * @param cells - the number of panels per board (0 until the first put).
+     * @param nibble - true if the keys are nibble-packed boards.
+     * @param size - the number of entries.
+     */
+    private long[] keys;
+    private int[] offsets;
+    private int[] values;
+    private byte[] arena;
+    private int arenaSize;
+    private int cells;
+    private boolean nibble;
+    private int size;
+
+    /**
+     * constructor.
+     */
+    public StateTable() {
+        this(16);
+    }
+
+    /**
+     * constructor.
+     *
+     * @param expected - the expected number of entries.
+     */
+    public StateTable(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) {
+            capacity <<= 1;
+        }
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+    }
+
+    /**
+     * This method return the number of entries.
+     *
+     * @return - size.
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * This method return true if there are no entries.
+     *
+     * @return - size == 0.
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * This method check if the board is in the table.
+     *
+     * @param board - the board.
+     * @return - true if the table contain the board.
+     */
+    public boolean containsKey(PackedBoard board) {
+        return indexOf(board) >= 0;
+    }
+
+    /**
+     * This method return the node index of the board.
+     *
+     * @param board - the board.
+     * @return - the node index, -1 if the board is not in the table.
+     */
+    public int get(PackedBoard board) {
+        int slot = indexOf(board);
+        return slot < 0 ? -1 : this.values[slot] - 1;
+    }
+
+    /**
+     * This method put (or replace) the node index of the board.
+     *
+     * @param board - the board.
+     * @param node  - the node index (non negative).
+     * @return - the previous node index, -1 if the board was not in the table.
+     */
+    public int put(PackedBoard board, int node) {
+        if (this.cells == 0) {
+            this.cells = board.size();
+            this.nibble = board.isNibblePacked();
+            if (!this.nibble) {
+                this.offsets = new int[this.keys.length];
+                this.arena = new byte[this.keys.length * this.cells];
+            }
+        }
+        int mask = this.keys.length - 1;
+        int slot = (int) board.hash64() & mask;
+        while (this.values[slot] != 0) {
+            if (matches(slot, board)) {
+                int old = this.values[slot] - 1;
+                this.values[slot] = node + 1;
+                return old;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (this.nibble) {
+            this.keys[slot] = board.getBits();
+        } else {
+            this.keys[slot] = board.hash64();
+            this.offsets[slot] = appendToArena(board);
+        }
+        this.values[slot] = node + 1;
+        if (++this.size * 2 > this.keys.length) {
+            resize(this.keys.length << 1);
+        }
+        return -1;
+    }
+
+    /**
+     * This method remove the board from the table.
+     *
+     * @param board - the board.
+     * @return - the node index of the removed board, -1 if the board was not in the table.
+     */
+    public int remove(PackedBoard board) {
+        int slot = indexOf(board);
+        if (slot < 0) {
+            return -1;
+        }
+        int old = this.values[slot] - 1;
+        int mask = this.keys.length - 1;
+        // backward shift: move back every following entry whose home slot is not between the hole and it.
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (this.values[next] != 0) {
+            int home = homeOf(next) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                this.keys[hole] = this.keys[next];
+                this.values[hole] = this.values[next];
+                if (!this.nibble) {
+                    this.offsets[hole] = this.offsets[next];
+                }
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        this.values[hole] = 0;
+        this.size--;
+        return old;
+    }
+
+    /**
+     * This method remove all the entries.
+     */
+    public void clear() {
+        Arrays.fill(this.values, 0);
+        this.arenaSize = 0;
+        this.size = 0;
+    }
+
+    /**
+     * This method return the node indexes of all the entries (in table order).
+     *
+     * @return - new array of node indexes.
+     */
+    public int[] nodes() {
+        int[] ans = new int[this.size];
+        int k = 0;
+        for (int v : this.values) {
+            if (v != 0) {
+                ans[k++] = v - 1;
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * This method find the slot of the board.
+     *
+     * @param board - the board.
+     * @return - the slot, -1 if the board is not in the table.
+     */
+    private int indexOf(PackedBoard board) {
+        if (this.size == 0) {
+            return -1;
+        }
+        int mask = this.keys.length - 1;
+        int slot = (int) board.hash64() & mask;
+        while (this.values[slot] != 0) {
+            if (matches(slot, board)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * This method check if the key in the slot is the board.
+     */
+    private boolean matches(int slot, PackedBoard board) {
+        if (this.nibble) {
+            return this.keys[slot] == board.getBits();
+        }
+        return this.keys[slot] == board.hash64() && board.equalsBytes(this.arena, this.offsets[slot]);
+    }
+
+    /**
+     * This method return the (unmasked) home slot of the key in the slot.
+     */
+    private int homeOf(int slot) {
+        return this.nibble ? (int) PackedBoard.mix(this.keys[slot]) : (int) this.keys[slot];
+    }
+
+    /**
+     * This method copy the panels of the board to the end of the arena.
+     *
+     * @return - the offset of the board in the arena.
+     */
+    private int appendToArena(PackedBoard board) {
+        if (this.arenaSize + this.cells > this.arena.length) {
+            byte[] bigger = new byte[Math.max(this.arena.length * 2, this.arenaSize + this.cells)];
+            System.arraycopy(this.arena, 0, bigger, 0, this.arenaSize);
+            this.arena = bigger;
+        }
+        int offset = this.arenaSize;
+        board.copyTo(this.arena, offset);
+        this.arenaSize += this.cells;
+        return offset;
+    }
+
+    /**
+     * This method rehash all the entries into a new capacity (and compact the arena).
+     *
+     * @param capacity - the new capacity (power of two).
+     */
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        int[] oldValues = this.values;
+        int[] oldOffsets = this.offsets;
+        byte[] oldArena = this.arena;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        if (!this.nibble) {
+            this.offsets = new int[capacity];
+            this.arena = new byte[this.size * 2 * this.cells];
+            this.arenaSize = 0;
+        }
+        int mask = capacity - 1;
+        for (int k = 0; k < oldKeys.length; k++) {
+            if (oldValues[k] == 0) {
+                continue;
+            }
+            int home = this.nibble ? (int) PackedBoard.mix(oldKeys[k]) : (int) oldKeys[k];
+            int slot = home & mask;
+            while (this.values[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            this.keys[slot] = oldKeys[k];
+            this.values[slot] = oldValues[k];
+            if (!this.nibble) {
+                System.arraycopy(oldArena, oldOffsets[k], this.arena, this.arenaSize, this.cells);
+                this.offsets[slot] = this.arenaSize;
+                this.arenaSize += this.cells;
+            }
+        }
+    }
+}
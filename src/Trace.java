@@ -0,0 +1,277 @@
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+
+/**
+ * This class represents the trace of the open list of a search (the "with open" option).
+ * A snapshot of the open list is written every N expansions and at the first expansion after the threshold of an
+ * iterative search changes, instead of on every expansion, through a buffered writer:
+ * as text in the format of the open list print ("start", the boards, "end"), or as a compact binary file that is
+ * decoded offline with read (Ex1 --read-trace=file).
+ * <p>
+ * The binary file is the header (int MAGIC, byte VERSION, byte rows, byte cols) and then records:
+ * 'S', long expansion, int count, and count boards of rows * cols bytes (a snapshot),
+ * or 'T', long expansion, int threshold (a new threshold).
+ * The search writes from one thread, like SearchStats.
+ *
+ * @Author Liav Weiss.
+ */
+public final class Trace {
+
+    public static final int MAGIC = 0x50545243;    // "PTRC"
+    public static final int VERSION = 1;
+    private static final int SNAPSHOT = 'S';
+    private static final int THRESHOLD = 'T';
+
+    /**
+     * This class has seven fields:
+     *
+     * @param cols - The number of cols on the board.
+     * @param every - a snapshot is written every "every" expansions.
+     * @param binary - the binary writer, null for a text trace.
+     * @param text - the text writer, null for a binary trace.
+     * @param cells - one board of the binary trace.
+     * @param expansions - the number of expansions until now.
+     * @param forced - true if the next expansion writes a snapshot (the threshold changed).
+     */
+    private final int cols;
+    private final int every;
+    private final DataOutputStream binary;
+    private final PrintStream text;
+    private final byte[] cells;
+    private long expansions;
+    private boolean forced;
+
+    private Trace(int rows, int cols, int every, DataOutputStream binary, PrintStream text) {
+        if (every < 1) {
+            throw new IllegalArgumentException("the trace needs a sample of at least 1 expansion: " + every);
+        }
+        this.cols = cols;
+        this.every = every;
+        this.binary = binary;
+        this.text = text;
+        this.cells = new byte[rows * cols];
+    }
+
+    /**
+     * This method create a text trace in the format of the open list print.
+     *
+     * @param out   - the stream to write to (it is not closed by close()).
+     * @param rows  - The number of rows on the board.
+     * @param cols  - The number of cols on the board.
+     * @param every - a snapshot is written every "every" expansions (1 for all of them).
+     * @return - the trace.
+     */
+    public static Trace text(OutputStream out, int rows, int cols, int every) {
+        PrintStream text = new PrintStream(new BufferedOutputStream(out, 1 << 16), false);
+        return new Trace(rows, cols, every, null, text);
+    }
+
+    /**
+     * This method create a binary trace file.
+     *
+     * @param file  - the trace file.
+     * @param rows  - The number of rows on the board.
+     * @param cols  - The number of cols on the board.
+     * @param every - a snapshot is written every "every" expansions (1 for all of them).
+     * @return - the trace.
+     * @throws IOException - if the file cannot be written.
+     */
+    public static Trace binary(File file, int rows, int cols, int every) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(rows);
+        out.writeByte(cols);
+        return new Trace(rows, cols, every, out, null);
+    }
+
+    /**
+     * This method count one expansion and decide if it writes a snapshot of the open list.
+     *
+     * @return - true if the search should write a snapshot now (begin, the boards, end).
+     */
+    public boolean sample() {
+        this.expansions++;
+        if (this.forced || this.expansions % this.every == 0) {
+            this.forced = false;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * This method start a snapshot of the open list.
+     *
+     * @param count - the number of boards in the snapshot.
+     */
+    public void begin(int count) {
+        if (this.text != null) {
+            this.text.println("start");
+            return;
+        }
+        try {
+            this.binary.writeByte(SNAPSHOT);
+            this.binary.writeLong(this.expansions);
+            this.binary.writeInt(count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This method write one board of the snapshot.
+     *
+     * @param board - the board.
+     */
+    public void board(PackedBoard board) {
+        if (this.text != null) {
+            this.text.println(board);
+            return;
+        }
+        board.copyTo(this.cells, 0);
+        write(this.cells);
+    }
+
+    /**
+     * This method write one board of the snapshot.
+     *
+     * @param panels - panels[k] is the number in panel k.
+     */
+    public void board(int[] panels) {
+        for (int k = 0; k < panels.length; k++) {
+            this.cells[k] = (byte) panels[k];
+        }
+        if (this.text != null) {
+            this.text.println(text(this.cells, this.cols));
+            return;
+        }
+        write(this.cells);
+    }
+
+    /**
+     * This method end a snapshot of the open list.
+     */
+    public void end() {
+        if (this.text != null) {
+            this.text.println("end");
+        }
+    }
+
+    /**
+     * This method record a new threshold of an iterative search, the next expansion writes a snapshot.
+     *
+     * @param t - the threshold.
+     */
+    public void threshold(int t) {
+        this.forced = true;
+        if (this.binary == null) {
+            return;
+        }
+        try {
+            this.binary.writeByte(THRESHOLD);
+            this.binary.writeLong(this.expansions);
+            this.binary.writeInt(t);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This method write the buffered trace out (the end of a search).
+     */
+    public void flush() {
+        try {
+            if (this.text != null) {
+                this.text.flush();
+            } else {
+                this.binary.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This method flush the trace and close the binary file (a text trace leaves its stream open).
+     */
+    public void close() throws IOException {
+        if (this.text != null) {
+            this.text.flush();
+        } else {
+            this.binary.close();
+        }
+    }
+
+    private void write(byte[] board) {
+        try {
+            this.binary.write(board);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * This method decode a binary trace to text: every snapshot in the format of the open list print,
+     * after a line with its expansion, and a line for every new threshold.
+     *
+     * @param in  - the binary trace.
+     * @param out - the text.
+     * @throws IOException - if the trace cannot be read or is not a trace.
+     */
+    public static void read(InputStream in, PrintStream out) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC || data.readByte() != VERSION) {
+            throw new IOException("not a trace file (or a trace of another version)");
+        }
+        int rows = data.readUnsignedByte();
+        int cols = data.readUnsignedByte();
+        byte[] board = new byte[rows * cols];
+        while (true) {
+            int type;
+            try {
+                type = data.readUnsignedByte();
+            } catch (EOFException e) {
+                break;
+            }
+            long expansion = data.readLong();
+            if (type == THRESHOLD) {
+                out.println("threshold " + data.readInt() + " after " + expansion + " expansions");
+            } else if (type == SNAPSHOT) {
+                int count = data.readInt();
+                out.println("expansion " + expansion + ", " + count + " states");
+                out.println("start");
+                for (int k = 0; k < count; k++) {
+                    data.readFully(board);
+                    out.println(text(board, cols));
+                }
+                out.println("end");
+            } else {
+                throw new IOException("bad trace record: " + type);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * This method return the text of a board, in the format of the board print.
+     */
+    private static String text(byte[] board, int cols) {
+        StringBuilder s = new StringBuilder(board.length * 3);
+        for (int k = 0; k < board.length; k++) {
+            if (k % cols == 0) {
+                s.append('\n');
+            }
+            s.append(board[k] & 0xFF).append('\t');
+        }
+        return s.toString();
+    }
+}
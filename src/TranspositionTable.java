@@ -0,0 +1,189 @@
+/**
+ * This class represents a fixed-size transposition table for IDA*, keyed by the 64-bit key of a board
+ * (MutableBoard.getKey()).
+ * Every entry keeps the smallest g the board was reached with in the current iteration (a board reached again with the
+ * same or a bigger g in the same iteration has nothing new under it) and a learned lower bound of its h (the smallest
+ * f that exceeded the threshold under it, minus its g), which cuts the board in the next iterations before its
+ * subtree is searched again.
+ * <p>
+ * The table never grows: a new board takes the place of the board in its slot by the replacement policy.
+ * An entry is two longs, the key xor the data and the data, so a reader that sees a slot half written (by another
+ * thread) sees a key that does not match and takes it as empty, and reads need no lock.
+ *
+ * @Author Liav Weiss.
+ */
+public final class TranspositionTable {
+
+    /**
+     * The replacement policy when two boards want the same slot.
+     * ALWAYS - the new board takes the slot.
+     * DEPTH - the board with the smaller g (closer to the start, with the bigger subtree) keeps the slot, unless it was
+     * last stored in an older iteration.
+     */
+    public enum Replacement {ALWAYS, DEPTH}
+
+    /**
+     * The default number of entries (16 bytes each).
+     */
+    public static final int DEFAULT_ENTRIES = 1 << 20;
+
+    private static final int BITS = 24;
+    private static final long MASK = (1L << BITS) - 1;
+    private static final int NONE = (int) MASK;
+
+    /**
+     * This class has five fields:
+     *
+     * @param checks - checks[slot] is the key xor the data of the entry.
+     * @param data - data[slot] is a used bit, the iteration (15 bits), the learned h (24 bits) and the g (24 bits)
+     * of the entry (0 for an empty slot).
+     * @param mask - the number of slots - 1 (the number of slots is a power of 2).
+     * @param replacement - the replacement policy.
+     * @param iteration - the iteration that stores now, the g of an entry of another iteration is not used.
+     */
+    private final long[] checks;
+    private final long[] data;
+    private final int mask;
+    private final Replacement replacement;
+    private int iteration;
+
+    /**
+     * constructor.
+     *
+     * @param entries     - the number of entries, rounded down to a power of 2.
+     * @param replacement - the replacement policy.
+     */
+    public TranspositionTable(int entries, Replacement replacement) {
+        if (entries < 1) {
+            throw new IllegalArgumentException("a transposition table needs at least one entry: " + entries);
+        }
+        int size = Integer.highestOneBit(entries);
+        this.checks = new long[size];
+        this.data = new long[size];
+        this.mask = size - 1;
+        this.replacement = replacement;
+    }
+
+    /**
+     * This method create a table of about the given size.
+     *
+     * @param megabytes   - the size of the table in megabytes.
+     * @param replacement - the replacement policy.
+     * @return - the table.
+     */
+    public static TranspositionTable ofMegabytes(int megabytes, Replacement replacement) {
+        long entries = ((long) megabytes << 20) / 16;
+        return new TranspositionTable((int) Math.min(Math.max(entries, 1), 1 << 30), replacement);
+    }
+
+    /**
+     * This method start a new iteration: the g of the entries of older iterations is not used any more,
+     * their learned h is.
+     */
+    public void nextIteration() {
+        this.iteration = (this.iteration + 1) & 0x7FFF;
+    }
+
+    /**
+     * This method return the data of the board, or 0 if the board is not in the table.
+     */
+    private long find(long key) {
+        int slot = slot(key);
+        long d = this.data[slot];
+        return (this.checks[slot] ^ d) == key && d != 0 ? d : 0;
+    }
+
+    private int slot(long key) {
+        return (int) PackedBoard.mix(key) & this.mask;
+    }
+
+    /**
+     * This method check if the board was already reached in this iteration with the same or a smaller g.
+     *
+     * @param key - the key of the board.
+     * @param g   - the cost of the path to the board.
+     * @return - true if the subtree of the board was already searched (or is searched now) with at most this g.
+     */
+    public boolean seen(long key, int g) {
+        long d = find(key);
+        return d != 0 && iterationOf(d) == this.iteration && gOf(d) != NONE && gOf(d) <= g;
+    }
+
+    /**
+     * This method return the learned lower bound of h of the board.
+     *
+     * @param key - the key of the board.
+     * @return - the learned h, 0 if nothing was learned about the board.
+     */
+    public int learned(long key) {
+        long d = find(key);
+        return d == 0 ? 0 : hOf(d);
+    }
+
+    /**
+     * This method store that the board was reached with g in this iteration.
+     *
+     * @param key - the key of the board.
+     * @param g   - the cost of the path to the board.
+     */
+    public void visit(long key, int g) {
+        long d = find(key);
+        int h = d == 0 ? 0 : hOf(d);
+        store(key, d, pack(this.iteration, h, Math.min(g, NONE - 1)), g);
+    }
+
+    /**
+     * This method store a lower bound of h of the board, learned when its subtree was searched.
+     *
+     * @param key - the key of the board.
+     * @param g   - the cost of the path to the board (it is searched now, so it is in the table unless it was replaced).
+     * @param h   - the learned h, kept if it is bigger than the h in the table.
+     */
+    public void learn(long key, int g, int h) {
+        long d = find(key);
+        int old = d == 0 ? 0 : hOf(d);
+        if (h <= old) {
+            return;
+        }
+        int entryG = d != 0 && iterationOf(d) == this.iteration ? gOf(d) : NONE;
+        store(key, d, pack(this.iteration, Math.min(h, NONE - 1), entryG), g);
+    }
+
+    /**
+     * This method write the entry of the board, by the replacement policy when the slot holds another board.
+     */
+    private void store(long key, long found, long entry, int g) {
+        int slot = slot(key);
+        long d = this.data[slot];
+        if (found == 0 && d != 0 && this.replacement == Replacement.DEPTH
+                && (this.checks[slot] ^ d) != key && iterationOf(d) == this.iteration && gOf(d) < g) {
+            return;     // the other board is closer to the start.
+        }
+        this.data[slot] = entry;
+        this.checks[slot] = key ^ entry;
+    }
+
+    private static long pack(int iteration, int h, int g) {
+        return (long) iteration << (2 * BITS) | (long) h << BITS | g | 1L << 63;
+    }
+
+    private static int iterationOf(long d) {
+        return (int) (d >>> (2 * BITS)) & 0x7FFF;
+    }
+
+    private static int hOf(long d) {
+        return (int) ((d >>> BITS) & MASK);
+    }
+
+    private static int gOf(long d) {
+        return (int) (d & MASK);
+    }
+
+    public int size() {
+        return this.data.length;
+    }
+
+    public Replacement getReplacement() {
+        return replacement;
+    }
+}
@@ -0,0 +1,123 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests that a single search with the default heuristic answers like the first version of the solver (the
+ * answers below are the output of the first version). BFS, DFID, IDA* without the transposition table and DFBnB answer
+ * the same path, number of states and cost. A* answers the same path and cost, but its open list breaks ties on f by
+ * the larger g, so it does not generate the same number of states.
+ */
+public class BaselineOutputTest {
+
+    /**
+     * The instances: the start, the goal, and the answers of BFS, DFID, A*, IDA* and DFBnB of the first version.
+     */
+    private static final String[][] INSTANCES = {
+            {"1,2,3,4/5,6,11,7/9,10,8,_", "1,2,3,4/5,6,7,8/9,10,11,_",
+                    "8R-11D-7L-8U\nNum: 21\nCost: 20\n",
+                    "8R-11D-7L-8U\nNum: 34\nCost: 20\n",
+                    "8R-11D-7L-8U\nNum: 10\nCost: 20\n",
+                    "8R-11D-7L-8U\nNum: 14\nCost: 20\n",
+                    "8R-11D-7L-8U\nNum: 8\nCost: 20\n"},
+            {"2,8,3/1,6,4/7,_,5", "1,2,3/8,_,4/7,6,5",
+                    "6D-8D-2R-1U-8L\nNum: 60\nCost: 25\n",
+                    "6D-8D-2R-1U-8L\nNum: 120\nCost: 25\n",
+                    "6D-8D-2R-1U-8L\nNum: 12\nCost: 25\n",
+                    "6D-8D-2R-1U-8L\nNum: 10\nCost: 25\n",
+                    "6D-8D-2R-1U-8L\nNum: 10\nCost: 25\n"},
+            {"1,2,3,4/5,_,6,8/9,10,7,_", "1,2,3,4/5,6,7,8/9,10,_,_",
+                    "6L-7U\nNum: 9\nCost: 10\n",
+                    "6L-7U\nNum: 9\nCost: 10\n",
+                    "6L-7U\nNum: 12\nCost: 10\n",
+                    "6L-7U\nNum: 25\nCost: 10\n",
+                    "6L-7U\nNum: 7\nCost: 10\n"},
+            {"5,1,3/4,2,6/7,8,_", "1,2,3/4,5,6/7,8,_",
+                    "8R-7R-4D-5D-1L-2U-5R-4U-7L-8L\nNum: 503\nCost: 50\n",
+                    "8R-7R-4D-5D-1L-2U-5R-4U-7L-8L\nNum: 1270\nCost: 50\n",
+                    "8R-7R-4D-5D-1L-2U-5R-4U-7L-8L\nNum: 54\nCost: 50\n",
+                    "8R-7R-4D-5D-1L-2U-5R-4U-7L-8L\nNum: 141\nCost: 50\n",
+                    "8R-7R-4D-5D-1L-2U-5R-4U-7L-8L\nNum: 111350\nCost: 50\n"},
+            {"1,3,5/4,_,2/7,8,6", "1,2,3/4,5,6/7,8,_",
+                    "2L-5D-3R-2U-5L-6U\nNum: 78\nCost: 30\n",
+                    "2L-5D-3R-2U-5L-6U\nNum: 162\nCost: 30\n",
+                    "2L-5D-3R-2U-5L-6U\nNum: 20\nCost: 30\n",
+                    "2L-5D-3R-2U-5L-6U\nNum: 25\nCost: 30\n",
+                    "2L-5D-3R-2U-5L-6U\nNum: 76133\nCost: 30\n"},
+            {"1,3,_/_,2,6/4,5,7", "1,2,3/4,5,6/7,_,_",
+                    "3R-2U-5&4U-7L-7L\nNum: 363\nCost: 27\n",
+                    "3R-2U-5&4U-7L-7L\nNum: 1150\nCost: 27\n",
+                    "3R-2U-5&4U-7L-7L\nNum: 70\nCost: 27\n",
+                    "3R-2U-5&4U-7L-7L\nNum: 318\nCost: 27\n",
+                    "3R-2U-5&4U-7L-7L\nNum: 19\nCost: 27\n"},
+            {"1,2,3/4,8,5/_,7,6", "1,2,3/4,5,6/7,8,_",
+                    "7L-8D-5L-6U\nNum: 18\nCost: 20\n",
+                    "7L-8D-5L-6U\nNum: 30\nCost: 20\n",
+                    "7L-8D-5L-6U\nNum: 11\nCost: 20\n",
+                    "7L-8D-5L-6U\nNum: 8\nCost: 20\n",
+                    "7L-8D-5L-6U\nNum: 30\nCost: 20\n"}
+    };
+
+    @Test
+    public void bfs() {
+        answersLikeTheFirstVersion("BFS", 2, true);
+    }
+
+    @Test
+    public void dfid() {
+        answersLikeTheFirstVersion("DFID", 3, true);
+    }
+
+    @Test
+    public void aStar() {
+        answersLikeTheFirstVersion("A*", 4, false);
+    }
+
+    @Test
+    public void idaStar() {
+        answersLikeTheFirstVersion("IDA*", 5, true);
+    }
+
+    @Test
+    public void dfbnb() {
+        answersLikeTheFirstVersion("DFBnB", 6, true);
+    }
+
+    /**
+     * This method solve every instance with the algorithm, without the transposition table, and compare the answer with
+     * the answer of the first version (only the path and the cost if !withNum).
+     */
+    private static void answersLikeTheFirstVersion(String algorithm, int column, boolean withNum) {
+        for (String[] instance : INSTANCES) {
+            int[][] goal = board(instance[1]);
+            Algo search = Ex1.algorithm(new Problem(algorithm, false, false, board(instance[0]), goal),
+                    new ProblemContext(goal), 1);
+            SearchOptions options = new SearchOptions();
+            options.setTranspositions(0, TranspositionTable.Replacement.DEPTH);
+            options.apply(search);
+            String ans = search.solve();
+            String expected = instance[column];
+            if (!withNum) {
+                ans = ans.replaceAll("Num: \\d+\\n", "");
+                expected = expected.replaceAll("Num: \\d+\\n", "");
+            }
+            assertEquals(expected, ans, algorithm + " from " + instance[0]);
+        }
+    }
+
+    /**
+     * This method return the board of rows separated by "/" and numbers separated by "," ("_" for an empty panel).
+     */
+    private static int[][] board(String text) {
+        String[] rows = text.split("/");
+        int[][] ans = new int[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            String[] nums = rows[i].split(",");
+            ans[i] = new int[nums.length];
+            for (int j = 0; j < nums.length; j++) {
+                ans[i][j] = nums[j].equals("_") ? 0 : Integer.parseInt(nums[j]);
+            }
+        }
+        return ans;
+    }
+}
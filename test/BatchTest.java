@@ -0,0 +1,27 @@
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests Batch: the open list of an instance "with open" is written in its own record.
+ */
+public class BatchTest {
+
+    private static final String INSTANCES = "A*\nno time\nwith open\n2x2\n1,2\n_,3\nGoal state:\n1,2\n3,_\n\n"
+            + "BFS\nno time\nno open\n3x3\n1,2,3\n4,5,6\n7,_,8\nGoal state:\n1,2,3\n4,5,6\n7,8,_\n";
+
+    @Test
+    public void writesTheOpenListInTheRecordOfItsInstance() throws IOException {
+        StringWriter out = new StringWriter();
+        new Batch(2, Batch.Order.INPUT, null, null, 1).run(new StringReader(INSTANCES), out, null);
+        String[] records = out.toString().split("\n\n#");
+        assertEquals(2, records.length);
+        assertEquals("#1 A*\nstart\n\n1\t2\t\n0\t3\t\nend\nstart\n\n0\t2\t\n1\t3\t\n\n1\t2\t\n3\t0\t\nend\n3L\nNum: 3\nCost: 5\n",
+                records[0].substring(0, records[0].indexOf("second")).replaceAll("[0-9.]+ $", ""));
+        assertEquals("2 BFS\n8L\nNum: 2\nCost: 5\n", records[1].substring(0, records[1].indexOf("second")).replaceAll("[0-9.]+ $", ""));
+    }
+}
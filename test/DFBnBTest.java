@@ -0,0 +1,26 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests DFBnB with the default heuristic: the path of the first version, which keeps the moves that were
+ * kept before t became smaller.
+ */
+public class DFBnBTest {
+
+    private static final int[][] GOAL = {{1, 2, 3}, {4, 5, 6}, {7, 8, 0}};
+
+    @Test
+    public void answersTheCostOfTheFirstVersion() {
+        int[][] start = {{5, 1, 3}, {4, 2, 6}, {7, 8, 0}};
+        Problem problem = new Problem("DFBnB", false, false, start, GOAL);
+        assertEquals("8R-7R-4D-5D-1L-2U-5R-4U-7L-8L\nNum: 111350\nCost: 50\n",
+                Ex1.solve(problem, new ProblemContext(GOAL), 1));
+    }
+
+    @Test
+    public void theStartIsTheGoal() {
+        Problem problem = new Problem("DFBnB", false, false, GOAL, GOAL);
+        assertEquals("\nNum: 0\nCost: 0\n", Ex1.solve(problem, new ProblemContext(GOAL), 1));
+    }
+}
@@ -0,0 +1,20 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests that ExternalBFS answers the path and the cost of BFS, on a small board with a number above 15 (a
+ * byte-packed board, so a record keeps 8 bits of every panel).
+ */
+public class ExternalBFSTest {
+
+    @Test
+    public void answersLikeBFS() {
+        int[][] goal = {{1, 2, 3}, {4, 20, 0}};
+        int[][] start = {{20, 1, 3}, {4, 0, 2}};
+        ProblemContext context = new ProblemContext(goal);
+        String bfs = Ex1.solve(new Problem("BFS", false, false, start, goal), context, 1);
+        String ebfs = Ex1.solve(new Problem("EBFS", false, false, start, goal), context, 1);
+        assertEquals(bfs.replaceAll("Num: \\d+\\n", ""), ebfs.replaceAll("Num: \\d+\\n", ""));    // the path and the cost.
+    }
+}
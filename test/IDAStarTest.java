@@ -0,0 +1,35 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.util.Vector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests IDA* with the transposition table and the default heuristic: the learned bounds must not depend on
+ * the path to the board, or a small game without a path is searched for ever.
+ */
+public class IDAStarTest {
+
+    private static final int[][] GOAL = {{1, 2}, {3, 0}};
+
+    @Test
+    public void theStartIsTheGoal() {
+        Problem problem = new Problem("IDA*", false, false, GOAL, GOAL);
+        assertEquals("\nNum: 0\nCost: 0\n", Ex1.solve(problem, new ProblemContext(GOAL), 1));
+    }
+
+    @Test
+    @Timeout(10)
+    public void noPathEnds() {
+        ProblemContext context = new ProblemContext(GOAL);
+        State start = new State(new int[][]{{2, 1}, {3, 0}}, 0, null, context, 1, 1, -1, -1);
+        Vector<State> goals = new Vector<>();
+        goals.add(new State(GOAL, 0, null, context, 1, 1, -1, -1));
+        // built without Ex1.algorithm, which answers this instance without a search.
+        String[] ans = new IDAStar(start, goals, false).solve().split("\n");
+        assertEquals("no path", ans[0]);
+        assertTrue(Integer.parseInt(ans[1].substring("Num: ".length())) < 1000, ans[1]);    // 12 boards in the game.
+    }
+}
@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests that the optimal searches answer the cheapest cost with an admissible heuristic (the pattern database
+ * and the Manhattan distance), on small games with one empty panel where the cheapest cost is 5 times the number of
+ * moves of a breadth-first search.
+ */
+public class OptimalCostTest {
+
+    /**
+     * The number of states A* holds before it goes on as IDA* from its open list (most of the boards need more).
+     */
+    private static final int BUDGET = 10;
+
+    private static final String[] OPTIMAL = {"BFS", "A*", "IDA*", "DFBnB", "HDA*", "PIDA*", "BiBFS", "BiA*", "ARA*", "auto", "portfolio"};
+
+    @TempDir
+    File dir;
+
+    @Test
+    public void cheapestCost2x3() throws IOException {
+        cheapestCost(new int[][]{{1, 2, 3}, {4, 5, 0}}, "1,2,3/4,5", 8);
+    }
+
+    @Test
+    public void cheapestCost3x3() throws IOException {
+        cheapestCost(new int[][]{{1, 2, 3}, {4, 5, 6}, {7, 8, 0}}, "auto", 6);
+    }
+
+    /**
+     * This method solve the goal itself and random boards of the game (random walks from the goal) with every optimal
+     * search and both admissible heuristics, and compare the costs with the breadth-first search over the whole game.
+     */
+    private void cheapestCost(int[][] goal, String partition, int instances) throws IOException {
+        Map<PackedBoard, Integer> distances = SmallGames.distances(goal);
+        ProblemContext[] contexts = {
+                new ProblemContext(goal, PatternDatabase.load(goal, partition, this.dir)),
+                new ProblemContext(goal).manhattan()
+        };
+        Random random = new Random(7);
+        for (int k = 0; k < instances; k++) {
+            PackedBoard start = k == 0 ? PackedBoard.of(goal) : randomWalk(PackedBoard.of(goal), 10 + 4 * k, random);
+            int cheapest = 5 * distances.get(start);
+            for (ProblemContext context : contexts) {
+                for (String algorithm : OPTIMAL) {
+                    assertEquals("Cost: " + cheapest, cost(algorithm, new SearchOptions(), start, goal, context),
+                            algorithm + " from\n" + start);
+                }
+                SearchOptions budget = new SearchOptions();
+                budget.setMemoryBudget(BUDGET);
+                assertEquals("Cost: " + cheapest, cost("A*", budget, start, goal, context),
+                        "A* with a budget from\n" + start);
+            }
+        }
+    }
+
+    /**
+     * This method solve one board with the options and return the line of the cost of the answer.
+     */
+    private static String cost(String algorithm, SearchOptions options, PackedBoard start, int[][] goal,
+                               ProblemContext context) {
+        Algo search = Ex1.algorithm(new Problem(algorithm, false, false, start.toArray(), goal), context, 2);
+        options.apply(search);
+        return search.solve().split("\n")[2];
+    }
+
+    /**
+     * This method return the board after random moves of the empty panel.
+     */
+    private static PackedBoard randomWalk(PackedBoard board, int moves, Random random) {
+        int cols = board.getCols();
+        for (int m = 0; m < moves; m++) {
+            int empty = SmallGames.emptyCell(board);
+            int from;
+            do {
+                int[] steps = {-1, 1, -cols, cols};
+                from = empty + steps[random.nextInt(4)];
+            } while (from < 0 || from >= board.size() || (Math.abs(from - empty) == 1 && from / cols != empty / cols));
+            board = board.slide(from, empty);
+        }
+        return board;
+    }
+}
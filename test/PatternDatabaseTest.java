@@ -0,0 +1,79 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests PatternDatabase: the ranks of the placements and the admissibility of the tables.
+ */
+public class PatternDatabaseTest {
+
+    @TempDir
+    File dir;
+
+    @Test
+    public void rankAndUnrankAreOpposite() {
+        int n = 6;
+        int k = 3;
+        Set<Integer> ranks = new HashSet<>();
+        int[] pos = new int[k];
+        for (int a = 0; a < n; a++) {
+            for (int b = 0; b < n; b++) {
+                for (int c = 0; c < n; c++) {
+                    if (a == b || a == c || b == c) {
+                        continue;
+                    }
+                    int[] placement = {a, b, c};
+                    int rank = PatternDatabase.rank(placement, n);
+                    assertTrue(rank >= 0 && rank < n * (n - 1) * (n - 2));
+                    assertTrue(ranks.add(rank), "two placements with the rank " + rank);
+                    PatternDatabase.unrank(rank, n, k, pos);
+                    assertArrayEquals(placement, pos);
+                }
+            }
+        }
+        assertEquals(n * (n - 1) * (n - 2), ranks.size());
+    }
+
+    @Test
+    public void neverExceedsTheCheapestCost2x3() throws IOException {
+        neverExceedsTheCheapestCost(new int[][]{{1, 2, 3}, {4, 5, 0}}, "1,2,3/4,5");
+    }
+
+    @Test
+    public void neverExceedsTheCheapestCost3x3() throws IOException {
+        neverExceedsTheCheapestCost(new int[][]{{1, 2, 3}, {4, 5, 6}, {7, 8, 0}}, "auto");
+    }
+
+    /**
+     * This method check the heuristic of every board of the game against its exact cost (5 for every move), and that
+     * the goal gets 0.
+     */
+    private void neverExceedsTheCheapestCost(int[][] goal, String partition) throws IOException {
+        PatternDatabase patterns = PatternDatabase.load(goal, partition, this.dir);
+        Map<PackedBoard, Integer> distances = SmallGames.distances(goal);
+        for (Map.Entry<PackedBoard, Integer> entry : distances.entrySet()) {
+            int h = patterns.estimate(entry.getKey());
+            assertTrue(h <= 5 * entry.getValue(), "h " + h + " > cost " + 5 * entry.getValue() + " of\n" + entry.getKey());
+        }
+        assertEquals(0, patterns.estimate(PackedBoard.of(goal)));
+    }
+
+    @Test
+    public void loadsTheSameTablesAgain() throws IOException {
+        int[][] goal = {{1, 2, 3}, {4, 5, 0}};
+        PatternDatabase built = PatternDatabase.load(goal, "1,2,3/4,5", this.dir);
+        PatternDatabase loaded = PatternDatabase.load(goal, "1,2,3/4,5", this.dir);
+        for (PackedBoard board : SmallGames.distances(goal).keySet()) {
+            assertEquals(built.estimate(board), loaded.estimate(board));
+        }
+    }
+}
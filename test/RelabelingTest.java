@@ -0,0 +1,47 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class tests Relabeling: the canonical goal, the numbers of the answer mapped back and the relabeled partition.
+ */
+public class RelabelingTest {
+
+    private static final int[][] GOAL = {{3, 1}, {2, 0}};
+    private static final int[][] START = {{0, 3}, {2, 1}};
+
+    @Test
+    public void theGoalBecomesCanonical() {
+        Problem problem = new Problem("A*", false, false, START, GOAL);
+        Problem relabeled = Relabeling.of(problem).apply(problem);
+        assertArrayEquals(new int[][]{{1, 2}, {3, 0}}, relabeled.getGoalBoard());
+        assertArrayEquals(new int[][]{{0, 1}, {3, 2}}, relabeled.getStartBoard());
+    }
+
+    @Test
+    public void restoreMapsTheMovesBack() {
+        Relabeling relabeling = Relabeling.of(new Problem("A*", false, false, START, GOAL));
+        assertEquals("3L-1&2U\nNum: 5\nCost: 12\n", relabeling.restore("1L-2&3U\nNum: 5\nCost: 12\n"));
+        assertEquals("no path\nNum: 3\n", relabeling.restore("no path\nNum: 3\n"));
+    }
+
+    @Test
+    public void restoreGivesTheAnswerOfTheInstance() {
+        Problem problem = new Problem("A*", false, false, START, GOAL);
+        Relabeling relabeling = Relabeling.of(problem);
+        Problem relabeled = relabeling.apply(problem);
+        String ans = relabeling.restore(Ex1.solve(relabeled, new ProblemContext(relabeled.getGoalBoard()), 1));
+        assertEquals("3L-1U\n", ans.substring(0, ans.indexOf('N')));
+        assertEquals(Ex1.solve(problem, new ProblemContext(GOAL), 1), ans);
+    }
+
+    @Test
+    public void thePartitionIsRelabeled() {
+        Relabeling relabeling = Relabeling.of(new Problem("A*", false, false, START, GOAL));
+        assertEquals("1,2/3", relabeling.partition("3,1/2"));
+        assertEquals("auto", relabeling.partition("auto"));
+        assertThrows(IllegalArgumentException.class, () -> relabeling.partition("1,7"));
+    }
+}
@@ -0,0 +1,56 @@
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class holds the helpers of the tests: the exact number of moves from every board of a small game with one empty
+ * panel to its goal, by a breadth-first search over the whole game (every move costs 5 there, so the cheapest path is
+ * the shortest one).
+ */
+final class SmallGames {
+
+    private SmallGames() {
+    }
+
+    /**
+     * This method return the number of moves from every board that can reach the goal (one empty panel).
+     *
+     * @param goal - the goal board.
+     * @return - board to the number of moves to the goal.
+     */
+    static Map<PackedBoard, Integer> distances(int[][] goal) {
+        Map<PackedBoard, Integer> ans = new HashMap<>();
+        ArrayDeque<PackedBoard> queue = new ArrayDeque<>();
+        PackedBoard start = PackedBoard.of(goal);
+        ans.put(start, 0);
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            PackedBoard board = queue.poll();
+            int empty = emptyCell(board);
+            int cols = board.getCols();
+            for (int from : new int[]{empty - 1, empty + 1, empty - cols, empty + cols}) {
+                if (from < 0 || from >= board.size() || (Math.abs(from - empty) == 1 && from / cols != empty / cols)) {
+                    continue;
+                }
+                PackedBoard next = board.slide(from, empty);
+                if (!ans.containsKey(next)) {
+                    ans.put(next, ans.get(board) + 1);
+                    queue.add(next);
+                }
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * This method return the cell of the empty panel.
+     */
+    static int emptyCell(PackedBoard board) {
+        for (int cell = 0; cell < board.size(); cell++) {
+            if (board.get(cell) == 0) {
+                return cell;
+            }
+        }
+        throw new IllegalArgumentException("no empty panel");
+    }
+}
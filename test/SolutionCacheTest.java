@@ -0,0 +1,76 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * This class tests SolutionCache: the answers of the rest of a cached path, the file between runs and the LRU index.
+ */
+public class SolutionCacheTest {
+
+    private static final int[][] GOAL = {{1, 2}, {3, 0}};
+    private static final int[][] START = {{0, 1}, {3, 2}};
+    private static final int[][] MIDDLE = {{1, 0}, {3, 2}};
+    private static final String ANSWER = "1L-2U\nNum: 7\nCost: 10\n";
+
+    @TempDir
+    File dir;
+
+    /**
+     * This method return the admissible context of a goal (the Manhattan distance times the price of a step).
+     */
+    private static ProblemContext admissible(int[][] goal) {
+        return new ProblemContext(goal).manhattan();
+    }
+
+    @Test
+    public void answersTheRestOfAPath() throws IOException {
+        SolutionCache cache = new SolutionCache(new File(this.dir, "cache.txt"), 100);
+        cache.store(new Problem("A*", false, false, START, GOAL), admissible(GOAL), ANSWER);
+        assertEquals("1L-2U\nNum: 0\nCost: 10\n", cache.lookup(START, GOAL));
+        assertEquals("2U\nNum: 0\nCost: 5\n", cache.lookup(MIDDLE, GOAL));
+        assertNull(cache.lookup(GOAL, START));
+    }
+
+    @Test
+    public void readsTheFileAgainAndSkipsABrokenLine() throws IOException {
+        File file = new File(this.dir, "cache.txt");
+        new SolutionCache(file, 100).store(new Problem("IDA*", false, false, START, GOAL), admissible(GOAL), ANSWER);
+        Files.write(file.toPath(), Arrays.asList("5/6/7 2 2 1,2,3,0 0,1", "9/9/9 2 2 1,2,3,0 1,0,3,2 5 2U"),
+                StandardCharsets.UTF_8, java.nio.file.StandardOpenOption.APPEND);
+        SolutionCache cache = new SolutionCache(file, 100);
+        assertEquals(2, cache.size());
+        assertEquals("2U\nNum: 0\nCost: 5\n", cache.lookup(MIDDLE, GOAL));
+    }
+
+    @Test
+    public void onlyOptimalAnswersAreCached() throws IOException {
+        SolutionCache cache = new SolutionCache(new File(this.dir, "cache.txt"), 100);
+        cache.store(new Problem("A*", false, false, START, GOAL), new ProblemContext(GOAL), ANSWER);  // not admissible.
+        cache.store(new Problem("BFS", false, false, START, GOAL), admissible(GOAL), ANSWER);
+        cache.store(new Problem("A*", false, false, START, GOAL), admissible(GOAL), "no path\nNum: 3\n");
+        assertEquals(0, cache.size());
+        assertNull(cache.lookup(START, GOAL));
+    }
+
+    @Test
+    public void forgetsTheLeastRecentlyUsedBoard() throws IOException {
+        SolutionCache cache = new SolutionCache(new File(this.dir, "cache.txt"), 2);
+        cache.store(new Problem("A*", false, false, START, GOAL), admissible(GOAL), ANSWER);
+        assertEquals(2, cache.size());
+        cache.lookup(START, GOAL);      // MIDDLE is now the least recently used.
+        int[][] otherGoal = {{1, 2}, {0, 3}};
+        cache.store(new Problem("A*", false, false, GOAL, otherGoal), admissible(otherGoal), "3R\nNum: 2\nCost: 5\n");
+        assertEquals(2, cache.size());
+        assertNull(cache.lookup(MIDDLE, GOAL));
+        assertEquals("1L-2U\nNum: 0\nCost: 10\n", cache.lookup(START, GOAL));
+        assertEquals("3R\nNum: 0\nCost: 5\n", cache.lookup(GOAL, otherGoal));
+    }
+}
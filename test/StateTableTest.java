@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests StateTable: put, get and the backward shift deletion, for nibble-packed and byte-packed boards.
+ */
+public class StateTableTest {
+
+    @Test
+    public void putGetAndReplace() {
+        StateTable table = new StateTable();
+        PackedBoard a = PackedBoard.of(new int[][]{{1, 2}, {3, 0}});
+        PackedBoard b = PackedBoard.of(new int[][]{{1, 2}, {0, 3}});
+        assertEquals(-1, table.put(a, 0));
+        assertEquals(-1, table.put(b, 1));
+        assertEquals(0, table.put(a, 7));
+        assertEquals(7, table.get(a));
+        assertEquals(1, table.get(b));
+        assertEquals(2, table.size());
+    }
+
+    @Test
+    public void removeKeepsEveryOtherBoardNibble() {
+        removeKeepsEveryOtherBoard(3, 3);
+    }
+
+    @Test
+    public void removeKeepsEveryOtherBoardBytes() {
+        removeKeepsEveryOtherBoard(5, 5);
+    }
+
+    /**
+     * This method fill a small table (so the probe runs are long and the removals shift entries back), remove every
+     * other board and check that all the boards that are left are still found, and the removed ones are not.
+     */
+    private static void removeKeepsEveryOtherBoard(int rows, int cols) {
+        List<PackedBoard> boards = randomBoards(rows, cols, 3000, new Random(42));
+        StateTable table = new StateTable(1);
+        for (int k = 0; k < boards.size(); k++) {
+            table.put(boards.get(k), k);
+        }
+        for (int k = 0; k < boards.size(); k += 2) {
+            assertEquals(k, table.remove(boards.get(k)));
+        }
+        assertEquals(boards.size() / 2, table.size());
+        for (int k = 0; k < boards.size(); k++) {
+            if (k % 2 == 0) {
+                assertFalse(table.containsKey(boards.get(k)));
+                assertEquals(-1, table.remove(boards.get(k)));
+            } else {
+                assertEquals(k, table.get(boards.get(k)));
+            }
+        }
+        for (int k = 1; k < boards.size(); k += 2) {
+            assertEquals(k, table.remove(boards.get(k)));
+        }
+        assertTrue(table.isEmpty());
+    }
+
+    /**
+     * This method return distinct random boards (the numbers 1..cells-1 and one empty panel).
+     */
+    private static List<PackedBoard> randomBoards(int rows, int cols, int count, Random random) {
+        List<Integer> cells = new ArrayList<>();
+        for (int k = 0; k < rows * cols; k++) {
+            cells.add(k);
+        }
+        StateTable seen = new StateTable();
+        List<PackedBoard> ans = new ArrayList<>();
+        while (ans.size() < count) {
+            Collections.shuffle(cells, random);
+            int[][] board = new int[rows][cols];
+            for (int k = 0; k < cells.size(); k++) {
+                board[k / cols][k % cols] = cells.get(k);
+            }
+            PackedBoard packed = PackedBoard.of(board);
+            if (seen.put(packed, ans.size()) == -1) {
+                ans.add(packed);
+            }
+        }
+        return ans;
+    }
+}
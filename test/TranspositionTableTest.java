@@ -0,0 +1,67 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests TranspositionTable: the g of the current iteration, the learned h and the replacement policies
+ * (a table of one entry, so every two boards want the same slot).
+ */
+public class TranspositionTableTest {
+
+    private static final long A = 0x1234_5678_9ABCL;
+    private static final long B = 0x0FED_CBA9_8765L;
+
+    @Test
+    public void seenWithTheSameOrABiggerG() {
+        TranspositionTable table = new TranspositionTable(1024, TranspositionTable.Replacement.DEPTH);
+        assertFalse(table.seen(A, 10));
+        table.visit(A, 10);
+        assertTrue(table.seen(A, 10));
+        assertTrue(table.seen(A, 15));
+        assertFalse(table.seen(A, 5));
+    }
+
+    @Test
+    public void learnedHOutlivesTheIteration() {
+        TranspositionTable table = new TranspositionTable(1024, TranspositionTable.Replacement.DEPTH);
+        table.visit(A, 10);
+        table.learn(A, 10, 30);
+        table.learn(A, 10, 20);     // a smaller h does not replace a bigger one.
+        table.nextIteration();
+        assertFalse(table.seen(A, 10));
+        assertEquals(30, table.learned(A));
+        assertEquals(0, table.learned(B));
+    }
+
+    @Test
+    public void depthKeepsTheBoardCloserToTheStart() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.DEPTH);
+        table.visit(A, 10);
+        table.visit(B, 20);
+        assertTrue(table.seen(A, 10));
+        assertFalse(table.seen(B, 20));
+        table.visit(B, 5);
+        assertTrue(table.seen(B, 5));
+        assertFalse(table.seen(A, 10));
+    }
+
+    @Test
+    public void depthReplacesAnEntryOfAnOlderIteration() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.DEPTH);
+        table.visit(A, 10);
+        table.nextIteration();
+        table.visit(B, 20);
+        assertTrue(table.seen(B, 20));
+    }
+
+    @Test
+    public void alwaysReplaces() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.Replacement.ALWAYS);
+        table.visit(A, 10);
+        table.visit(B, 20);
+        assertTrue(table.seen(B, 20));
+        assertFalse(table.seen(A, 10));
+    }
+}